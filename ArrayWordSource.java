@@ -0,0 +1,88 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * This is a WordSource held in memory, used for the built in word library and
+ * for small lists of words.
+ *
+ * <p>
+ * All of the words are in one category, and are grouped by length when the
+ * source is created.
+ *
+ * The following files are also required to run:
+ *
+ * WordSource.java
+ */
+
+public class ArrayWordSource implements WordSource {
+
+    private final String category; // Name of the only category
+    private final String[] words; // Every word, shortest first
+    private final int[] groupStarts; // First word of each group, plus the total at the end
+
+    /**
+     * @param category Name of the category the words are in
+     * @param words    Words in capital letters
+     */
+    public ArrayWordSource(String category, String... words) {
+        this.category = category;
+        this.words = words.clone();
+        Arrays.sort(this.words, Comparator.comparingInt(String::length)); // Stable, so equal lengths keep their order
+
+        List<Integer> starts = new ArrayList<Integer>();
+        for (int i = 0; i < this.words.length; i++) {
+            if (i == 0 || this.words[i].length() != this.words[i - 1].length()) {
+                starts.add(i);
+            }
+        }
+        starts.add(this.words.length);
+        groupStarts = starts.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Override
+    public int size() {
+        return words.length;
+    }
+
+    @Override
+    public String getWord(int index) {
+        return words[index];
+    }
+
+    @Override
+    public int getGroupCount() {
+        return groupStarts.length - 1;
+    }
+
+    @Override
+    public int getGroupStart(int group) {
+        return groupStarts[group];
+    }
+
+    @Override
+    public int getGroupSize(int group) {
+        return groupStarts[group + 1] - groupStarts[group];
+    }
+
+    @Override
+    public int getGroupLength(int group) {
+        return words[groupStarts[group]].length();
+    }
+
+    @Override
+    public int getGroupCategory(int group) {
+        return 0;
+    }
+
+    @Override
+    public int getCategoryCount() {
+        return 1;
+    }
+
+    @Override
+    public String getCategoryName(int category) {
+        return this.category;
+    }
+}
@@ -1,14 +1,20 @@
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * This runs the data structure for the Word Search game
- * 
+ *
  * This program manages the underlying data model.
- * 
+ *
+ * <p>
+ * The board and hidden words are held in an immutable Puzzle, and the player's
+ * progress in a GameSession, so a Base is just one player at one puzzle. Many
+ * players can share a puzzle by each starting their own Base or GameSession on
+ * it, as the GameServer does.
+ *
  * The following files are also required to run:
- * 
- * WordSearch.java WordList.java WordSelect.java
- * 
+ *
+ * Difficulty.java DifficultyProfile.java GameSession.java Puzzle.java WordSource.java
+ *
  * @version 2.0
  * @author Seth Hilder (478393)
  * @version 14 May 2018
@@ -16,224 +22,74 @@ import java.util.Random;
 
 public class Base {
 
-    private WordList wordList = new WordList(); // Hold the list of words that the user still needs to find
-    private WordSelected wordSelect = new WordSelected(); // Holds a list of selected characters
-
-    private char[][] gameBoard; // Becomes the gameBoard, and is initialized with a size from WordSearch.java
-    private int boardSize; // Holds the size of the board
-    private String wordIn = new String(); // Stores the word that the user selects
-    private int oldRow = -1; // Set to the row of the first letter of wordSelect
-    private int oldCol = -1; // Set to the column of the first letter of wordSelect
-    private final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ"; // Conatins all possible random letters
-    
-    private final int EASY_BOARD_SIZE = 15;
-    private final int MEDIUM_BOARD_SIZE = 20;
-    private final int HARD_BOARD_SIZE = 25;
-    private final int EASY_WORD_SIZE = 4;
-    private final int MEDIUM_WORD_SIZE = 8;
-    private final int HARD_WORD_SIZE = 12;
+    private Puzzle puzzle; // Board and words, shared with any other player of the same puzzle
+    private GameSession session; // Words found and letters selected by this player
+    private WordSource wordSource = LIBRARY; // Words that can be hidden
 
     final static String[] WORD_LIBRARY = { "COMPUTER", "UTAS", "JAVA", "INFORMATION", "COMMUNICATION", "TECHNOLOGY",
             "PROGRAMMING", "CLASS", "FUNCTION", "INTERNET", "LAPTOP", "DESKTOP", "PROCESSOR", "SERVER", "INTEGER",
             "FLOAT", "BOOLEAN", "WINDOWS", "APPLE", "SOFTWARE", "HARDWARE", "SECURITY", "LECTURE", "TUTORIAL", "PASS",
             "LINUX", "GOOGLE", "FACEBOOK", "LINKEDIN", "METHOD", "BROWSER", "APPLICATION", "DATA", "DEVELOPMENT",
             "ETHICS", "VULNERABILITY", "SYSTEM" }; // Library of words that are possible to be hidden
+    final static WordSource LIBRARY = new ArrayWordSource("library", WORD_LIBRARY); // Used unless another source is set
 
     /**
-     * Starts the game board with the size depending on difficulty selected.
-     * 
+     * Starts the game board with the size depending on difficulty selected, using
+     * a new random seed.
+     *
      * @param difficulty Difficulty setting chosen by user, used to set gameboard
      *                   and wordList size
      */
-    public void initGameBoard(WordSearch.Difficulty difficulty) {
-        switch (difficulty) {
-        case EASY:
-            boardSize = EASY_BOARD_SIZE;
-            randomizeWordList(EASY_WORD_SIZE); // Sets wordList to 4 random words
-            startGameBoard(boardSize); // Starts gameboard with size of 15x15
-            break;
-        case MEDIUM:
-            boardSize = MEDIUM_BOARD_SIZE;
-            randomizeWordList(MEDIUM_WORD_SIZE); // Sets wordList to 8 random words
-            startGameBoard(boardSize); // Starts gameboard with size of 20x20
-            break;
-        case HARD:
-            boardSize = HARD_BOARD_SIZE;
-            randomizeWordList(HARD_WORD_SIZE); // Sets wordList to 12 random words
-            startGameBoard(boardSize); // Starts gameboard with size of 25x25
-            break;
-        }
-        populateGameBoard(); // Places the words on the board
-        fillGameBoard(); // Randomizes unfilled positions to a random Char
-        // printGameBoard();
-    }
-    
-    /**
-     * Initializes the gameBoard
-     * 
-     * @param size Sets the 2d array size as sizeXsize (e.g a 15x15 grid)
-     */
-    public void startGameBoard(int size) {
-        gameBoard = new char[size][size];
-    }
-    
-    /**
-     * Places the words in wordList in the board. Runs checks so that all positions
-     * are valid and not overwriting another word
-     */
-    public void populateGameBoard() {
-        Random rand = new Random(); // Random value generator
-        int modifier; // Changes the location that is currently being written to
-        int orientation, randCol, randRow; // These store the values of the orientaion, the column of the first letter,
-                                           // and the row of the first letter respectively
-        boolean added = false; // Stores whether ir not a given word has been added
-
-        for (int i = 0; i < wordList.getSize(); i++) {
-            do {
-                added = false;
-                orientation = rand.nextInt(4);
-                randRow = rand.nextInt(boardSize);
-                randCol = rand.nextInt(boardSize);
-                if (checkInBounds(gameBoard, orientation, randRow, randCol, wordList.getValue(i).length())) {
-                    if (checkForOverwrite(gameBoard, orientation, randRow, randCol, wordList.getValue(i).length())) {
-                        for (int j = 0; j < wordList.getValue(i).length(); j++) {
-                            modifier = j; // Increments the position that is currently being written to
-                            switch (orientation) {
-                            case 0: // If orientation is verical up
-                                gameBoard[randRow - modifier][randCol] = wordList.getValue(i).charAt(modifier);
-                                break;
-                            case 1: // If orientation is horizontal right
-                                gameBoard[randRow][randCol + modifier] = wordList.getValue(i).charAt(modifier);
-                                break;
-                            case 2: // If orientation is verical down
-                                gameBoard[randRow + modifier][randCol] = wordList.getValue(i).charAt(modifier);
-                                break;
-                            case 3: // If orientation is horizontal left
-                                gameBoard[randRow][randCol - modifier] = wordList.getValue(i).charAt(modifier);
-                                break;
-                            }
-                            added = true;
-                        }
-                    }
-                }
-            } while (!added); // Loop until word is added
-        }
+    public void initGameBoard(Difficulty difficulty) {
+        initGameBoard(difficulty, ThreadLocalRandom.current().nextLong());
     }
 
     /**
-     * Prevents words from randomizing into positions that cause them to overwrite
-     * already writen words.
-     * 
-     * @param orientation Orientation that the word will be put into.
-     * @param row         Row that the first letter of the word will be placed in
-     * @param col         Column that the first letter of the word will be place in
-     * @param length      Length of the word that is being checked
-     * 
-     * @return Returns true if word will not overwrite another word
+     * Starts the game board with the size depending on difficulty selected. The
+     * same difficulty and seed always give the same board, so a board can be
+     * stored as just these two values and rebuilt when needed.
+     *
+     * @param difficulty Difficulty setting chosen by user, used to set gameboard
+     *                   and wordList size
+     * @param seed       Seed for every random choice made while generating
      */
-    public boolean checkForOverwrite(char[][] gameBoard, int orientation, int row, int col, int length) {
-        boolean checker = true;
-        int modifier;
-
-        for (int i = 0; i < length; i++) {
-            modifier = i;
-            switch (orientation) {
-            case 0:
-                if (gameBoard[row - modifier][col] != 0) {
-                    checker = false;
-                }
-                break;
-            case 1:
-                if (gameBoard[row][col + modifier] != 0) {
-                    checker = false;
-                }
-                break;
-            case 2:
-                if (gameBoard[row + modifier][col] != 0) {
-                    checker = false;
-                }
-                break;
-            case 3:
-                if (gameBoard[row][col - modifier] != 0) {
-                    checker = false;
-                }
-                break;
-            }
-        }
-        return checker;
+    public void initGameBoard(Difficulty difficulty, long seed) {
+        initGameBoard(difficulty.getProfile(), seed);
     }
 
     /**
-     * Prevents words from randomising into positions that cause them to pass
-     * outside of the gameBoard array bounds
-     * 
-     * @param orientation Orientation that the word will be put into.
-     * @param row         Row that the first letter of the word will be placed in
-     * @param col         Column that the first letter of the word will be place in
-     * @param length      Length of the word that is being checked
-     * 
-     * @return Returns true if word will not pass out of array bounds
+     * Starts the game board from a profile, which may give any board size, number
+     * of words and set of directions. The same profile and seed always give the
+     * same board.
+     *
+     * @param profile Size, words and directions of the board
+     * @param seed    Seed for every random choice made while generating
+     *
+     * @throws IllegalArgumentException If wordSource doesn't have enough words
+     *                                  that fit the profile
+     * @throws IllegalStateException    If the words could not be placed
      */
-    public boolean checkInBounds(char[][] gameBoard, int orientation, int row, int col, int length) {
-        boolean inbounds = false;
-
-        switch (orientation) {
-        case 0:
-            if ((row + 1) - length >= 0) {
-                inbounds = true;
-            }
-            break;
-        case 1:
-            if (col + length <= boardSize) {
-                inbounds = true;
-            }
-            break;
-        case 2:
-            if ((row - 1) + length < boardSize) {
-                inbounds = true;
-            }
-            break;
-        case 3:
-            if ((col + 1) - length >= 0) {
-                inbounds = true;
-            }
-        }
-
-        return inbounds;
+    public void initGameBoard(DifficultyProfile profile, long seed) {
+        startPuzzle(Puzzle.generate(profile, seed, wordSource));
     }
 
     /**
-     * Randomizes the words in wordList
-     * 
-     * @param count Sets how many words to be put in wordList
+     * Starts playing a puzzle that has already been generated, with nothing found
+     * or selected
      */
-    public void randomizeWordList(int count) {
-        Random rand = new Random();
-        wordList.clearArrayList(); // Clears the word list
-        int wordsAdded = 0; // Tracks how many words have been added already
-        while (wordsAdded < count) {
-            int randomVal = rand.nextInt(WORD_LIBRARY.length);
-
-            if (!wordList.checkContains(WORD_LIBRARY[randomVal])) { // If word isn't in wordList yet
-                wordList.addWord(WORD_LIBRARY[randomVal]);
-                wordsAdded++;
-            }
-        }
+    public void startPuzzle(Puzzle puzzle) {
+        this.puzzle = puzzle;
+        this.session = new GameSession(puzzle);
     }
 
     /**
-     * Loops through the gameboard and anywhere there is a blank position fills it
-     * with a random char
+     * Carries on playing a saved game, with the words found before it was saved
+     *
+     * @throws IllegalArgumentException If the found words don't fit the puzzle
      */
-    public void fillGameBoard() {
-        Random randChar = new Random(); // Random value generator
-        for (int i = 0; i < boardSize; i++) {
-            for (int j = 0; j < boardSize; j++) {
-                if (gameBoard[i][j] == 0) {
-                    gameBoard[i][j] = ALPHABET.charAt(randChar.nextInt(ALPHABET.length()));
-                }
-            }
-        }
+    public void resumeGame(SavedGame saved) {
+        this.session = saved.resume();
+        this.puzzle = saved.getPuzzle();
     }
 
     /**
@@ -241,131 +97,188 @@ public class Base {
      * complete
      */
     public void selectFoundWord(int rowSelection, int colSelection) {
-        addLetter(getBoardPos(rowSelection, colSelection));
-        checkForFinishedWord(rowSelection, colSelection);
-    }
-
-    /**
-     * Checks that the user hasnt cheated, converts the wordSelect ArrayList into
-     * string stored in wordIn, then checks if wordIn is a word in wordList.
-     * 
-     * <p>
-     * If a wordIn matches a word, removes the word from wordList, and resets
-     * wordSelect and wordIn to hold nothing
-     */
-    public void checkForFinishedWord(int rowSelection, int colSelection) {
-        checkForSameRowCol(rowSelection, colSelection);
-        wordSelectToString();
-        for (int i = 0; i < getWordListSize(); i++) {
-            if (wordIn.equals(getWordListValue(i))) {
-                removeWordListValue(i);
-                clearWordSelect();
-                wordIn = "";
-            }
-        }
+        session.select(rowSelection, colSelection);
     }
 
     /**
      * Checks that the user hasn't cheated by clearing wordSelected if the most
-     * recent letter is in a different row and column to the first letter selected
+     * recent letter is not in the same row, column or diagonal as the first
+     * letter selected
      */
     public void checkForSameRowCol(int rowSelection, int colSelection) {
-        if (wordIn.length() == 0) {
-            oldCol = colSelection;
-            oldRow = rowSelection;
-        } else if (!(oldRow == rowSelection || oldCol == colSelection)) {
-            clearWordSelect();
-        }
-    }
-
-    /**
-     * Converts the wordSelect ArrayList to a string stored in wordIn by concating
-     * each character on the the end of the string
-     */
-    public void wordSelectToString() {
-        wordIn = "";
-        for (int i = 0; i < getWordSelectSize(); i++) {
-            wordIn = wordIn.concat(String.valueOf(getWordSelectValue(i)));
-        }
+        session.checkForSameRowCol(rowSelection, colSelection);
     }
 
     /**
-     * Removes the last letter added to the arrayList wordSelect, then calls
-     * wordSelectToString() to refresh the game window
+     * Removes the last letter added to wordSelect
      */
     public void deleteLastLetter() {
-        if (wordSelect.getSize() > 0) {
-            wordSelect.removeLastValue();
-        }
+        session.deleteLastLetter();
     }
 
     /**
      * Adds a given letter to wordSelect
      */
     public void addLetter(char val) {
-        wordSelect.addLetter(val);
+        session.addLetter(val);
     }
 
     /**
      * Clears all values from wordSelect
      */
     public void clearWordSelect() {
-        wordSelect.clearArrayList();
+        session.clearSelection();
     }
 
     /**
      * Returns the size of wordSelect
      */
     public int getWordSelectSize() {
-        return wordSelect.getSize();
+        return session.getSelectionSize();
     }
 
     /**
      * Returns the char at a given position of wordSelect
      */
     public char getWordSelectValue(int pos) {
-        return wordSelect.getValue(pos);
+        return session.getSelectionValue(pos);
+    }
+
+    /**
+     * Returns how many words are still to be found
+     */
+    public int getRemainingCount() {
+        return session.getRemainingCount();
     }
 
     /**
-     * Returns the size of wordList
+     * Returns true once every word has been found
      */
-    public int getWordListSize() {
-        return wordList.getSize();
+    public boolean isFinished() {
+        return session.isFinished();
     }
 
     /**
-     * Returns the value at a given position in wordList
+     * Returns how many words have been found
      */
-    public String getWordListValue(int pos) {
-        return wordList.getValue(pos);
+    public int getFoundCount() {
+        return session.getFoundCount();
     }
 
     /**
-     * Removes a given position from wordList
+     * Returns how many words are hidden, found or not
      */
-    public void removeWordListValue(int pos) {
-        wordList.removeWordListValue(pos);
+    public int getWordCount() {
+        return puzzle.getWordCount();
+    }
+
+    /**
+     * Returns the hidden word with a given number
+     */
+    public String getWord(int word) {
+        return puzzle.getWord(word);
+    }
+
+    /**
+     * Returns true if the word with a given number has been found
+     */
+    public boolean isFound(int word) {
+        return session.isFound(word);
     }
 
     /**
      * Returns the character at a given position in the gameBoard
      */
     public char getBoardPos(int row, int col) {
-        return gameBoard[row][col];
+        return puzzle.getBoard().getChar(row, col);
+    }
+
+    /**
+     * Returns the shared String used to draw the character at a given position in
+     * the gameBoard, so that drawing does not create a new String each frame
+     */
+    public String getBoardGlyph(int row, int col) {
+        return puzzle.getBoard().getGlyph(row, col);
+    }
+
+    /**
+     * Returns the gameBoard, which is shared with the puzzle and must not be
+     * changed
+     */
+    public Board getBoard() {
+        return puzzle.getBoard();
+    }
+
+    /**
+     * Returns where the word with a given number was placed
+     */
+    public WordPlacement getPlacement(int word) {
+        return puzzle.getPlacement(word);
     }
 
     /**
      * Returns the value of the boardSize variable
      */
     public int getBoardSize() {
-        return boardSize;
+        return puzzle.getBoardSize();
+    }
+
+    /**
+     * Returns the difficulty the board was generated for, or null if it was
+     * generated from some other profile
+     */
+    public Difficulty getDifficulty() {
+        return puzzle.getDifficulty();
+    }
+
+    /**
+     * Returns the profile the board was generated from
+     */
+    public DifficultyProfile getProfile() {
+        return puzzle.getProfile();
+    }
+
+    /**
+     * Returns the puzzle being played
+     */
+    public Puzzle getPuzzle() {
+        return puzzle;
+    }
+
+    /**
+     * Returns the player's progress through the puzzle
+     */
+    public GameSession getSession() {
+        return session;
+    }
+
+    /**
+     * Sets where the words hidden by the next call to initGameBoard() are drawn
+     * from, such as a MappedWordSource
+     */
+    public void setWordSource(WordSource wordSource) {
+        this.wordSource = wordSource;
+    }
+
+    /**
+     * Returns where hidden words are drawn from
+     */
+    public WordSource getWordSource() {
+        return wordSource;
+    }
+
+    /**
+     * Returns the seed the board was generated from
+     */
+    public long getSeed() {
+        return puzzle.getSeed();
     }
 
     /**
-     * Returns the value of wordIn
+     * Returns the selected letters as a String, for display. The String is only
+     * made again after the selection changes.
      */
     public String getWordIn() {
-        return wordIn;
+        return session.getSelectedText();
     }
 }
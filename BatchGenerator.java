@@ -0,0 +1,154 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * This generates large numbers of Word Search boards without the JavaFX user
+ * interface, spreading the work across every core.
+ *
+ * <p>
+ * Boards are made in chunks. Each chunk is generated (and formatted) in
+ * parallel, then handed on in order, so memory use stays bounded no matter
+ * how many boards are requested. Chunks of large boards hold fewer boards, so
+ * that a chunk never holds much more than MAX_CHUNK_CELLS cells.
+ *
+ * <p>
+ * Board i of a batch is always generated from seedFor(seed, i), so the same
+ * batch seed gives the same boards in the same order however many threads
+ * are used.
+ *
+ * The following files are also required to run:
+ *
+ * Base.java DifficultyProfile.java PuzzleWriter.java WordSource.java
+ */
+
+public class BatchGenerator {
+
+    static final int DEFAULT_CHUNK_SIZE = 4096; // Boards generated before any are handed on
+    static final long MAX_CHUNK_CELLS = 1 << 24; // Cells generated before any are handed on
+
+    /**
+     * Work done on each board of a batch by map()
+     */
+    public interface Work<T> {
+        T apply(int index, Base game);
+    }
+
+    private final int chunkSize;
+    private final WordSource wordSource; // Words hidden on every board
+
+    public BatchGenerator() {
+        this(DEFAULT_CHUNK_SIZE, Base.LIBRARY);
+    }
+
+    /**
+     * @param chunkSize  How many boards to hold in memory at once
+     * @param wordSource Words to hide, which must be safe to read from many
+     *                   threads at once
+     */
+    public BatchGenerator(int chunkSize, WordSource wordSource) {
+        this.chunkSize = chunkSize;
+        this.wordSource = wordSource;
+    }
+
+    /**
+     * Generates a number of boards and passes each one to sink, in order
+     *
+     * @param count      How many boards to generate
+     * @param profile    Size, words and directions of every board
+     * @param seed       Seed for the whole batch
+     * @param sink       Called once for each board, always from the calling
+     *                   thread
+     */
+    public void generate(int count, DifficultyProfile profile, long seed, Consumer<Base> sink) {
+        map(count, profile, seed, (index, game) -> game, sink);
+    }
+
+    /**
+     * Generates a number of boards, turns each one into something else on the
+     * worker threads, such as a rendered page, and passes the results to sink
+     * in order. Only one chunk of results is held at a time.
+     *
+     * @param count   How many boards to generate
+     * @param profile Size, words and directions of every board
+     * @param seed    Seed for the whole batch
+     * @param work    Called once for each board with its position in the
+     *                batch, on any thread
+     * @param sink    Called once for each result, always from the calling
+     *                thread
+     */
+    public <T> void map(int count, DifficultyProfile profile, long seed, Work<T> work, Consumer<T> sink) {
+        int boards = chunkSize(profile);
+        for (int done = 0; done < count; done += boards) {
+            int first = done;
+            Object[] chunk = IntStream.range(0, Math.min(boards, count - done)).parallel()
+                    .mapToObj(i -> work.apply(first + i, newGame(profile, seedFor(seed, first + i)))).toArray();
+            for (Object result : chunk) {
+                @SuppressWarnings("unchecked") // Every result came from work
+                T next = (T) result;
+                sink.accept(next);
+            }
+        }
+    }
+
+    /**
+     * Generates a number of boards and writes them out in a given format. The
+     * boards are formatted on the worker threads, so only the writing itself is
+     * done one board at a time.
+     *
+     * @param count      How many boards to generate
+     * @param profile    Size, words and directions of every board
+     * @param seed       Seed for the whole batch
+     * @param format     Format to write each board in
+     * @param out        Where to write the boards
+     */
+    public void write(int count, DifficultyProfile profile, long seed, PuzzleWriter.Format format, Writer out)
+            throws IOException {
+        int boards = chunkSize(profile);
+        for (int done = 0; done < count; done += boards) {
+            int first = done;
+            String[] chunk = IntStream.range(0, Math.min(boards, count - done)).parallel().mapToObj(i -> {
+                StringBuilder text = new StringBuilder(profile.getBoardSize() * (profile.getBoardSize() + 3) + 1024);
+                PuzzleWriter.append(newGame(profile, seedFor(seed, first + i)), format, text);
+                return text.toString();
+            }).toArray(String[]::new);
+            for (String text : chunk) {
+                out.write(text);
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Returns how many boards of a profile are generated at once
+     */
+    private int chunkSize(DifficultyProfile profile) {
+        long cells = (long) profile.getBoardSize() * profile.getBoardSize();
+        return (int) Math.max(1, Math.min(chunkSize, MAX_CHUNK_CELLS / cells));
+    }
+
+    /**
+     * Returns the seed of a given board in a batch. Neighbouring indexes are
+     * mixed (using the SplitMix64 finalizer) so their boards are unrelated.
+     *
+     * @param seed  Seed for the whole batch
+     * @param index Position of the board in the batch
+     */
+    public static long seedFor(long seed, long index) {
+        long z = seed + (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Creates and fills a single board
+     */
+    private Base newGame(DifficultyProfile profile, long seed) {
+        Base game = new Base();
+        game.setWordSource(wordSource);
+        game.initGameBoard(profile, seed);
+        return game;
+    }
+}
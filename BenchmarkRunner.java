@@ -0,0 +1,201 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This times small pieces of the Word Search game and measures how much memory
+ * they allocate, so that slow or wasteful changes to the hot paths show up as
+ * numbers.
+ *
+ * <p>
+ * Each task is first run until the JIT has had time to compile it, then its
+ * batch size is set so one batch takes about a tenth of the measuring time, and
+ * several batches are timed. Time per operation is the mean over every batch,
+ * with the fastest and slowest batch to show how steady it was. Allocation is
+ * read from the JVM's count of bytes allocated by the current thread, the same
+ * count JMH's gc profiler uses, along with the number of garbage collections
+ * during the measured batches.
+ *
+ * <p>
+ * Every task returns a value that is added to a field nobody reads, so the JIT
+ * can't throw away the work being measured.
+ *
+ * <p>
+ * This is quick to run but is not JMH, and its numbers are only good for
+ * comparing one change with the next on the same machine:
+ * <ul>
+ * <li>No forking. Every task runs in the same JVM, one after another, so the
+ * JIT's profile of shared code is shaped by the tasks run before it.</li>
+ * <li>No blackhole. Adding results to a field stops the work being dropped, but
+ * the JIT can still fold or hoist parts of a task that don't feed the
+ * result.</li>
+ * <li>No warm-up control. Warming up is a fixed time, with no check that
+ * compilation has finished or that batches have settled before measuring.</li>
+ * </ul>
+ * The same tasks can be run under JMH, which handles all three, from the jmh
+ * folder; see collecting().
+ *
+ * The following files are also required to run:
+ *
+ * HotPathBenchmark.java
+ */
+
+public class BenchmarkRunner {
+
+    static final int BATCHES = 10; // Batches timed for each task
+
+    /**
+     * A piece of work to be measured
+     */
+    interface Task {
+
+        /**
+         * Does the work a given number of times
+         *
+         * @return Anything that depends on the work done
+         */
+        long run(int ops) throws Exception;
+    }
+
+    private final long warmupNanos; // Time spent running each task before measuring it
+    private final long measureNanos; // Time spent measuring each task
+    private final String filter; // Only tasks whose name contains this are run
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private long sink; // Results of every task, never read
+    private Map<String, Task> collected; // Tasks kept instead of measured, if collecting
+
+    /**
+     * @param warmupMillis  How long to run each task before measuring it
+     * @param measureMillis Roughly how long to measure each task for
+     * @param filter        Only tasks with this in their name are run, or null
+     *                      for every task
+     */
+    public BenchmarkRunner(long warmupMillis, long measureMillis, String filter) {
+        this.warmupNanos = warmupMillis * 1_000_000;
+        this.measureNanos = measureMillis * 1_000_000;
+        this.filter = filter;
+    }
+
+    /**
+     * Returns a runner that measures nothing, but keeps every task passed to
+     * run() so that another harness can run them
+     */
+    static BenchmarkRunner collecting() {
+        BenchmarkRunner runner = new BenchmarkRunner(0, 0, null);
+        runner.collected = new LinkedHashMap<String, Task>();
+        return runner;
+    }
+
+    /**
+     * Returns every task kept by a collecting runner, by name, in the order
+     * they were passed to run()
+     */
+    Map<String, Task> getCollected() {
+        return collected;
+    }
+
+    /**
+     * Prints the heading for the rows printed by run()
+     */
+    public void printHeader() {
+        System.out.printf("%-36s %12s %12s %12s %12s %6s  %s%n", "benchmark", "ops", "ns/op", "min ns/op",
+                "B/op", "gcs", "notes");
+    }
+
+    /**
+     * Measures a task and prints one row of results, unless the task is
+     * filtered out
+     *
+     * @param name  Name to print, and to match the filter against
+     * @param task  The work to measure
+     * @param notes Anything else to print with the row, such as what the task
+     *              counted, or null
+     * @return Nanoseconds per operation, or -1 if the task was filtered out or
+     *         kept by a collecting runner
+     */
+    public double run(String name, Task task, Notes notes) throws Exception {
+        if (filter != null && !name.contains(filter)) {
+            return -1;
+        }
+        if (collected != null) {
+            collected.put(name, task);
+            return -1;
+        }
+        int batch = 1;
+        long start = System.nanoTime();
+        while (System.nanoTime() - start < warmupNanos) { // Also finds how many ops take a tenth of measureNanos
+            long batchStart = System.nanoTime();
+            sink += task.run(batch);
+            long took = System.nanoTime() - batchStart;
+            if (took < measureNanos / BATCHES && batch < Integer.MAX_VALUE / 2) {
+                batch *= 2;
+            }
+        }
+        if (notes != null) {
+            notes.reset();
+        }
+
+        long gcsBefore = gcCount();
+        long allocatedBefore = allocatedBytes();
+        long total = 0;
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < BATCHES; i++) {
+            long batchStart = System.nanoTime();
+            sink += task.run(batch);
+            long took = System.nanoTime() - batchStart;
+            total += took;
+            fastest = Math.min(fastest, took);
+        }
+        long allocated = allocatedBytes() - allocatedBefore;
+        long gcs = gcCount() - gcsBefore;
+
+        long ops = (long) batch * BATCHES;
+        double nanosPerOp = (double) total / ops;
+        System.out.printf("%-36s %12d %12.1f %12.1f %12s %6d  %s%n", name, ops, nanosPerOp, (double) fastest / batch,
+                allocated < 0 ? "n/a" : String.format("%.1f", (double) allocated / ops), gcs,
+                notes == null ? "" : notes.describe(ops));
+        return nanosPerOp;
+    }
+
+    /**
+     * Returns the bytes allocated by this thread so far, or a negative number if
+     * the JVM doesn't count them
+     */
+    private long allocatedBytes() {
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * Returns how many garbage collections there have been so far
+     */
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    /**
+     * Returns the value built up from every task, so that it is used somewhere
+     */
+    long getSink() {
+        return sink;
+    }
+
+    /**
+     * Something a task counts as it runs, printed with its results. Reset once
+     * warming up is over, so it only counts the measured operations.
+     */
+    interface Notes {
+
+        void reset();
+
+        String describe(long ops);
+    }
+}
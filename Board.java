@@ -0,0 +1,153 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This stores the letters on the game board for the Word Search game.
+ *
+ * <p>
+ * Every cell is a single byte in one row-major array, holding 0 for a blank
+ * cell or 1 to 26 for the letters A to Z. Walking a row is a walk through
+ * memory, and the String for each letter is made once and shared, so drawing
+ * the board never allocates.
+ *
+ * The following files are also required to run:
+ *
+ * Base.java
+ */
+
+public final class Board {
+
+    static final byte BLANK = 0;
+    static final int LETTERS = 26;
+
+    private static final String[] GLYPHS = new String[LETTERS + 1]; // The String to draw for each cell value
+
+    static {
+        GLYPHS[BLANK] = " ";
+        for (int i = 1; i <= LETTERS; i++) {
+            GLYPHS[i] = String.valueOf((char) ('A' + i - 1));
+        }
+    }
+
+    private final int size; // Width and height of the board
+    private final byte[] cells; // Every cell, one row after another
+
+    /**
+     * Creates a blank board
+     *
+     * @param size Sets the board size as sizeXsize (e.g a 15x15 grid)
+     */
+    public Board(int size) {
+        this.size = size;
+        this.cells = new byte[size * size];
+    }
+
+    /**
+     * Creates a board from rows of letters, such as the text written by
+     * PuzzleWriter. Lines starting with # are skipped, and the grid ends at the
+     * first line that isn't a full row.
+     *
+     * @param lines Lines of text holding the grid
+     */
+    public static Board parse(List<String> lines) {
+        List<String> rows = new ArrayList<String>();
+        for (String line : lines) {
+            if (!rows.isEmpty() && rows.size() == rows.get(0).length()) {
+                break; // Grid is square, so it is complete
+            }
+            String row = line.trim();
+            if (row.startsWith("#") && rows.isEmpty()) {
+                continue;
+            }
+            if (row.isEmpty() || !row.chars().allMatch(c -> c >= 'A' && c <= 'Z')
+                    || (!rows.isEmpty() && row.length() != rows.get(0).length())) {
+                break;
+            }
+            rows.add(row);
+        }
+        if (rows.isEmpty() || rows.size() != rows.get(0).length()) {
+            throw new IllegalArgumentException("Expected a square grid of letters A to Z");
+        }
+        Board board = new Board(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            for (int j = 0; j < rows.size(); j++) {
+                board.setChar(i, j, rows.get(i).charAt(j));
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Returns the width and height of the board
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the position in the cell array of a given row and column
+     */
+    public int index(int row, int col) {
+        return row * size + col;
+    }
+
+    /**
+     * Returns the cell value at a given position in the cell array
+     */
+    public byte getCode(int index) {
+        return cells[index];
+    }
+
+    /**
+     * Sets the cell value at a given position in the cell array
+     */
+    public void setCode(int index, byte code) {
+        cells[index] = code;
+    }
+
+    /**
+     * Returns the letter at a given row and column, or 0 if it is blank
+     */
+    public char getChar(int row, int col) {
+        return decode(cells[row * size + col]);
+    }
+
+    /**
+     * Sets the letter at a given row and column
+     */
+    public void setChar(int row, int col, char letter) {
+        cells[row * size + col] = encode(letter);
+    }
+
+    /**
+     * Returns the shared String used to draw the letter at a given row and column
+     */
+    public String getGlyph(int row, int col) {
+        return GLYPHS[cells[row * size + col]];
+    }
+
+    /**
+     * Returns the cell value for a letter from A to Z
+     */
+    public static byte encode(char letter) {
+        return (byte) (letter - 'A' + 1);
+    }
+
+    /**
+     * Returns the letter for a cell value, or 0 for a blank cell
+     */
+    public static char decode(byte code) {
+        return code == BLANK ? 0 : (char) ('A' + code - 1);
+    }
+
+    /**
+     * Returns the cell values for every letter in a word
+     */
+    public static byte[] encode(String word) {
+        byte[] codes = new byte[word.length()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = encode(word.charAt(i));
+        }
+        return codes;
+    }
+}
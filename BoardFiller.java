@@ -0,0 +1,545 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * This fills the blank cells of a Word Search board with random letters, while
+ * making sure that each hidden word can still only be found in one place.
+ *
+ * <p>
+ * Letters are picked by a LetterModel, so that they follow the letter above
+ * about as often as they do in the words being hidden. The letter above is
+ * used rather than the one to the left so that no cell in a row has to wait
+ * for the one before it. Re-rolled cells sit between letters on every side,
+ * so they are picked by how often each letter appears at all.
+ *
+ * <p>
+ * After the first fill the board is checked one cell at a time, in the same
+ * row-by-row order, treating each cell as the possible last letter of a copy
+ * read right, down or along either diagonal. Looking for the hidden words and
+ * their reverses covers all eight directions. For each of the four lines the
+ * last three letters are looked up at once: the cell and the one before it
+ * pick a bit set of the letters that come before that pair in some word, and
+ * the letter two back picks the bit. Most cells are done after those four
+ * lookups, and only on a hit is the short list of words ending in those three
+ * letters compared, so the work per cell stays the same with thousands of
+ * hidden words. Only the two rows above are read, so even very large boards
+ * stay in the cache.
+ *
+ * <p>
+ * When a copy is found its last cell is re-rolled if it is filler, before
+ * moving on; if it is part of a placed word another filler cell in the copy is
+ * re-rolled, and only the lines through re-rolled cells are read again at the
+ * end. A one letter word is found by its letter alone, so any filler cell
+ * with that letter is re-rolled as well.
+ *
+ * The following files are also required to run:
+ *
+ * Base.java Board.java Direction.java LetterModel.java WordPlacement.java
+ */
+
+public class BoardFiller {
+
+    static final int MAX_REROLLS_PER_CELL = 4; // Re-rolls allowed per board cell before giving up
+    private static final int PAIR_BITS = 5; // Enough for every cell value
+
+    // Directions that copies are looked for in. Each points to a cell checked
+    // after the one before it, and looking for the words and their reverses
+    // covers the other four directions.
+    private static final int[] LINE_DIRECTIONS = { Direction.RIGHT, Direction.DOWN, Direction.DOWN_RIGHT,
+            Direction.DOWN_LEFT };
+
+    private Board gameBoard;
+    private WordPlacement[] placements;
+    private byte[] letters = new byte[64]; // Cell values of every pattern, one after another
+    private int[] patternOffset = new int[0]; // Where each pattern starts in letters
+    private int[] patternLength = new int[0];
+    private int[] patternStart = new int[0]; // Cell where each pattern was placed
+    private int[] patternOrientation = new int[0]; // Orientation each pattern was placed in
+    private int[] patternKey = new int[0]; // Last three letters of each pattern, as given by key()
+    private int[] nextPattern = new int[0]; // Next pattern in the same bucket, -1 if none
+    private int patternCount; // Patterns filed by the last call to fill()
+    // First pattern filed in each bucket, with patterns filed by their last
+    // three letters so that there are a few buckets for each pattern. Two letter
+    // patterns are filed under BLANK, as they end the same way whatever is before.
+    private int[] buckets = new int[16];
+    private int bucketShift = 32 - 4; // Bits of a hashed key dropped to leave a bucket
+    private final int[] lettersBefore = new int[Board.LETTERS + 1]; // Bit set of letters before each last letter
+    // Bit set of the cell values before each pair that end a pattern, at
+    // (second to last << PAIR_BITS | last), with blanks included so that lines
+    // can start off the board
+    private final int[] thirds = new int[(Board.LETTERS + 1) << PAIR_BITS];
+    private final int[] singlePattern = new int[Board.LETTERS + 1]; // One letter word of each letter, -1 if none
+    private final LetterModel model; // Picks each filler letter
+    private SplittableRandom rand;
+    private boolean[] fixed = new boolean[0]; // Cells that belong to a placed word
+    private int[] queue = new int[16]; // Re-rolled cells whose lines need checking again
+    private int queued;
+    private boolean stuck; // Set when a copy has no filler cells to re-roll
+
+    private long fillNanos; // Time spent filling by the last call to fill()
+    private long checkNanos; // Time spent checking for copies by the last call to fill()
+    private int rerolls; // Cells re-rolled by the last call to fill()
+
+    /**
+     * Creates a filler that picks every letter equally often
+     */
+    public BoardFiller() {
+        this(LetterModel.UNIFORM);
+    }
+
+    /**
+     * @param model Picks the filler letters
+     */
+    public BoardFiller(LetterModel model) {
+        this.model = model;
+    }
+
+    /**
+     * Fills every blank cell, then removes any extra copies of the hidden words
+     *
+     * @param gameBoard  Board with the words already placed
+     * @param placements Where each hidden word was placed
+     * @param rand       Random value generator
+     *
+     * @return Returns false if a copy is made only of placed letters, so it can't
+     *         be removed by changing filler
+     */
+    public boolean fill(Board gameBoard, WordPlacement[] placements, SplittableRandom rand) {
+        this.gameBoard = gameBoard;
+        this.placements = placements;
+        this.rand = rand;
+        int size = gameBoard.getSize();
+        int cells = size * size;
+        rerolls = 0;
+        queued = 0;
+        stuck = false;
+
+        long start = System.nanoTime();
+        if (fixed.length != cells) {
+            fixed = new boolean[cells];
+        }
+        LetterModel model = this.model;
+        long random = 0;
+        boolean spare = false; // True if the high half of random hasn't been used
+        for (int i = 0; i < cells; i++) { // Cells are stored one row after another
+            if (gameBoard.getCode(i) == Board.BLANK) {
+                if (spare) {
+                    random >>>= 32;
+                } else {
+                    random = rand.nextLong(); // Enough for two letters
+                }
+                spare = !spare;
+                // Picked after the letter above, which is already set, so no cell in a
+                // row waits for the one before it
+                byte above = i < size ? Board.BLANK : gameBoard.getCode(i - size);
+                gameBoard.setCode(i, model.fillLetter(above, (int) random));
+                fixed[i] = false;
+            } else {
+                fixed[i] = true;
+            }
+        }
+        long filled = System.nanoTime();
+        fillNanos = filled - start;
+
+        int maxLength = indexPatterns();
+        int limit = cells * MAX_REROLLS_PER_CELL;
+
+        scan(size, limit);
+
+        while (queued > 0 && !stuck && rerolls <= limit) {
+            int cell = queue[--queued];
+            int row = cell / size;
+            int col = cell % size;
+            if (removeSingle(cell)) {
+                enqueue(cell);
+                continue;
+            }
+            search: for (int d : LINE_DIRECTIONS) { // Checks every copy that could pass through cell
+                int ahead = Math.min(maxLength - 1, stepsToEdge(row, col, d, 1, size));
+                for (int k = 0; k <= ahead; k++) {
+                    int endRow = row + Direction.ROW_STEP[d] * k;
+                    int endCol = col + Direction.COL_STEP[d] * k;
+                    int last = endRow * size + endCol;
+                    int pattern = copyEndingAt(last, d, stepsToEdge(endRow, endCol, d, -1, size), cell);
+                    if (pattern >= 0) {
+                        if (!reroll(last, d, patternLength[pattern])) {
+                            stuck = true;
+                        }
+                        enqueue(cell); // The cell may be in another copy too
+                        break search;
+                    }
+                }
+            }
+        }
+        checkNanos = System.nanoTime() - filled;
+        return !stuck && queued == 0;
+    }
+
+    /**
+     * Reads every line of the board once, in row-by-row order, removing each
+     * copy that ends at a cell before moving on to the next
+     *
+     * @param limit Re-rolls allowed before giving up
+     */
+    private void scan(int size, int limit) {
+        Board board = gameBoard; // Locals, so the loop below doesn't reload fields
+        int[] thirds = this.thirds;
+        for (int row = 0, cell = 0; row < size; row++) {
+            // The two letters before the cell on each line through it are carried
+            // along the row, with the row two above kept from two columns back to
+            // two ahead. Cells off the board read as blank, which no word has
+            // before its last letter.
+            int left = Board.BLANK;
+            int left2 = Board.BLANK;
+            int upLeft = Board.BLANK;
+            int up = row > 0 ? board.getCode(cell - size) : Board.BLANK;
+            int far = cell - 2 * size; // Same column, two rows up
+            int farLeft2 = Board.BLANK;
+            int farLeft = Board.BLANK;
+            int farUp = row > 1 ? board.getCode(far) : Board.BLANK;
+            int farRight = row > 1 && size > 1 ? board.getCode(far + 1) : Board.BLANK;
+            for (int col = 0; col < size; col++, cell++, far++) {
+                int code = board.getCode(cell);
+                int upRight = row > 0 && col < size - 1 ? board.getCode(cell - size + 1) : Board.BLANK;
+                int farRight2 = row > 1 && col < size - 2 ? board.getCode(far + 2) : Board.BLANK;
+                int before = thirds[left << PAIR_BITS | code] >>> left2 | thirds[up << PAIR_BITS | code] >>> farUp
+                        | thirds[upLeft << PAIR_BITS | code] >>> farLeft2
+                        | thirds[upRight << PAIR_BITS | code] >>> farRight2;
+                if ((before & 1) != 0) { // Three letters in a row that end a pattern
+                    while (removeCopiesEndingAt(cell, row, col, size)) { // Until no copy ends here
+                        if (stuck || rerolls > limit) {
+                            stuck = true;
+                            return;
+                        }
+                    }
+                    code = board.getCode(cell); // May have been re-rolled
+                }
+                left2 = left;
+                left = code;
+                upLeft = up;
+                up = upRight;
+                farLeft2 = farLeft;
+                farLeft = farUp;
+                farUp = farRight;
+                farRight = farRight2;
+            }
+        }
+    }
+
+    /**
+     * Returns the time the last call to fill() spent filling blank cells
+     */
+    public long getFillNanos() {
+        return fillNanos;
+    }
+
+    /**
+     * Returns the time the last call to fill() spent searching for and removing
+     * copies of the hidden words
+     */
+    public long getCheckNanos() {
+        return checkNanos;
+    }
+
+    /**
+     * Returns how many cells the last call to fill() re-rolled
+     */
+    public int getRerolls() {
+        return rerolls;
+    }
+
+    /**
+     * Files every word forwards and backwards under its last three letters
+     *
+     * @return The length of the longest word
+     */
+    private int indexPatterns() {
+        if (patternLength.length < placements.length * 2) {
+            patternOffset = new int[placements.length * 2];
+            patternLength = new int[placements.length * 2];
+            patternStart = new int[placements.length * 2];
+            patternOrientation = new int[placements.length * 2];
+            patternKey = new int[placements.length * 2];
+            nextPattern = new int[placements.length * 2];
+        }
+        patternCount = placements.length * 2;
+        while (buckets.length < patternCount * 2) {
+            buckets = new int[buckets.length * 2];
+            bucketShift--;
+        }
+        Arrays.fill(buckets, -1);
+        Arrays.fill(lettersBefore, 0);
+        Arrays.fill(singlePattern, -1);
+        Arrays.fill(thirds, 0);
+        int maxLength = 0;
+        int offset = 0;
+        for (int i = 0; i < placements.length; i++) {
+            WordPlacement placement = placements[i];
+            String word = placement.getWord();
+            int length = word.length();
+            if (offset + length * 2 > letters.length) {
+                letters = Arrays.copyOf(letters, (offset + length * 2) * 2);
+            }
+            for (int j = 0; j < length; j++) { // Forwards, then read from the last letter back to the first
+                letters[offset + j] = Board.encode(word.charAt(j));
+                letters[offset + length * 2 - 1 - j] = letters[offset + j];
+            }
+            patternOffset[i * 2] = offset;
+            patternStart[i * 2] = gameBoard.index(placement.getRow(), placement.getCol());
+            patternOrientation[i * 2] = placement.getOrientation();
+            patternOffset[i * 2 + 1] = offset + length;
+            patternStart[i * 2 + 1] = gameBoard.index(placement.getEndRow(), placement.getEndCol());
+            patternOrientation[i * 2 + 1] = Direction.opposite(placement.getOrientation());
+            patternLength[i * 2] = length;
+            patternLength[i * 2 + 1] = length;
+            offset += length * 2;
+            maxLength = Math.max(maxLength, length);
+            patternKey[i * 2] = -1;
+            patternKey[i * 2 + 1] = -1;
+            if (length == 1) { // Copied by every other cell with the same letter
+                singlePattern[letters[patternOffset[i * 2]]] = i * 2;
+                for (int before = 0; before <= Board.LETTERS; before++) {
+                    thirds[before << PAIR_BITS | letters[patternOffset[i * 2]]] = -1;
+                }
+                continue;
+            }
+            for (int p = i * 2; p <= i * 2 + 1; p++) {
+                int end = patternOffset[p] + length; // Just past the last letter
+                int third = length == 2 ? Board.BLANK : letters[end - 3];
+                int key = key(third, letters[end - 2], letters[end - 1]);
+                patternKey[p] = key;
+                nextPattern[p] = buckets[bucket(key)];
+                buckets[bucket(key)] = p;
+                lettersBefore[letters[end - 1]] |= 1 << letters[end - 2];
+                thirds[letters[end - 2] << PAIR_BITS | letters[end - 1]] |= length == 2 ? -1 : 1 << third;
+            }
+        }
+        return maxLength;
+    }
+
+    /**
+     * Removes a copy ending at a cell, looking only in the directions where the
+     * cell and the one before it end a hidden word or its reverse
+     *
+     * @return Returns true if a letter was changed, so the cell needs checking
+     *         again
+     */
+    private boolean removeCopiesEndingAt(int cell, int row, int col, int size) {
+        if (removeSingle(cell)) {
+            return true;
+        }
+        int before = lettersBefore[gameBoard.getCode(cell)];
+        if (before == 0) {
+            return false;
+        }
+        int above = cell - size;
+        return (col > 0 && (before >>> gameBoard.getCode(cell - 1) & 1) != 0
+                && removeCopy(cell, Direction.RIGHT, col))
+                || (row > 0 && (before >>> gameBoard.getCode(above) & 1) != 0
+                        && removeCopy(cell, Direction.DOWN, row))
+                || (row > 0 && col > 0 && (before >>> gameBoard.getCode(above - 1) & 1) != 0
+                        && removeCopy(cell, Direction.DOWN_RIGHT, Math.min(row, col)))
+                || (row > 0 && col < size - 1 && (before >>> gameBoard.getCode(above + 1) & 1) != 0
+                        && removeCopy(cell, Direction.DOWN_LEFT, Math.min(row, size - 1 - col)));
+    }
+
+    /**
+     * Looks for a copy of a hidden word that isn't where the word was placed and
+     * ends at a given cell
+     *
+     * @param last      Last cell of the copy
+     * @param direction Direction the copy is read in
+     * @param back      Cells before the last one on the line
+     * @param cover     Only copies covering this cell are looked for, or -1 for
+     *                  all copies
+     *
+     * @return The pattern that was copied, or -1 if there is none
+     */
+    private int copyEndingAt(int last, int direction, int back, int cover) {
+        if (back == 0) {
+            return -1;
+        }
+        int step = Direction.ROW_STEP[direction] * gameBoard.getSize() + Direction.COL_STEP[direction];
+        int second = gameBoard.getCode(last - step);
+        int code = gameBoard.getCode(last);
+        int third = back >= 2 ? gameBoard.getCode(last - 2 * step) : Board.BLANK;
+        int key = key(third, second, code);
+        int pattern = firstCopy(key, last, step, direction, back, cover);
+        if (pattern < 0 && third != Board.BLANK) { // Two letter words end here whatever the third letter is
+            pattern = firstCopy(key(Board.BLANK, second, code), last, step, direction, back, cover);
+        }
+        return pattern;
+    }
+
+    /**
+     * Walks the patterns filed in the bucket of some last three letters,
+     * returning the first one ending in those letters that is copied at a cell,
+     * or -1 if there is none
+     */
+    private int firstCopy(int key, int last, int step, int direction, int back, int cover) {
+        for (int p = buckets[bucket(key)]; p >= 0; p = nextPattern[p]) {
+            if (patternKey[p] != key || patternLength[p] - 1 > back) {
+                continue;
+            }
+            int first = last - step * (patternLength[p] - 1);
+            // The word itself is found here every time, so that is ruled out
+            // before reading its letters
+            if ((cover < 0 || covers(first, last, step, cover)) && !isPlaced(p, first, direction)
+                    && matches(p, last, step)) {
+                return p;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Re-rolls a cell of any copy ending at a given cell, choosing the last cell
+     * when it is filler so the copy is removed without going back
+     *
+     * @return Returns true if there was a copy
+     */
+    private boolean removeCopy(int last, int direction, int back) {
+        int pattern = copyEndingAt(last, direction, back, -1);
+        if (pattern < 0) {
+            return false;
+        }
+        if (fixed[last]) {
+            if (!reroll(last, direction, patternLength[pattern])) {
+                stuck = true;
+            }
+            return true;
+        }
+        changeLetter(last);
+        return true;
+    }
+
+    /**
+     * Re-rolls a cell that copies a one letter word placed somewhere else
+     *
+     * @return Returns true if the cell was a copy
+     */
+    private boolean removeSingle(int cell) {
+        int pattern = singlePattern[gameBoard.getCode(cell)];
+        if (pattern < 0 || cell == patternStart[pattern]) {
+            return false;
+        }
+        if (fixed[cell]) { // Part of another word, so the word is found twice whatever the filler
+            stuck = true;
+        } else {
+            changeLetter(cell);
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if the letters before the last three of a pattern lead up to
+     * a cell
+     */
+    private boolean matches(int pattern, int last, int step) {
+        int offset = patternOffset[pattern];
+        for (int i = patternLength[pattern] - 4, index = last - 3 * step; i >= 0; i--, index -= step) {
+            if (gameBoard.getCode(index) != letters[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if a match starting at a cell is where its word was placed.
+     * The word read the other way is checked too, as the only way a pattern can
+     * match there is if the word is a palindrome.
+     */
+    private boolean isPlaced(int pattern, int first, int direction) {
+        int other = pattern ^ 1; // The same word read the other way
+        return (first == patternStart[pattern] && direction == patternOrientation[pattern])
+                || (first == patternStart[other] && direction == patternOrientation[other]);
+    }
+
+    /**
+     * Gives one of the filler cells in a copy a new random letter, and queues it
+     * so the lines through it are read again
+     *
+     * @param last      Last cell of the copy
+     * @param direction Direction the copy is read in
+     * @param length    Number of cells in the copy
+     *
+     * @return Returns false if every cell in the copy belongs to a placed word
+     */
+    private boolean reroll(int last, int direction, int length) {
+        int step = Direction.ROW_STEP[direction] * gameBoard.getSize() + Direction.COL_STEP[direction];
+        int offset = rand.nextInt(length); // Start somewhere random so the same cell isn't always chosen
+        for (int i = 0; i < length; i++) {
+            int cell = last - step * ((offset + i) % length);
+            if (!fixed[cell]) {
+                changeLetter(cell);
+                enqueue(cell);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds a cell to the queue of cells to read around again
+     */
+    private void enqueue(int cell) {
+        if (queued == queue.length) {
+            queue = Arrays.copyOf(queue, queued * 2);
+        }
+        queue[queued++] = cell;
+    }
+
+    /**
+     * Returns true if cell lies on the line from first to last. Lines are always
+     * read in a direction that moves forwards through the cell array.
+     */
+    private static boolean covers(int first, int last, int step, int cell) {
+        if (step == 0) {
+            return cell == first; // Only happens on a 1x1 board
+        }
+        int offset = cell - first;
+        return offset >= 0 && offset <= last - first && offset % step == 0;
+    }
+
+    /**
+     * Returns the bucket that patterns ending in some last three letters are
+     * filed in
+     */
+    private int bucket(int key) {
+        return key * 0x9E3779B9 >>> bucketShift; // Spreads keys that differ only in their last letter
+    }
+
+    /**
+     * Returns a number for the last three letters of a pattern
+     */
+    private static int key(int third, int second, int last) {
+        return (third * Board.LETTERS + second - 1) * Board.LETTERS + last - 1;
+    }
+
+    /**
+     * Returns how many steps can be taken from a cell in a direction (or against
+     * it when sign is -1) before leaving the board
+     */
+    private static int stepsToEdge(int row, int col, int direction, int sign, int size) {
+        int rowStep = Direction.ROW_STEP[direction] * sign;
+        int colStep = Direction.COL_STEP[direction] * sign;
+        int rows = rowStep > 0 ? size - 1 - row : rowStep < 0 ? row : Integer.MAX_VALUE;
+        int cols = colStep > 0 ? size - 1 - col : colStep < 0 ? col : Integer.MAX_VALUE;
+        return Math.min(rows, cols);
+    }
+
+    /**
+     * Gives a filler cell a different random letter, picked with nothing known
+     * about its neighbours
+     */
+    private void changeLetter(int cell) {
+        byte old = gameBoard.getCode(cell);
+        byte letter;
+        do {
+            letter = model.next(Board.BLANK, rand);
+        } while (letter == old);
+        gameBoard.setCode(cell, letter);
+        rerolls++;
+    }
+}
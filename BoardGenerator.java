@@ -0,0 +1,313 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * This places the hidden words on the game board for the Word Search game.
+ *
+ * <p>
+ * Instead of picking random positions until one happens to fit, every valid
+ * (row, column, orientation) slot for a word length is counted up front, and
+ * the slots are visited in a random order without repeats. Words can run in
+ * any of the eight orientations allowed, including backwards and along
+ * diagonals, and may cross each other where they share a letter. How often a
+ * crossing is allowed is set by an overlap rate. Which cells are taken is
+ * kept in an Occupancy, so a slot over blank cells is accepted with a few mask
+ * operations and only slots that cross a word compare letters. If a word has
+ * no slot left the generator backtracks and moves the previous word, and it
+ * gives up once its attempt budget is spent instead of looping forever. The
+ * budget counts slots checked rather than time, so the same seed gives the
+ * same board however busy the machine is.
+ *
+ * The following files are also required to run:
+ *
+ * Base.java Board.java DifficultyProfile.java Direction.java Occupancy.java WordPlacement.java
+ */
+
+public class BoardGenerator {
+
+    static final long DEFAULT_MAX_ATTEMPTS = 2_000_000; // Slot checks allowed per board
+
+    private final int boardSize;
+    private final int directions; // Bit o is set if orientation o may be used
+    private final double overlapRate; // Chance that a slot crossing another word is used
+    private final long maxAttempts;
+    private final Occupancy occupancy; // Cells holding a letter
+    private long attempts; // Slot checks made by the last call to populate()
+
+    public BoardGenerator(int boardSize) {
+        this(boardSize, Direction.ALL, 1, DEFAULT_MAX_ATTEMPTS);
+    }
+
+    /**
+     * Creates a generator for the size, directions and overlap rate of a profile
+     */
+    public BoardGenerator(DifficultyProfile profile) {
+        this(profile.getBoardSize(), profile.getDirections(), profile.getOverlapRate(), DEFAULT_MAX_ATTEMPTS);
+    }
+
+    public BoardGenerator(int boardSize, long maxAttempts) {
+        this(boardSize, Direction.ALL, 1, maxAttempts);
+    }
+
+    /**
+     * @param boardSize   Width and height of the board
+     * @param directions  Orientations that may be used, with bit o set for
+     *                    orientation o
+     * @param overlapRate Chance from 0 to 1 that a slot crossing another word
+     *                    may be used
+     * @param maxAttempts Most slots that may be checked before giving up
+     */
+    public BoardGenerator(int boardSize, int directions, double overlapRate, long maxAttempts) {
+        this.boardSize = boardSize;
+        this.directions = directions;
+        this.overlapRate = overlapRate;
+        this.maxAttempts = maxAttempts;
+        this.occupancy = new Occupancy(boardSize);
+    }
+
+    /**
+     * Places every word on the board, backtracking when a word can't fit.
+     *
+     * @param gameBoard Board to write to, blank cells must be Board.BLANK
+     * @param words     Words to place
+     * @param rand      Random value generator
+     *
+     * @return The placement of each word in the same order as words, or null if
+     *         the words could not all be placed within the budget. The board is
+     *         left blank when null is returned.
+     */
+    public WordPlacement[] populate(Board gameBoard, String[] words, SplittableRandom rand) {
+        int count = words.length;
+        attempts = 0;
+        if (count == 0) {
+            return new WordPlacement[0];
+        }
+
+        Integer[] order = new Integer[count]; // Longest words first, as they have the fewest slots
+        byte[][] codes = new byte[count][]; // Cell values of each word
+        int totalLetters = 0;
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+            codes[i] = Board.encode(words[i]);
+            totalLetters += words[i].length();
+            if (words[i].length() > boardSize) {
+                return null; // Can never fit, so fail straight away
+            }
+        }
+        Arrays.sort(order, (a, b) -> words[b].length() - words[a].length());
+
+        occupancy.clearAll();
+        for (int row = 0; row < boardSize; row++) {
+            for (int col = 0; col < boardSize; col++) {
+                if (gameBoard.getCode(gameBoard.index(row, col)) != Board.BLANK) {
+                    occupancy.set(row, col);
+                }
+            }
+        }
+
+        long[] slotCount = new long[count]; // Number of slots for the word at each depth
+        long[] start = new long[count]; // First slot visited at each depth
+        long[] stride = new long[count]; // Step between visited slots at each depth
+        long[] tried = new long[count]; // How many slots have been visited at each depth
+        long[] chosen = new long[count]; // Orientation, row and col packed as a slot index
+        int[] writtenTop = new int[count + 1]; // Size of the written stack before each depth
+        int[] written = new int[totalLetters]; // Cells that were blank before a word was placed
+        long[][] slotTables = new long[boardSize + 1][]; // Slot counts for each word length
+        int[][] rangeTables = new int[boardSize + 1][]; // Start rows and columns for each word length
+
+        int depth = 0;
+        startDepth(depth, words[order[0]].length(), slotTables, rangeTables, slotCount, start, stride, tried,
+                rand);
+
+        while (depth < count) {
+            byte[] word = codes[order[depth]];
+            long[] table = slotTables[word.length];
+            int[] ranges = rangeTables[word.length];
+            boolean placed = false;
+
+            while (tried[depth] < slotCount[depth]) {
+                long slot = (start[depth] + tried[depth] * stride[depth]) % slotCount[depth];
+                tried[depth]++;
+                attempts++;
+                if (attempts > maxAttempts) {
+                    clearWritten(gameBoard, written, 0, writtenTop[depth]);
+                    return null;
+                }
+
+                int orientation = 0;
+                while (slot >= table[orientation + 1]) {
+                    orientation++;
+                }
+                int cols = ranges[orientation * 4 + 3] - ranges[orientation * 4 + 2] + 1;
+                int offset = (int) (slot - table[orientation]);
+                int row = ranges[orientation * 4] + offset / cols;
+                int col = ranges[orientation * 4 + 2] + offset % cols;
+
+                if (occupancy.isClear(orientation, row, col, word.length)
+                        || (mayCross(rand) && checkFits(gameBoard, word, orientation, row, col))) {
+                    writtenTop[depth + 1] = writeWord(gameBoard, word, orientation, row, col, written,
+                            writtenTop[depth]);
+                    chosen[depth] = ((long) orientation * boardSize + row) * boardSize + col;
+                    placed = true;
+                    break;
+                }
+            }
+
+            if (placed) {
+                depth++;
+                if (depth < count) {
+                    startDepth(depth, words[order[depth]].length(), slotTables, rangeTables, slotCount, start,
+                            stride, tried, rand);
+                }
+            } else if (depth == 0) {
+                return null; // Every arrangement has been tried
+            } else {
+                depth--; // Move the previous word somewhere else
+                clearWritten(gameBoard, written, writtenTop[depth], writtenTop[depth + 1]);
+            }
+        }
+
+        WordPlacement[] placements = new WordPlacement[count];
+        for (int i = 0; i < count; i++) {
+            long slot = chosen[i];
+            int col = (int) (slot % boardSize);
+            int row = (int) (slot / boardSize % boardSize);
+            int orientation = (int) (slot / boardSize / boardSize);
+            placements[order[i]] = new WordPlacement(words[order[i]], row, col, orientation);
+        }
+        return placements;
+    }
+
+    /**
+     * Returns how many slots were checked by the last call to populate()
+     */
+    public long getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * Returns true if a slot that crosses another word may be used. Only draws a
+     * random value when the overlap rate is between 0 and 1, so boards made with
+     * the default rate are not changed by it.
+     */
+    private boolean mayCross(SplittableRandom rand) {
+        return overlapRate >= 1 || (overlapRate > 0 && rand.nextDouble() < overlapRate);
+    }
+
+    /**
+     * Sets up the random slot order for a new depth of the search
+     */
+    private void startDepth(int depth, int length, long[][] slotTables, int[][] rangeTables, long[] slotCount,
+            long[] start, long[] stride, long[] tried, SplittableRandom rand) {
+        if (slotTables[length] == null) {
+            rangeTables[length] = buildRangeTable(length);
+            slotTables[length] = buildSlotTable(rangeTables[length]);
+        }
+        long n = slotTables[length][Direction.COUNT];
+        slotCount[depth] = n;
+        tried[depth] = 0;
+        if (n == 0) {
+            start[depth] = 0;
+            stride[depth] = 1;
+            return;
+        }
+        start[depth] = Math.floorMod(rand.nextLong(), n);
+        // Any step that shares no factor with n visits every slot exactly once
+        long step = 1 + Math.floorMod(rand.nextLong(), n);
+        while (gcd(step, n) != 1) {
+            step++;
+        }
+        stride[depth] = step % n == 0 ? 1 : step;
+    }
+
+    /**
+     * Counts the valid slots in each orientation, which is none for orientations
+     * that are not allowed. Entry o is the number of slots in orientations before
+     * o, so the last entry is the total.
+     */
+    private long[] buildSlotTable(int[] ranges) {
+        long[] table = new long[Direction.COUNT + 1];
+        for (int o = 0; o < Direction.COUNT; o++) {
+            if ((directions & 1 << o) == 0) {
+                table[o + 1] = table[o];
+                continue;
+            }
+            long rows = Math.max(0, ranges[o * 4 + 1] - ranges[o * 4] + 1);
+            long cols = Math.max(0, ranges[o * 4 + 3] - ranges[o * 4 + 2] + 1);
+            table[o + 1] = table[o] + rows * cols;
+        }
+        return table;
+    }
+
+    /**
+     * Returns the first and last row, then the first and last column, that a word
+     * of a given length can start on, for each orientation in turn
+     */
+    private int[] buildRangeTable(int length) {
+        int[] ranges = new int[Direction.COUNT * 4];
+        for (int o = 0; o < Direction.COUNT; o++) {
+            int rowStep = Direction.ROW_STEP[o];
+            int colStep = Direction.COL_STEP[o];
+            ranges[o * 4] = rowStep < 0 ? length - 1 : 0;
+            ranges[o * 4 + 1] = rowStep > 0 ? boardSize - length : boardSize - 1;
+            ranges[o * 4 + 2] = colStep < 0 ? length - 1 : 0;
+            ranges[o * 4 + 3] = colStep > 0 ? boardSize - length : boardSize - 1;
+        }
+        return ranges;
+    }
+
+    /**
+     * Returns true if every cell the word would cover is either blank or already
+     * holds the same letter. Only needed when the word crosses another one.
+     */
+    private boolean checkFits(Board gameBoard, byte[] word, int orientation, int row, int col) {
+        int step = Direction.ROW_STEP[orientation] * boardSize + Direction.COL_STEP[orientation];
+        int index = gameBoard.index(row, col);
+        for (int i = 0; i < word.length; i++, index += step) {
+            byte current = gameBoard.getCode(index);
+            if (current != Board.BLANK && current != word[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes a word to the board and records the cells that were blank before, so
+     * that they can be cleared again when backtracking
+     *
+     * @return The new size of the written stack
+     */
+    private int writeWord(Board gameBoard, byte[] word, int orientation, int row, int col, int[] written,
+            int top) {
+        int step = Direction.ROW_STEP[orientation] * boardSize + Direction.COL_STEP[orientation];
+        int index = gameBoard.index(row, col);
+        for (int i = 0; i < word.length; i++, index += step) {
+            if (gameBoard.getCode(index) == Board.BLANK) {
+                gameBoard.setCode(index, word[i]);
+                occupancy.set(index / boardSize, index % boardSize);
+                written[top++] = index;
+            }
+        }
+        return top;
+    }
+
+    /**
+     * Blanks the cells between two positions of the written stack
+     */
+    private void clearWritten(Board gameBoard, int[] written, int from, int to) {
+        for (int i = from; i < to; i++) {
+            gameBoard.setCode(written[i], Board.BLANK);
+            occupancy.clear(written[i] / boardSize, written[i] % boardSize);
+        }
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
@@ -0,0 +1,228 @@
+/**
+ * This is the camera that the Word Search game looks at the board through. It
+ * keeps track of how far the board is scrolled and how big each cell is drawn,
+ * and works out which cells can be seen, so that only those are drawn.
+ *
+ * <p>
+ * Positions on the board are measured in pixels at the current cell size, with
+ * (0, 0) at the top left corner of cell (0, 0). The view is a rectangle on the
+ * canvas, and scrollX and scrollY are the board position shown at its top left
+ * corner. Cells are never drawn smaller than MIN_CELL_SIZE, so however large
+ * the board is only a bounded number of cells can be seen at once, and a frame
+ * takes the same time on a 25x25 board as on a 5000x5000 one.
+ *
+ * Kept separate from WordSearch.java so it can be used without loading JavaFX,
+ * and needs no other files to run.
+ */
+
+public class BoardViewport {
+
+    static final int MIN_CELL_SIZE = 8; // Smallest cell drawn, in pixels
+    static final int MAX_CELL_SIZE = 64; // Largest cell drawn, in pixels
+    static final int DEFAULT_CELL_SIZE = 20; // Cell size a new board is shown at
+    static final int MARGIN = 20; // Space that can be scrolled past each edge of the board
+    static final double ZOOM_STEP = 1.25; // Change in cell size for one step of zoom
+
+    private final double viewX; // Left edge of the view on the canvas
+    private final double viewY; // Top edge of the view on the canvas
+    private final double viewWidth;
+    private final double viewHeight;
+    private int boardSize; // Cells along each side of the board
+    private int cellSize = DEFAULT_CELL_SIZE; // Width and height of a cell in pixels
+    private double scrollX; // Board position at the left edge of the view
+    private double scrollY; // Board position at the top edge of the view
+
+    /**
+     * @param viewX      Left edge of the view on the canvas
+     * @param viewY      Top edge of the view on the canvas
+     * @param viewWidth  Width of the view
+     * @param viewHeight Height of the view
+     */
+    public BoardViewport(double viewX, double viewY, double viewWidth, double viewHeight) {
+        this.viewX = viewX;
+        this.viewY = viewY;
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+    }
+
+    /**
+     * Shows a new board from its top left corner at the default cell size
+     */
+    public void reset(int boardSize) {
+        this.boardSize = boardSize;
+        cellSize = DEFAULT_CELL_SIZE;
+        scrollX = -MARGIN;
+        scrollY = 0;
+        clamp();
+    }
+
+    /**
+     * Moves the board by a number of pixels on the canvas
+     *
+     * @return Returns true if the view changed
+     */
+    public boolean pan(double dx, double dy) {
+        double oldX = scrollX;
+        double oldY = scrollY;
+        scrollX -= dx;
+        scrollY -= dy;
+        clamp();
+        return scrollX != oldX || scrollY != oldY;
+    }
+
+    /**
+     * Zooms in (steps above 0) or out (steps below 0), keeping the board position
+     * under a point on the canvas in the same place
+     *
+     * @param steps How many steps of ZOOM_STEP to zoom by
+     * @param x     Canvas position to zoom around
+     * @param y     Canvas position to zoom around
+     *
+     * @return Returns true if the cell size changed
+     */
+    public boolean zoomAt(double steps, double x, double y) {
+        int newSize = (int) Math.round(cellSize * Math.pow(ZOOM_STEP, steps));
+        if (newSize == cellSize) {
+            newSize += steps > 0 ? 1 : -1; // Small cells would otherwise round back to the same size
+        }
+        newSize = Math.max(MIN_CELL_SIZE, Math.min(MAX_CELL_SIZE, newSize));
+        if (newSize == cellSize) {
+            return false;
+        }
+        double scale = (double) newSize / cellSize;
+        scrollX = (scrollX + x - viewX) * scale - (x - viewX);
+        scrollY = (scrollY + y - viewY) * scale - (y - viewY);
+        cellSize = newSize;
+        clamp();
+        return true;
+    }
+
+    /**
+     * Zooms around the middle of a cell, such as the selected one
+     *
+     * @return Returns true if the cell size changed
+     */
+    public boolean zoomAtCell(double steps, int row, int col) {
+        return zoomAt(steps, getCellX(col) + cellSize / 2.0, getCellY(row) + cellSize / 2.0);
+    }
+
+    /**
+     * Scrolls the least distance that brings a whole cell into view
+     *
+     * @return Returns true if the view moved
+     */
+    public boolean scrollToCell(int row, int col) {
+        double dx = 0;
+        double dy = 0;
+        double left = (double) col * cellSize - scrollX;
+        double top = (double) row * cellSize - scrollY;
+        if (left < 0) {
+            dx = -left;
+        } else if (left + cellSize > viewWidth) {
+            dx = viewWidth - left - cellSize;
+        }
+        if (top < 0) {
+            dy = -top;
+        } else if (top + cellSize > viewHeight) {
+            dy = viewHeight - top - cellSize;
+        }
+        return (dx != 0 || dy != 0) && pan(dx, dy);
+    }
+
+    /**
+     * Keeps the board from being scrolled further than MARGIN past its edges
+     */
+    private void clamp() {
+        double boardPixels = (double) boardSize * cellSize;
+        scrollX = Math.max(-MARGIN, Math.min(scrollX, Math.max(-MARGIN, boardPixels - viewWidth + MARGIN)));
+        scrollY = Math.max(-MARGIN, Math.min(scrollY, Math.max(-MARGIN, boardPixels - viewHeight + MARGIN)));
+    }
+
+    /**
+     * Returns the first column that can be seen
+     */
+    public int getFirstCol() {
+        return Math.max(0, (int) Math.floor(scrollX / cellSize));
+    }
+
+    /**
+     * Returns the last column that can be seen, which is before the first if none
+     * can be seen
+     */
+    public int getLastCol() {
+        return Math.min(boardSize - 1, (int) Math.floor((scrollX + viewWidth - 1) / cellSize));
+    }
+
+    /**
+     * Returns the first row that can be seen
+     */
+    public int getFirstRow() {
+        return Math.max(0, (int) Math.floor(scrollY / cellSize));
+    }
+
+    /**
+     * Returns the last row that can be seen, which is before the first if none can
+     * be seen
+     */
+    public int getLastRow() {
+        return Math.min(boardSize - 1, (int) Math.floor((scrollY + viewHeight - 1) / cellSize));
+    }
+
+    /**
+     * Returns true if any part of a cell can be seen
+     */
+    public boolean isVisible(int row, int col) {
+        return row >= getFirstRow() && row <= getLastRow() && col >= getFirstCol() && col <= getLastCol();
+    }
+
+    /**
+     * Returns the canvas position of the left edge of a column
+     */
+    public double getCellX(int col) {
+        return viewX + (double) col * cellSize - scrollX;
+    }
+
+    /**
+     * Returns the canvas position of the top edge of a row
+     */
+    public double getCellY(int row) {
+        return viewY + (double) row * cellSize - scrollY;
+    }
+
+    /**
+     * Returns the row under a canvas position, which may be off the board
+     */
+    public int rowAt(double y) {
+        return (int) Math.floor((y - viewY + scrollY) / cellSize);
+    }
+
+    /**
+     * Returns the column under a canvas position, which may be off the board
+     */
+    public int colAt(double x) {
+        return (int) Math.floor((x - viewX + scrollX) / cellSize);
+    }
+
+    /**
+     * Returns the width and height of a cell in pixels
+     */
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    public double getViewX() {
+        return viewX;
+    }
+
+    public double getViewY() {
+        return viewY;
+    }
+
+    public double getViewWidth() {
+        return viewWidth;
+    }
+
+    public double getViewHeight() {
+        return viewHeight;
+    }
+}
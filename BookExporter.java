@@ -0,0 +1,258 @@
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * This turns batches of generated Word Search boards into printable pages: a
+ * PDF book, or a folder of SVG or PNG pages. Each puzzle gets a page with its
+ * grid and word list, and answer keys can follow at the back. No JavaFX is
+ * needed, so it runs on machines with no display.
+ *
+ * <p>
+ * Usage: java BookExporter [-n count] [-d EASY|MEDIUM|HARD] [-p profile]
+ * [-f pdf|svg|png] [-s seed] [-o file or folder] [-w dictionary]
+ * [-paper a4|letter] [-dpi dots per inch] [-a]
+ *
+ * <p>
+ * Pages are drawn on every core by a BatchGenerator, at most PAGES_IN_MEMORY
+ * at a time, and written out in order as each chunk is finished, so a book of
+ * ten thousand puzzles takes no more memory than a book of a few hundred. The
+ * answer keys are drawn in a second pass that generates the same boards again
+ * from their seeds, which is far cheaper than keeping them. Board i of a book
+ * is board i of GeneratorCli with the same seed and profile.
+ *
+ * The following files are also required to run:
+ *
+ * Base.java BatchGenerator.java Difficulty.java DifficultyProfile.java MappedWordSource.java PageCanvas.java
+ * PdfBook.java PngCanvas.java Puzzle.java PuzzlePage.java SvgCanvas.java WordSource.java
+ */
+
+public class BookExporter {
+
+    static final int PAGES_IN_MEMORY = 256; // Pages drawn before any are written
+    static final int PNG_PAGES_IN_MEMORY = 64; // PNG pages are a hundred times larger than the others
+    static final int DEFAULT_DPI = 150;
+
+    /**
+     * Formats that a book can be written in
+     */
+    enum Format {
+        PDF, // One document holding every page
+        SVG, // A folder with one image per page
+        PNG
+    }
+
+    private final BatchGenerator generator;
+    private final Format format;
+    private final PuzzlePage.Paper paper;
+    private final int dpi; // Pixels to the inch of PNG pages
+    private long bytesWritten;
+
+    /**
+     * @param words  Words to hide, which must be safe to read from many threads
+     *               at once
+     * @param format Format to write
+     * @param paper  Size of every page
+     * @param dpi    Pixels to the inch, for PNG pages
+     */
+    public BookExporter(WordSource words, Format format, PuzzlePage.Paper paper, int dpi) {
+        this.generator = new BatchGenerator(format == Format.PNG ? PNG_PAGES_IN_MEMORY : PAGES_IN_MEMORY, words);
+        this.format = format;
+        this.paper = paper;
+        this.dpi = dpi;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int count = 1;
+        DifficultyProfile profile = Difficulty.HARD.getProfile();
+        Format format = Format.PDF;
+        long seed = ThreadLocalRandom.current().nextLong();
+        String output = null;
+        WordSource words = Base.LIBRARY;
+        PuzzlePage.Paper paper = PuzzlePage.Paper.A4;
+        int dpi = DEFAULT_DPI;
+        boolean answers = false;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+            case "-n":
+                count = Integer.parseInt(args[++i]);
+                break;
+            case "-d":
+                profile = Difficulty.valueOf(args[++i].toUpperCase(Locale.ROOT)).getProfile();
+                break;
+            case "-p":
+                profile = DifficultyProfile.parse(args[++i]);
+                break;
+            case "-f":
+                format = Format.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                break;
+            case "-s":
+                seed = Long.parseLong(args[++i]);
+                break;
+            case "-o":
+                output = args[++i];
+                break;
+            case "-w":
+                words = MappedWordSource.open(Paths.get(args[++i]));
+                break;
+            case "-paper":
+                paper = PuzzlePage.Paper.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                break;
+            case "-dpi":
+                dpi = Integer.parseInt(args[++i]);
+                break;
+            case "-a":
+                answers = true;
+                break;
+            default:
+                System.err.println("Usage: java BookExporter [-n count] [-d EASY|MEDIUM|HARD] [-p profile]"
+                        + " [-f pdf|svg|png] [-s seed] [-o file or folder] [-w dictionary] [-paper a4|letter]"
+                        + " [-dpi dots per inch] [-a]");
+                System.exit(2);
+            }
+        }
+        if (output == null) {
+            output = format == Format.PDF ? "book.pdf" : "book";
+        }
+
+        System.setProperty("java.awt.headless", "true"); // PNG pages are drawn without a display
+        BookExporter exporter = new BookExporter(words, format, paper, dpi);
+        long start = System.nanoTime();
+        int pages = exporter.export(count, profile, seed, answers, Paths.get(output));
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("Wrote %d pages of %d %s puzzles from seed %d to %s in %.2fs (%.0f pages/s, %.1f MB)%n",
+                pages, count, profile.getName(), seed, output, seconds, pages / seconds,
+                exporter.getBytesWritten() / 1e6);
+    }
+
+    /**
+     * Draws and writes a book of puzzles
+     *
+     * @param count   How many puzzles
+     * @param profile Size, words and directions of every puzzle
+     * @param seed    Seed for the whole book
+     * @param answers True to add an answer key for every puzzle at the back
+     * @param output  File to write a PDF to, or folder to write SVG or PNG pages
+     *                into
+     *
+     * @return How many pages were written
+     */
+    public int export(int count, DifficultyProfile profile, long seed, boolean answers, Path output)
+            throws IOException {
+        bytesWritten = 0;
+        try {
+            if (format == Format.PDF) {
+                int pages;
+                try (PdfBook book = new PdfBook(new BufferedOutputStream(Files.newOutputStream(output), 1 << 16),
+                        paper.getWidth(), paper.getHeight())) {
+                    Consumer<byte[]> sink = page -> {
+                        try {
+                            book.addPage(page);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    };
+                    pass(count, profile, seed, false, sink);
+                    if (answers) {
+                        pass(count, profile, seed, true, sink);
+                    }
+                    pages = book.getPageCount();
+                }
+                bytesWritten = Files.size(output);
+                return pages;
+            }
+            Files.createDirectories(output);
+            int digits = Math.max(5, Integer.toString(count).length());
+            String suffix = "." + format.name().toLowerCase(Locale.ROOT);
+            int pages = writeFiles(count, profile, seed, false, output, "puzzle-", digits, suffix);
+            if (answers) {
+                pages += writeFiles(count, profile, seed, true, output, "answers-", digits, suffix);
+            }
+            return pages;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Returns how many bytes the last export wrote
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Draws every puzzle or answer key of a book, writing each page to its own
+     * numbered file
+     *
+     * @return How many pages were written
+     */
+    private int writeFiles(int count, DifficultyProfile profile, long seed, boolean answers, Path folder,
+            String prefix, int digits, String suffix) {
+        int[] written = new int[1];
+        pass(count, profile, seed, answers, page -> {
+            String number = Integer.toString(++written[0]);
+            StringBuilder name = new StringBuilder(prefix);
+            for (int pad = number.length(); pad < digits; pad++) {
+                name.append('0');
+            }
+            name.append(number).append(suffix);
+            try {
+                Files.write(folder.resolve(name.toString()), page);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            bytesWritten += page.length;
+        });
+        return written[0];
+    }
+
+    /**
+     * Draws every puzzle or every answer key of a book on the worker threads,
+     * and passes the pages to sink in order
+     */
+    private void pass(int count, DifficultyProfile profile, long seed, boolean answers, Consumer<byte[]> sink) {
+        generator.map(count, profile, seed, (index, game) -> {
+            String title = (answers ? "Answers to puzzle " : "Puzzle ") + (index + 1);
+            return render(game.getPuzzle(), title, answers);
+        }, sink);
+    }
+
+    /**
+     * Draws one page in this exporter's format
+     */
+    byte[] render(Puzzle puzzle, String title, boolean answers) {
+        switch (format) {
+        case SVG: {
+            SvgCanvas canvas = new SvgCanvas(paper.getWidth(), paper.getHeight());
+            draw(canvas, puzzle, title, answers);
+            return canvas.finish();
+        }
+        case PNG: {
+            PngCanvas canvas = new PngCanvas(paper.getWidth(), paper.getHeight(), dpi);
+            draw(canvas, puzzle, title, answers);
+            return canvas.finish();
+        }
+        default: {
+            PdfBook.Page canvas = new PdfBook.Page(paper.getHeight());
+            draw(canvas, puzzle, title, answers);
+            return canvas.finish();
+        }
+        }
+    }
+
+    private void draw(PageCanvas canvas, Puzzle puzzle, String title, boolean answers) {
+        if (answers) {
+            PuzzlePage.drawAnswers(canvas, paper, puzzle, title);
+        } else {
+            PuzzlePage.drawPuzzle(canvas, paper, puzzle, title);
+        }
+    }
+}
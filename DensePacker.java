@@ -0,0 +1,262 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * This packs words onto a Word Search board as densely as it can, crossing
+ * them wherever their letters agree, until a given share of the cells is
+ * covered by real words.
+ *
+ * <p>
+ * Words are placed one at a time, longest first, as long words have the fewest
+ * slots and are hardest to fit once the board fills up. Each word gets a
+ * handful of candidate slots, and the one that shares the most letters with
+ * words already placed wins. Most candidates are anchored on a letter already
+ * on the board: a cell holding one of the word's letters is picked from a list
+ * kept for every letter, and the word is lined up to pass through it, so
+ * crossings are found directly rather than by searching the whole board. The
+ * rest are random slots, which let the board grow into open space. A word
+ * with no slot that fits is left out, so words should be given generously, and
+ * the work per word is the same whatever the size of the board.
+ *
+ * <p>
+ * A slot must cover at least one blank cell, so a word is never placed wholly
+ * on top of letters that already spell it. Once packing stops, a WordSolver
+ * looks for words that crossings have spelled a second time, and leaves them
+ * out of the hidden words.
+ *
+ * The following files are also required to run:
+ *
+ * Board.java Direction.java DifficultyProfile.java Puzzle.java WordPlacement.java WordSolver.java WordTrie.java
+ */
+
+public class DensePacker {
+
+    static final int ANCHOR_TRIES = 48; // Slots through letters already on the board tried for each word
+    static final int OPEN_TRIES = 16; // Random slots tried for each word
+    static final long DEFAULT_MAX_ATTEMPTS = 50_000_000; // Slots checked per board, counted rather than timed
+
+    private final int boardSize;
+    private final int[] orientations; // Orientations that may be used
+    private final long maxAttempts;
+    private final int[][] letterCells = new int[Board.LETTERS + 1][]; // Cells holding each letter
+    private final int[] letterCounts = new int[Board.LETTERS + 1];
+    private long attempts; // Slots checked by the last call to pack()
+    private int covered; // Cells holding a letter after the last call to pack()
+    private int crossings; // Letters shared between words after the last call to pack()
+
+    /**
+     * Creates a packer for the size and directions of a profile
+     */
+    public DensePacker(DifficultyProfile profile) {
+        this(profile.getBoardSize(), profile.getDirections(), DEFAULT_MAX_ATTEMPTS);
+    }
+
+    /**
+     * @param boardSize   Width and height of the board
+     * @param directions  Orientations that may be used, with bit o set for
+     *                    orientation o
+     * @param maxAttempts Most slots that may be checked packing a board
+     */
+    public DensePacker(int boardSize, int directions, long maxAttempts) {
+        this.boardSize = boardSize;
+        this.orientations = new int[Integer.bitCount(directions)];
+        for (int o = 0, i = 0; o < Direction.COUNT; o++) {
+            if ((directions & 1 << o) != 0) {
+                orientations[i++] = o;
+            }
+        }
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Places words on a blank board until a share of its cells is covered, or
+     * the words or attempts run out
+     *
+     * @param gameBoard Blank board to write to
+     * @param words     Words that may be placed, none inside another
+     * @param density   Share of cells to cover, from 0 to 1
+     * @param rand      Random value generator
+     *
+     * @return The placement of every word that was placed, in the same order as
+     *         words
+     */
+    public WordPlacement[] pack(Board gameBoard, String[] words, double density, SplittableRandom rand) {
+        attempts = 0;
+        covered = 0;
+        crossings = 0;
+        Arrays.fill(letterCounts, 0);
+        long target = (long) Math.ceil(density * boardSize * boardSize);
+
+        Integer[] order = new Integer[words.length]; // Longest words first, as they have the fewest slots
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> words[b].length() - words[a].length());
+
+        WordPlacement[] placed = new WordPlacement[words.length];
+        int placedCount = 0;
+        for (int n = 0; n < order.length && covered < target && attempts < maxAttempts; n++) {
+            String text = words[order[n]];
+            if (text.length() > boardSize || orientations.length == 0) {
+                continue;
+            }
+            byte[] word = Board.encode(text);
+            int bestScore = -1;
+            int bestOrientation = 0;
+            int bestRow = 0;
+            int bestCol = 0;
+            for (int t = 0; t < ANCHOR_TRIES + OPEN_TRIES; t++) {
+                int orientation = orientations[rand.nextInt(orientations.length)];
+                int row;
+                int col;
+                if (t < ANCHOR_TRIES) { // Through a cell already holding one of the word's letters
+                    int letter = rand.nextInt(word.length);
+                    int count = letterCounts[word[letter]];
+                    if (count == 0) {
+                        continue;
+                    }
+                    int cell = letterCells[word[letter]][rand.nextInt(count)];
+                    row = cell / boardSize - letter * Direction.ROW_STEP[orientation];
+                    col = cell % boardSize - letter * Direction.COL_STEP[orientation];
+                } else { // Anywhere the word would fit
+                    row = rand.nextInt(boardSize);
+                    col = rand.nextInt(boardSize);
+                }
+                int score = score(gameBoard, word, orientation, row, col);
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestOrientation = orientation;
+                    bestRow = row;
+                    bestCol = col;
+                }
+            }
+            if (bestScore >= 0) {
+                write(gameBoard, word, bestOrientation, bestRow, bestCol);
+                crossings += bestScore;
+                placed[order[n]] = new WordPlacement(text, bestRow, bestCol, bestOrientation);
+                placedCount++;
+            }
+        }
+
+        dropRepeated(gameBoard, placed, placedCount);
+        int kept = 0;
+        for (WordPlacement placement : placed) {
+            kept += placement == null ? 0 : 1;
+        }
+        WordPlacement[] placements = new WordPlacement[kept];
+        for (int i = 0, j = 0; i < placed.length; i++) {
+            if (placed[i] != null) {
+                placements[j++] = placed[i];
+            }
+        }
+        return placements;
+    }
+
+    /**
+     * Leaves out every word that crossings have spelled a second time somewhere
+     * else. The second copy is made only of other words' letters, so the board
+     * filler could never remove it. The word's letters stay on the board, but it
+     * is no longer one of the hidden words.
+     */
+    private void dropRepeated(Board gameBoard, WordPlacement[] placed, int placedCount) {
+        String[] words = new String[placedCount];
+        int[] owner = new int[placedCount]; // Position in placed of each word in the trie
+        for (int i = 0, j = 0; i < placed.length; i++) {
+            if (placed[i] != null) {
+                owner[j] = i;
+                words[j++] = placed[i].getWord();
+            }
+        }
+        WordTrie trie = WordTrie.of(words);
+        for (WordPlacement found : WordSolver.solve(gameBoard, trie)) {
+            int word = owner[trie.getWordId(trie.walk(found.getWord()))];
+            WordPlacement own = placed[word];
+            if (own != null && !isSameCells(own, found)) {
+                placed[word] = null;
+            }
+        }
+    }
+
+    /**
+     * Returns true if two placements cover the same cells, either way round, as a
+     * word that reads the same backwards is found twice in its own place
+     */
+    private static boolean isSameCells(WordPlacement a, WordPlacement b) {
+        return (a.getRow() == b.getRow() && a.getCol() == b.getCol() && a.getEndRow() == b.getEndRow()
+                && a.getEndCol() == b.getEndCol())
+                || (a.getRow() == b.getEndRow() && a.getCol() == b.getEndCol() && a.getEndRow() == b.getRow()
+                        && a.getEndCol() == b.getCol());
+    }
+
+    /**
+     * Returns how many letters a slot would share with words already placed, or
+     * -1 if the word doesn't fit there or would cover no blank cell
+     */
+    private int score(Board gameBoard, byte[] word, int orientation, int row, int col) {
+        attempts++;
+        int rowStep = Direction.ROW_STEP[orientation];
+        int colStep = Direction.COL_STEP[orientation];
+        int endRow = row + rowStep * (word.length - 1);
+        int endCol = col + colStep * (word.length - 1);
+        if (Math.min(row, endRow) < 0 || Math.max(row, endRow) >= boardSize || Math.min(col, endCol) < 0
+                || Math.max(col, endCol) >= boardSize) {
+            return -1;
+        }
+        int step = rowStep * boardSize + colStep;
+        int index = gameBoard.index(row, col);
+        int shared = 0;
+        for (int i = 0; i < word.length; i++, index += step) {
+            byte current = gameBoard.getCode(index);
+            if (current == word[i]) {
+                shared++;
+            } else if (current != Board.BLANK) {
+                return -1;
+            }
+        }
+        return shared == word.length ? -1 : shared;
+    }
+
+    /**
+     * Writes a word to the board, adding each new letter to the list of cells
+     * holding that letter
+     */
+    private void write(Board gameBoard, byte[] word, int orientation, int row, int col) {
+        int step = Direction.ROW_STEP[orientation] * boardSize + Direction.COL_STEP[orientation];
+        int index = gameBoard.index(row, col);
+        for (int i = 0; i < word.length; i++, index += step) {
+            if (gameBoard.getCode(index) == Board.BLANK) {
+                gameBoard.setCode(index, word[i]);
+                covered++;
+                int letter = word[i];
+                if (letterCells[letter] == null) {
+                    letterCells[letter] = new int[64];
+                } else if (letterCounts[letter] == letterCells[letter].length) {
+                    letterCells[letter] = Arrays.copyOf(letterCells[letter], letterCounts[letter] * 2);
+                }
+                letterCells[letter][letterCounts[letter]++] = index;
+            }
+        }
+    }
+
+    /**
+     * Returns how many slots were checked by the last call to pack()
+     */
+    public long getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * Returns how many cells were covered by words in the last call to pack()
+     */
+    public int getCovered() {
+        return covered;
+    }
+
+    /**
+     * Returns how many letters were shared by two words in the last call to
+     * pack()
+     */
+    public int getCrossings() {
+        return crossings;
+    }
+}
@@ -0,0 +1,148 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+
+/**
+ * This measures how densely DensePacker can cover boards of several sizes with
+ * words, and what each extra bit of density costs in time.
+ *
+ * <p>
+ * Run with: java DensityBenchmark [-w dictionary] [-n boards per row]
+ *
+ * <p>
+ * Words come from a dictionary file written by DictionaryCompiler if one is
+ * given. Otherwise random words of 3 to 10 letters are made, with letters as
+ * common as they are in English so that words cross about as often as real
+ * ones. Each board is given words enough to cover it a few times over, so
+ * running out of words is never what stops it. The first row of each size is
+ * the normal BoardGenerator placing a handful of words, for comparison.
+ *
+ * The following files are also required to run:
+ *
+ * ArrayWordSource.java Board.java BoardFiller.java BoardGenerator.java DensePacker.java Direction.java
+ * LetterModel.java MappedWordSource.java WordPlacement.java WordSampler.java WordSource.java
+ */
+
+public class DensityBenchmark {
+
+    static final int[] BOARD_SIZES = { 25, 100, 300 };
+    static final double[] DENSITIES = { 0.3, 0.5, 0.6, 0.7, 0.8, 0.9 };
+    static final int RANDOM_WORDS = 400_000; // Made when no dictionary is given
+    static final String LETTERS_BY_FREQUENCY = "EEEEEEEEEEEETTTTTTTTTAAAAAAAAOOOOOOOIIIIIIINNNNNNNSSSSSSHHHHHHRRRRRR"
+            + "DDDDLLLLCCCUUUMMWWFFGGYYPPBVKJXQZ"; // Each letter about as often as in English text
+
+    public static void main(String[] args) throws IOException {
+        WordSource words = null;
+        int boards = 3;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+            case "-w":
+                words = MappedWordSource.open(Paths.get(args[++i]));
+                break;
+            case "-n":
+                boards = Integer.parseInt(args[++i]);
+                break;
+            default:
+                System.err.println("Usage: java DensityBenchmark [-w dictionary] [-n boards per row]");
+                System.exit(2);
+            }
+        }
+        SplittableRandom rand = new SplittableRandom(42);
+        if (words == null) {
+            words = randomWords(rand);
+        }
+        WordSampler sampler = new WordSampler(words);
+
+        System.out.printf("%9s %8s %8s %8s %10s %12s %10s %10s %8s%n", "size", "target", "density", "words",
+                "cross/word", "attempts", "place ms", "fill ms", "filled");
+        for (int size : BOARD_SIZES) {
+            int[] few = sampler.sampleUnnested(Math.max(4, size / 2), 3, Math.min(10, size), null, rand);
+            run(size, 0, wordsOf(words, few), LetterModel.of(words), boards, rand); // Normal generator, for comparison
+            for (double density : DENSITIES) {
+                int count = (int) Math.min(sampler.count(3, 10, null) / 2, (long) (size * size * density / 2));
+                int[] picked = sampler.sampleUnnested(count, 3, Math.min(10, size), null, rand);
+                run(size, density, wordsOf(words, picked), LetterModel.of(words), boards, rand);
+            }
+        }
+    }
+
+    /**
+     * Places and fills a number of boards and prints the average of each
+     * measure. A density of 0 uses the normal BoardGenerator instead of packing.
+     */
+    private static void run(int size, double density, String[] words, LetterModel model, int boards,
+            SplittableRandom rand) {
+        DensePacker packer = new DensePacker(size, Direction.ALL, DensePacker.DEFAULT_MAX_ATTEMPTS);
+        BoardGenerator generator = new BoardGenerator(size);
+        BoardFiller filler = new BoardFiller(model);
+        long placeNanos = 0;
+        long fillNanos = 0;
+        long attempts = 0;
+        long covered = 0;
+        long placed = 0;
+        long crossings = 0;
+        int filled = 0;
+        for (int b = -1; b < boards; b++) { // The first board warms up the JIT and isn't counted
+            Board board = new Board(size);
+            long start = System.nanoTime();
+            WordPlacement[] placements;
+            if (density > 0) {
+                placements = packer.pack(board, words, density, rand);
+            } else {
+                placements = generator.populate(board, words, rand);
+            }
+            long placedAt = System.nanoTime();
+            boolean ok = placements != null && filler.fill(board, placements, rand);
+            if (b < 0) {
+                continue;
+            }
+            placeNanos += placedAt - start;
+            fillNanos += System.nanoTime() - placedAt;
+            if (density > 0) {
+                attempts += packer.getAttempts();
+                covered += packer.getCovered();
+                crossings += packer.getCrossings();
+            } else {
+                attempts += generator.getAttempts();
+                covered += lettersOf(words);
+            }
+            placed += placements == null ? 0 : placements.length;
+            filled += ok ? 1 : 0;
+        }
+        System.out.printf("%9s %8s %8.2f %8d %10.2f %12d %10.2f %10.2f %5d/%d%n", size + "x" + size,
+                density > 0 ? String.format("%.2f", density) : "normal", (double) covered / boards / size / size,
+                placed / boards, placed == 0 ? 0 : (double) crossings / placed, attempts / boards,
+                placeNanos / 1e6 / boards, fillNanos / 1e6 / boards, filled, boards);
+    }
+
+    /**
+     * Makes a word source of random words, with letters as common as in English
+     */
+    private static WordSource randomWords(SplittableRandom rand) {
+        java.util.Set<String> made = new java.util.LinkedHashSet<String>();
+        while (made.size() < RANDOM_WORDS) {
+            char[] word = new char[3 + rand.nextInt(8)];
+            for (int i = 0; i < word.length; i++) {
+                word[i] = LETTERS_BY_FREQUENCY.charAt(rand.nextInt(LETTERS_BY_FREQUENCY.length()));
+            }
+            made.add(new String(word));
+        }
+        return new ArrayWordSource("random", made.toArray(new String[0]));
+    }
+
+    private static String[] wordsOf(WordSource source, int[] picked) {
+        String[] words = new String[picked.length];
+        for (int i = 0; i < picked.length; i++) {
+            words[i] = source.getWord(picked[i]);
+        }
+        return words;
+    }
+
+    private static int lettersOf(String[] words) {
+        int letters = 0;
+        for (String word : words) {
+            letters += word.length();
+        }
+        return letters;
+    }
+}
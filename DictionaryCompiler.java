@@ -0,0 +1,141 @@
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * This turns word lists in plain text into a dictionary file that
+ * MappedWordSource can open, so the text is only ever parsed once.
+ *
+ * <p>
+ * Usage: java DictionaryCompiler words.dict category.txt [category.txt ...]
+ *
+ * <p>
+ * Each text file holds one word per line and becomes a category named after
+ * the file. Words are changed to capital letters, and lines holding anything
+ * other than letters are skipped. A word that appears more than once is only
+ * kept the first time.
+ *
+ * The following files are also required to run:
+ *
+ * MappedWordSource.java
+ */
+
+public class DictionaryCompiler {
+
+    private DictionaryCompiler() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: java DictionaryCompiler words.dict category.txt [category.txt ...]");
+            System.exit(2);
+        }
+        List<String> names = new ArrayList<String>();
+        List<List<String>> categories = new ArrayList<List<String>>();
+        Set<String> seen = new HashSet<String>();
+        for (int i = 1; i < args.length; i++) {
+            Path file = Paths.get(args[i]);
+            String name = file.getFileName().toString();
+            names.add(name.contains(".") ? name.substring(0, name.lastIndexOf('.')) : name);
+            categories.add(readWords(file, seen));
+        }
+
+        Path out = Paths.get(args[0]);
+        try (OutputStream stream = Files.newOutputStream(out)) {
+            write(names, categories, stream);
+        }
+
+        long start = System.nanoTime();
+        MappedWordSource source = MappedWordSource.open(out);
+        double millis = (System.nanoTime() - start) / 1e6;
+        System.err.printf("Wrote %d words in %d groups to %s, which opens in %.1fms%n", source.size(),
+                source.getGroupCount(), out, millis);
+    }
+
+    /**
+     * Writes a dictionary file
+     *
+     * @param names      Name of each category
+     * @param categories Words in each category, in capital letters. Each list is
+     *                   sorted by length.
+     * @param stream     Where to write the file
+     */
+    static void write(List<String> names, List<List<String>> categories, OutputStream stream) throws IOException {
+        int words = 0;
+        int groups = 0;
+        for (List<String> category : categories) {
+            category.sort(Comparator.comparingInt(String::length));
+            for (int i = 0; i < category.size(); i++) {
+                if (i == 0 || category.get(i).length() != category.get(i - 1).length()) {
+                    groups++;
+                }
+            }
+            words += category.size();
+        }
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+        out.writeInt(MappedWordSource.MAGIC);
+        out.writeInt(MappedWordSource.VERSION);
+        out.writeInt(words);
+        out.writeInt(groups);
+        out.writeInt(names.size());
+        for (String name : names) {
+            byte[] bytes = name.getBytes(StandardCharsets.US_ASCII);
+            out.writeShort(bytes.length);
+            out.write(bytes);
+        }
+
+        int first = 0; // Number of the first word in the group
+        int offset = 0; // Position of the group's letters after the group table
+        for (int c = 0; c < categories.size(); c++) {
+            List<String> category = categories.get(c);
+            for (int i = 0; i < category.size(); i++) {
+                int length = category.get(i).length();
+                if (i == 0 || length != category.get(i - 1).length()) {
+                    out.writeInt(c);
+                    out.writeInt(length);
+                    out.writeInt(first + i);
+                    out.writeInt(offset);
+                }
+                offset += length;
+            }
+            first += category.size();
+        }
+
+        for (List<String> category : categories) {
+            for (String word : category) {
+                out.writeBytes(word);
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads the words from a text file, skipping any already seen
+     */
+    private static List<String> readWords(Path file, Set<String> seen) throws IOException {
+        List<String> words = new ArrayList<String>();
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String word = line.trim().toUpperCase(Locale.ROOT);
+                if (!word.isEmpty() && word.chars().allMatch(c -> c >= 'A' && c <= 'Z') && seen.add(word)) {
+                    words.add(word);
+                }
+            }
+        }
+        return words;
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * The difficulty settings for the Word Search game. Kept separate from
+ * WordSearch.java so that boards can be generated without loading JavaFX.
+ *
+ * <p>
+ * Each setting is just a DifficultyProfile with a name, so boards of any other
+ * size or shape can be made by passing a profile to Base instead.
+ *
+ * The following files are also required to run:
+ *
+ * DifficultyProfile.java Direction.java
+ */
+
+public enum Difficulty {
+    EASY(15, 4, Direction.ORTHOGONAL, 0.25), // 15x15, 4 words along rows and columns only
+    MEDIUM(20, 8, Direction.ALL, 0.5), // 20x20, 8 words in any direction
+    HARD(25, 12, Direction.ALL, 1); // 25x25, 12 words in any direction, crossing wherever they can
+
+    // Shortest word hidden. Shorter words turn up by chance all over the board,
+    // so they can't be kept to one copy without re-rolling much of the filler.
+    static final int MIN_LENGTH = 3;
+
+    private final DifficultyProfile profile;
+
+    private Difficulty(int boardSize, int wordCount, int directions, double overlapRate) {
+        profile = new DifficultyProfile(name(), boardSize, wordCount, directions, overlapRate, MIN_LENGTH, boardSize);
+    }
+
+    /**
+     * Returns the profile boards of this difficulty are generated from
+     */
+    public DifficultyProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Returns the difficulty whose profile equals a given profile, or null if
+     * there is none. A profile read back from text belongs to the difficulty it
+     * was written from.
+     */
+    public static Difficulty of(DifficultyProfile profile) {
+        for (Difficulty difficulty : values()) {
+            if (difficulty.profile.equals(profile)) {
+                return difficulty;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,324 @@
+import java.util.Locale;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * This describes how a board for the Word Search game is generated: its size,
+ * how many words are hidden, which orientations they may run in, how often
+ * they may cross each other and how long they may be.
+ *
+ * <p>
+ * Each Difficulty has a profile, and any other profile can be made by hand or
+ * read from text such as:
+ *
+ * <pre>
+ * name=POSTER size=2000 words=3000 directions=all overlap=0.5 length=4-12
+ * name=PACKED size=25 words=400 density=0.7 length=3-10
+ * </pre>
+ *
+ * Only size and words are needed. name is made of letters, digits, _ and -,
+ * so it can be written into text and JSON as it is. directions is "all", "orthogonal" or a comma
+ * separated list of Direction names. overlap is the chance that a word is
+ * allowed to cross letters already on the board, from 0 (words never share a
+ * cell) to 1 (words cross wherever their letters agree). length is the
+ * shortest and longest word to hide, and defaults to any word that fits.
+ *
+ * <p>
+ * Adding density, such as density=0.7, packs the board densely instead: words
+ * are placed, crossing wherever they can, until that share of the cells is
+ * covered by real words. words is then the most words that will be tried, and
+ * the board hides as many of them as it takes. toString() gives back the same
+ * form, so a profile can be stored with a seed and the board rebuilt later.
+ *
+ * A DifficultyProfile is never changed after it is made, so it can be shared
+ * between threads.
+ *
+ * The following files are also required to run:
+ *
+ * Difficulty.java Direction.java
+ */
+
+public final class DifficultyProfile {
+
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9_-]+"); // Every name a profile may have
+
+    private final String name; // Shown when the board is written out
+    private final int boardSize; // Width and height of the board
+    private final int wordCount; // Number of words hidden
+    private final int directions; // Bit o is set if orientation o is allowed
+    private final double overlapRate; // Chance that a word may cross letters already placed
+    private final int minLength; // Shortest word hidden
+    private final int maxLength; // Longest word hidden, never more than boardSize
+    private final double density; // Share of cells to cover with words when packing densely, or 0 if not
+
+    /**
+     * @param name        Name of the profile
+     * @param boardSize   Width and height of the board
+     * @param wordCount   Number of words to hide
+     * @param directions  Orientations allowed, as a mask with bit o set for
+     *                    orientation o of Direction
+     * @param overlapRate Chance from 0 to 1 that a word may cross letters already
+     *                    on the board
+     * @param minLength   Shortest word to hide
+     * @param maxLength   Longest word to hide, lowered to boardSize if larger
+     *
+     * @throws IllegalArgumentException If any value is out of range
+     */
+    public DifficultyProfile(String name, int boardSize, int wordCount, int directions, double overlapRate,
+            int minLength, int maxLength) {
+        this(name, boardSize, wordCount, directions, overlapRate, minLength, maxLength, 0);
+    }
+
+    /**
+     * @param name        Name of the profile, of letters, digits, _ and -
+     * @param boardSize   Width and height of the board
+     * @param wordCount   Number of words to hide, or the most to try when
+     *                    packing densely
+     * @param directions  Orientations allowed, as a mask with bit o set for
+     *                    orientation o of Direction
+     * @param overlapRate Chance from 0 to 1 that a word may cross letters already
+     *                    on the board
+     * @param minLength   Shortest word to hide
+     * @param maxLength   Longest word to hide, lowered to boardSize if larger
+     * @param density     Share of cells from 0 to 1 to cover with words by packing
+     *                    them densely, or 0 to hide exactly wordCount words
+     *
+     * @throws IllegalArgumentException If any value is out of range
+     */
+    public DifficultyProfile(String name, int boardSize, int wordCount, int directions, double overlapRate,
+            int minLength, int maxLength, double density) {
+        if (name == null || !NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Profile names may only have letters, digits, _ and -, not " + name);
+        }
+        if (boardSize < 1) {
+            throw new IllegalArgumentException("Board size must be at least 1, not " + boardSize);
+        }
+        if (wordCount < 0) {
+            throw new IllegalArgumentException("Word count can't be negative");
+        }
+        if (directions == 0 || (directions & ~Direction.ALL) != 0) {
+            throw new IllegalArgumentException("At least one direction must be allowed");
+        }
+        if (!(overlapRate >= 0 && overlapRate <= 1)) {
+            throw new IllegalArgumentException("Overlap rate must be from 0 to 1, not " + overlapRate);
+        }
+        if (!(density >= 0 && density <= 1)) {
+            throw new IllegalArgumentException("Density must be from 0 to 1, not " + density);
+        }
+        if (minLength < 1 || minLength > maxLength || minLength > boardSize) {
+            throw new IllegalArgumentException("No words of " + minLength + " to " + maxLength
+                    + " letters fit on a " + boardSize + "x" + boardSize + " board");
+        }
+        this.name = name;
+        this.boardSize = boardSize;
+        this.wordCount = wordCount;
+        this.directions = directions;
+        this.overlapRate = overlapRate;
+        this.minLength = minLength;
+        this.maxLength = Math.min(maxLength, boardSize);
+        this.density = density;
+    }
+
+    /**
+     * Reads a profile from text in the form given by toString()
+     *
+     * @throws IllegalArgumentException If the text is not a valid profile
+     */
+    public static DifficultyProfile parse(String text) {
+        String name = "CUSTOM";
+        int boardSize = -1;
+        int wordCount = -1;
+        int directions = Direction.ALL;
+        double overlapRate = 1;
+        int minLength = 1;
+        int maxLength = Integer.MAX_VALUE;
+        double density = 0;
+        for (String entry : text.trim().split("\\s+")) {
+            int equals = entry.indexOf('=');
+            if (equals < 0) {
+                throw new IllegalArgumentException("Expected key=value but found " + entry);
+            }
+            String key = entry.substring(0, equals).toLowerCase(Locale.ROOT);
+            String value = entry.substring(equals + 1);
+            switch (key) {
+            case "name":
+                name = value;
+                break;
+            case "size":
+                boardSize = Integer.parseInt(value);
+                break;
+            case "words":
+                wordCount = Integer.parseInt(value);
+                break;
+            case "directions":
+                directions = parseDirections(value);
+                break;
+            case "overlap":
+                overlapRate = Double.parseDouble(value);
+                break;
+            case "density":
+                density = Double.parseDouble(value);
+                break;
+            case "length":
+                int dash = value.indexOf('-');
+                minLength = Integer.parseInt(dash < 0 ? value : value.substring(0, dash));
+                maxLength = Integer.parseInt(dash < 0 ? value : value.substring(dash + 1));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown profile setting " + key);
+            }
+        }
+        if (boardSize < 0 || wordCount < 0) {
+            throw new IllegalArgumentException("A profile needs a size and a number of words");
+        }
+        return new DifficultyProfile(name, boardSize, wordCount, directions, overlapRate, minLength, maxLength,
+                density);
+    }
+
+    /**
+     * Returns a direction mask from "all", "orthogonal" or a comma separated list
+     * of Direction names
+     */
+    private static int parseDirections(String value) {
+        if (value.equalsIgnoreCase("all")) {
+            return Direction.ALL;
+        }
+        if (value.equalsIgnoreCase("orthogonal")) {
+            return Direction.ORTHOGONAL;
+        }
+        int mask = 0;
+        for (String direction : value.split(",")) {
+            mask |= 1 << Direction.parse(direction);
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the name of the profile
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the width and height of the board
+     */
+    public int getBoardSize() {
+        return boardSize;
+    }
+
+    /**
+     * Returns how many words are hidden
+     */
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    /**
+     * Returns the allowed orientations, with bit o set for orientation o
+     */
+    public int getDirections() {
+        return directions;
+    }
+
+    /**
+     * Returns true if words may run in a given orientation
+     */
+    public boolean allows(int orientation) {
+        return (directions & 1 << orientation) != 0;
+    }
+
+    /**
+     * Returns the chance that a word may cross letters already on the board
+     */
+    public double getOverlapRate() {
+        return overlapRate;
+    }
+
+    /**
+     * Returns the shortest word hidden
+     */
+    public int getMinLength() {
+        return minLength;
+    }
+
+    /**
+     * Returns the longest word hidden
+     */
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * Returns the share of cells to cover with words when packing densely, or 0
+     * if exactly getWordCount() words are hidden
+     */
+    public double getDensity() {
+        return density;
+    }
+
+    /**
+     * Returns true if boards are packed densely
+     */
+    public boolean isDense() {
+        return density > 0;
+    }
+
+    /**
+     * Returns true if another profile has the same name and settings, so boards
+     * generated from both with the same seed are the same
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof DifficultyProfile)) {
+            return false;
+        }
+        DifficultyProfile that = (DifficultyProfile) other;
+        return Objects.equals(name, that.name) && boardSize == that.boardSize && wordCount == that.wordCount
+                && directions == that.directions && Double.compare(overlapRate, that.overlapRate) == 0
+                && minLength == that.minLength && maxLength == that.maxLength
+                && Double.compare(density, that.density) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = Objects.hashCode(name);
+        hash = hash * 31 + boardSize;
+        hash = hash * 31 + wordCount;
+        hash = hash * 31 + directions;
+        hash = hash * 31 + Double.hashCode(overlapRate);
+        hash = hash * 31 + minLength;
+        hash = hash * 31 + maxLength;
+        hash = hash * 31 + Double.hashCode(density);
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        out.append("name=").append(name).append(" size=").append(boardSize).append(" words=").append(wordCount)
+                .append(" directions=");
+        if (directions == Direction.ALL) {
+            out.append("all");
+        } else if (directions == Direction.ORTHOGONAL) {
+            out.append("orthogonal");
+        } else {
+            String separator = "";
+            for (int o = 0; o < Direction.COUNT; o++) {
+                if (allows(o)) {
+                    out.append(separator).append(Direction.NAMES[o].toLowerCase(Locale.ROOT));
+                    separator = ",";
+                }
+            }
+        }
+        out.append(" overlap=").append(overlapRate).append(" length=").append(minLength).append('-')
+                .append(maxLength);
+        if (isDense()) {
+            out.append(" density=").append(density);
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,59 @@
+/**
+ * This holds the orientations that a word can be written in on the game board
+ * for the Word Search game.
+ *
+ * <p>
+ * Orientations are stored as plain int codes so they can be used as array
+ * indexes, matching the original switch cases in Base.java (0 = vertical up,
+ * 1 = horizontal right, 2 = vertical down, 3 = horizontal left). Codes 4 to 7
+ * are the diagonals.
+ *
+ * The following files are also required to run:
+ *
+ * Base.java BoardFiller.java BoardGenerator.java DifficultyProfile.java Occupancy.java WordSolver.java
+ */
+
+public final class Direction {
+
+    static final int UP = 0;
+    static final int RIGHT = 1;
+    static final int DOWN = 2;
+    static final int LEFT = 3;
+    static final int UP_RIGHT = 4;
+    static final int DOWN_RIGHT = 5;
+    static final int DOWN_LEFT = 6;
+    static final int UP_LEFT = 7;
+
+    static final int COUNT = 8; // Number of orientations a word can be placed and found in
+    static final int ALL = (1 << COUNT) - 1; // Mask allowing every orientation
+    static final int ORTHOGONAL = 1 << UP | 1 << RIGHT | 1 << DOWN | 1 << LEFT; // Mask allowing rows and columns only
+
+    static final String[] NAMES = { "UP", "RIGHT", "DOWN", "LEFT", "UP_RIGHT", "DOWN_RIGHT", "DOWN_LEFT", "UP_LEFT" };
+
+    static final int[] ROW_STEP = { -1, 0, 1, 0, -1, 1, 1, -1 }; // Row change for each letter in a given orientation
+    static final int[] COL_STEP = { 0, 1, 0, -1, 1, 1, -1, -1 }; // Column change for each letter in a given orientation
+
+    private Direction() {
+    }
+
+    /**
+     * Returns the orientation that reads the same cells backwards
+     */
+    static int opposite(int orientation) {
+        return orientation ^ 2; // Pairs are 0 and 2, 1 and 3, 4 and 6, 5 and 7
+    }
+
+    /**
+     * Returns the orientation with a given name, ignoring case
+     *
+     * @throws IllegalArgumentException If there is no orientation with that name
+     */
+    static int parse(String name) {
+        for (int o = 0; o < COUNT; o++) {
+            if (NAMES[o].equalsIgnoreCase(name)) {
+                return o;
+            }
+        }
+        throw new IllegalArgumentException("Unknown direction " + name);
+    }
+}
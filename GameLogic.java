@@ -0,0 +1,125 @@
+/**
+ * This is the rules of the Word Search game as a state machine: a player's
+ * game and where their selection square is, changed only by applying one
+ * Input at a time. The same inputs applied to the same puzzle always end in
+ * the same state, so a game can be replayed from its inputs alone.
+ *
+ * <p>
+ * A GameLogic has no locks and is meant to be used by one thread at a time.
+ * WordSearch runs it on the thread of a GameLoop, and other threads only see
+ * the GameSnapshots it makes.
+ *
+ * The following files are also required to run:
+ *
+ * Base.java GameSnapshot.java
+ */
+
+public final class GameLogic {
+
+    /**
+     * Everything a player can do to change a game
+     */
+    enum Input {
+        LEFT, // Moves the selection square one cell, unless it is on the edge
+        RIGHT,
+        UP,
+        DOWN,
+        SELECT, // Selects the letter under the selection square
+        DELETE // Removes the last letter selected
+    }
+
+    private final Base game;
+    private final int boardSize;
+    private int row; // Row of the selection square
+    private int col; // Column of the selection square
+    private long applied; // Inputs applied so far
+    private GameSnapshot last; // Snapshot made after the last input applied, if any
+
+    /**
+     * @param game Game to play, which no other thread may change while this is
+     *             in use
+     * @param row  Row the selection square starts on, moved onto the board if
+     *             it is past the edge
+     * @param col  Column the selection square starts on
+     */
+    public GameLogic(Base game, int row, int col) {
+        this.game = game;
+        this.boardSize = game.getBoardSize();
+        this.row = Math.max(0, Math.min(row, boardSize - 1));
+        this.col = Math.max(0, Math.min(col, boardSize - 1));
+    }
+
+    /**
+     * Applies one input. Once every word has been found the game is over, and
+     * inputs are still counted but change nothing.
+     */
+    public void apply(Input input) {
+        applied++;
+        if (game.isFinished()) {
+            return;
+        }
+        switch (input) {
+        case LEFT:
+            col = Math.max(0, col - 1);
+            break;
+        case RIGHT:
+            col = Math.min(boardSize - 1, col + 1);
+            break;
+        case UP:
+            row = Math.max(0, row - 1);
+            break;
+        case DOWN:
+            row = Math.min(boardSize - 1, row + 1);
+            break;
+        case SELECT:
+            game.selectFoundWord(row, col);
+            break;
+        case DELETE:
+            game.deleteLastLetter();
+            break;
+        }
+    }
+
+    /**
+     * Returns the state after every input applied so far. The found words are
+     * only copied when a word has been found since the last snapshot, so
+     * taking one after a move or a letter costs a single small object.
+     */
+    public GameSnapshot snapshot() {
+        if (last != null && last.getVersion() == applied) {
+            return last;
+        }
+        long[] found = last != null && last.getFoundCount() == game.getFoundCount() ? last.foundBits()
+                : game.getSession().getFoundBits();
+        last = new GameSnapshot(game.getPuzzle(), applied, row, col, game.getWordIn(), found, game.getFoundCount());
+        return last;
+    }
+
+    /**
+     * Returns the game being played
+     */
+    public Base getGame() {
+        return game;
+    }
+
+    /**
+     * Returns the row of the selection square
+     */
+    public int getRow() {
+        return row;
+    }
+
+    /**
+     * Returns the column of the selection square
+     */
+    public int getCol() {
+        return col;
+    }
+
+    /**
+     * Returns how many inputs have been applied
+     */
+    public long getApplied() {
+        return applied;
+    }
+}
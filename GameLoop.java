@@ -0,0 +1,109 @@
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This runs a GameLogic on a thread of its own, so the JavaFX thread only
+ * ever posts inputs and draws snapshots, and never waits for the game or the
+ * game for a frame to be drawn.
+ *
+ * <p>
+ * Inputs are posted to a ConcurrentLinkedQueue, which never takes a lock, and
+ * the game thread wakes up to apply them. Every input waiting is applied,
+ * up to MAX_BATCH at a time, before a single GameSnapshot is published, so a
+ * burst of key presses or a replayed stream of inputs costs one snapshot and
+ * one repaint rather than one each. The thread sleeps while there is nothing
+ * to do.
+ *
+ * <p>
+ * If applying an input throws, the error is printed and the loop closes, so
+ * later inputs are ignored and the last snapshot published stays on screen.
+ *
+ * The following files are also required to run:
+ *
+ * GameLogic.java GameSnapshot.java
+ */
+
+public final class GameLoop implements Runnable, AutoCloseable {
+
+    static final int MAX_BATCH = 1024; // Inputs applied before a snapshot is published, however many are waiting
+
+    private final GameLogic logic; // Only used on thread
+    private final Queue<GameLogic.Input> inputs = new ConcurrentLinkedQueue<>(); // Posted but not applied yet
+    private final Thread thread;
+    private volatile GameSnapshot snapshot; // Latest state published
+    private volatile boolean closed;
+
+    /**
+     * Starts a thread running a game
+     *
+     * @param logic Game to run, which no other thread may use afterwards
+     */
+    public GameLoop(GameLogic logic) {
+        this.logic = logic;
+        this.snapshot = logic.snapshot();
+        thread = new Thread(this, "game-logic");
+        thread.setDaemon(true); // Doesn't keep the program open
+        thread.start();
+    }
+
+    /**
+     * Queues an input to be applied on the game thread. Inputs posted after
+     * the loop is closed are ignored.
+     */
+    public void post(GameLogic.Input input) {
+        if (!closed) {
+            inputs.add(input);
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Returns the state after the last batch of inputs applied
+     */
+    public GameSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            GameLogic.Input input = inputs.poll();
+            if (input == null) {
+                if (closed) {
+                    return;
+                }
+                LockSupport.park(this); // Woken by post() or close(), or now and then for no reason
+                continue;
+            }
+            int batch = 0;
+            try {
+                do {
+                    logic.apply(input);
+                } while (++batch < MAX_BATCH && (input = inputs.poll()) != null);
+                snapshot = logic.snapshot();
+            } catch (RuntimeException e) { // The game can't be trusted after this, so it stops here
+                System.err.println("Game stopped after an error applying " + input + ": " + e);
+                e.printStackTrace();
+                closed = true;
+                inputs.clear();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Applies the inputs already posted, then stops the game thread. The last
+     * snapshot is then the final state of the game.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
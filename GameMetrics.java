@@ -0,0 +1,252 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * This keeps counts and timings of the work the Word Search game does, so that
+ * slow generation or dropped frames can be seen on a player's machine without
+ * attaching a profiler.
+ *
+ * <p>
+ * Generation is recorded by every Puzzle as it is generated, on whatever
+ * thread does it. Frames and key presses are recorded by WordSearch on the
+ * JavaFX thread. Everything is kept in LongAdders and LatencyHistograms, so
+ * recording never takes a lock or allocates.
+ *
+ * <p>
+ * There is one GameMetrics for the whole program. It is registered with the
+ * platform MBean server as WordSearch:type=GameMetrics the first time it is
+ * used, and WordSearch shows the same numbers on screen when F3 is pressed.
+ *
+ * The following files are also required to run:
+ *
+ * GameMetricsMXBean.java LatencyHistogram.java
+ */
+
+public final class GameMetrics implements GameMetricsMXBean {
+
+    static final String OBJECT_NAME = "WordSearch:type=GameMetrics";
+    static final long FRAME_NANOS = 1_000_000_000 / 60; // JavaFX pulses 60 times a second
+    static final double MILLIS = 1e6; // Nanoseconds in a millisecond
+
+    private static final GameMetrics INSTANCE = register(new GameMetrics());
+
+    private final LongAdder puzzlesGenerated = new LongAdder();
+    private final LongAdder generationFailures = new LongAdder();
+    private final LongAdder attempts = new LongAdder(); // Slots tried while placing words
+    private final LongAdder wordsPlaced = new LongAdder();
+    private final LongAdder fillRerolls = new LongAdder(); // Cells filled again to remove a second copy of a word
+    private final LongAdder droppedFrames = new LongAdder();
+    private final LatencyHistogram generationNanos = new LatencyHistogram();
+    private final LatencyHistogram attemptsPerBoard = new LatencyHistogram();
+    private final LatencyHistogram frameNanos = new LatencyHistogram();
+    private final LatencyHistogram keyToRepaintNanos = new LatencyHistogram();
+
+    private long lastPulse; // When the last frame pulse arrived, only used on the JavaFX thread
+    private long keyPressed; // When the oldest key press not yet drawn happened, only used on the JavaFX thread
+
+    private GameMetrics() {
+    }
+
+    /**
+     * Returns the metrics of the whole program
+     */
+    public static GameMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Shows the metrics through JMX. The game runs the same without them, so a
+     * failure is ignored.
+     */
+    private static GameMetrics register(GameMetrics metrics) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName(OBJECT_NAME));
+        } catch (JMException | SecurityException e) {
+            // Not watchable, but still counted
+        }
+        return metrics;
+    }
+
+    /**
+     * Records one puzzle being generated
+     *
+     * @param nanos    How long it took, including any boards that were thrown
+     *                 away
+     * @param attempts Slots tried while placing words, over every board tried
+     * @param words    Words placed, over every board tried
+     * @param rerolls  Cells filled again while removing second copies of words
+     * @param success  False if no board could be made
+     */
+    public void recordGeneration(long nanos, long attempts, long words, long rerolls, boolean success) {
+        (success ? puzzlesGenerated : generationFailures).increment();
+        this.attempts.add(attempts);
+        wordsPlaced.add(words);
+        fillRerolls.add(rerolls);
+        generationNanos.record(nanos);
+        attemptsPerBoard.record(attempts);
+    }
+
+    /**
+     * Records a frame pulse from the animation timer, whether or not anything
+     * was drawn. Pulses that arrive late count the frames missed in between.
+     */
+    public void recordPulse(long now) {
+        if (lastPulse != 0 && now - lastPulse > FRAME_NANOS * 3 / 2) {
+            droppedFrames.add((now - lastPulse + FRAME_NANOS / 2) / FRAME_NANOS - 1);
+        }
+        lastPulse = now;
+    }
+
+    /**
+     * Forgets the last pulse, so the time the animation timer is stopped isn't
+     * counted as dropped frames
+     */
+    public void stopPulses() {
+        lastPulse = 0;
+    }
+
+    /**
+     * Records how long a frame took to draw
+     */
+    public void recordFrame(long nanos) {
+        frameNanos.record(nanos);
+    }
+
+    /**
+     * Notes that a key was pressed. Only the first key press before a repaint
+     * is timed, as that is the one the player waits longest for.
+     */
+    public void keyPressed() {
+        if (keyPressed == 0) {
+            keyPressed = System.nanoTime();
+        }
+    }
+
+    /**
+     * Notes that the screen has been repainted, recording how long ago the
+     * oldest key press not yet shown was
+     */
+    public void repainted() {
+        if (keyPressed != 0) {
+            keyToRepaintNanos.record(System.nanoTime() - keyPressed);
+            keyPressed = 0;
+        }
+    }
+
+    @Override
+    public long getPuzzlesGenerated() {
+        return puzzlesGenerated.sum();
+    }
+
+    @Override
+    public long getGenerationFailures() {
+        return generationFailures.sum();
+    }
+
+    @Override
+    public double getGenerationMillisMean() {
+        return generationNanos.getMean() / MILLIS;
+    }
+
+    @Override
+    public double getGenerationMillisP50() {
+        return generationNanos.getPercentile(50) / MILLIS;
+    }
+
+    @Override
+    public double getGenerationMillisP99() {
+        return generationNanos.getPercentile(99) / MILLIS;
+    }
+
+    @Override
+    public double getGenerationMillisMax() {
+        return generationNanos.getMax() / MILLIS;
+    }
+
+    @Override
+    public double getAttemptsPerWordMean() {
+        long words = wordsPlaced.sum();
+        return words == 0 ? 0 : (double) attempts.sum() / words;
+    }
+
+    @Override
+    public long getAttemptsPerBoardP99() {
+        return attemptsPerBoard.getPercentile(99);
+    }
+
+    @Override
+    public long getFillRerolls() {
+        return fillRerolls.sum();
+    }
+
+    @Override
+    public long getFramesDrawn() {
+        return frameNanos.getCount();
+    }
+
+    @Override
+    public long getDroppedFrames() {
+        return droppedFrames.sum();
+    }
+
+    @Override
+    public double getFrameMillisP50() {
+        return frameNanos.getPercentile(50) / MILLIS;
+    }
+
+    @Override
+    public double getFrameMillisP99() {
+        return frameNanos.getPercentile(99) / MILLIS;
+    }
+
+    @Override
+    public double getFrameMillisMax() {
+        return frameNanos.getMax() / MILLIS;
+    }
+
+    @Override
+    public double getKeyToRepaintMillisP50() {
+        return keyToRepaintNanos.getPercentile(50) / MILLIS;
+    }
+
+    @Override
+    public double getKeyToRepaintMillisP99() {
+        return keyToRepaintNanos.getPercentile(99) / MILLIS;
+    }
+
+    @Override
+    public double getKeyToRepaintMillisMax() {
+        return keyToRepaintNanos.getMax() / MILLIS;
+    }
+
+    @Override
+    public void reset() {
+        puzzlesGenerated.reset();
+        generationFailures.reset();
+        attempts.reset();
+        wordsPlaced.reset();
+        fillRerolls.reset();
+        droppedFrames.reset();
+        generationNanos.reset();
+        attemptsPerBoard.reset();
+        frameNanos.reset();
+        keyToRepaintNanos.reset();
+    }
+
+    /**
+     * Returns the numbers shown in the on-screen overlay, one line each
+     */
+    public String[] getOverlayLines() {
+        return new String[] {
+                String.format("boards %d (%d failed)  gen p50 %.1fms p99 %.1fms", getPuzzlesGenerated(),
+                        getGenerationFailures(), getGenerationMillisP50(), getGenerationMillisP99()),
+                String.format("attempts/word %.1f  board p99 %d  rerolls %d", getAttemptsPerWordMean(),
+                        getAttemptsPerBoardP99(), getFillRerolls()),
+                String.format("frames %d (%d dropped)  p50 %.2fms p99 %.2fms", getFramesDrawn(), getDroppedFrames(),
+                        getFrameMillisP50(), getFrameMillisP99()),
+                String.format("key to repaint p50 %.1fms p99 %.1fms max %.1fms", getKeyToRepaintMillisP50(),
+                        getKeyToRepaintMillisP99(), getKeyToRepaintMillisMax()) };
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * This is what GameMetrics shows through JMX, so the game can be watched in
+ * JConsole or VisualVM while it runs. Times are in milliseconds.
+ *
+ * The following files are also required to run:
+ *
+ * GameMetrics.java
+ */
+
+public interface GameMetricsMXBean {
+
+    long getPuzzlesGenerated();
+
+    long getGenerationFailures();
+
+    double getGenerationMillisMean();
+
+    double getGenerationMillisP50();
+
+    double getGenerationMillisP99();
+
+    double getGenerationMillisMax();
+
+    double getAttemptsPerWordMean();
+
+    long getAttemptsPerBoardP99();
+
+    long getFillRerolls();
+
+    long getFramesDrawn();
+
+    long getDroppedFrames();
+
+    double getFrameMillisP50();
+
+    double getFrameMillisP99();
+
+    double getFrameMillisMax();
+
+    double getKeyToRepaintMillisP50();
+
+    double getKeyToRepaintMillisP99();
+
+    double getKeyToRepaintMillisMax();
+
+    /**
+     * Forgets everything counted so far
+     */
+    void reset();
+}
@@ -0,0 +1,617 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This hosts many games of Word Search at once over a simple text protocol, so
+ * whole classrooms can play on one server without JavaFX.
+ *
+ * <p>
+ * Usage: java GameServer [-b address] [-p port] [-w dictionary]
+ *
+ * <p>
+ * The server only listens on the loopback address unless -b gives another,
+ * such as -b 0.0.0.0 for every network the machine is on.
+ *
+ * <p>
+ * Players join a room by name. Everyone in a room plays the same Puzzle, which
+ * is taken from a PuzzlePool when the first player joins and never changed, so
+ * a room costs one board however many players it has. The room is dropped
+ * when its last player leaves. Each player only has a GameSession of their
+ * own: a bit per word and the letters they have selected.
+ *
+ * <p>
+ * Connections are shared between a few event loops, one per processor. Each
+ * loop is a single thread with its own Selector, and a player's session is
+ * only ever touched by the loop that owns their connection, so sessions are
+ * updated without any locks. Only the room map is shared between loops.
+ * Boards are never generated on a loop: a player whose room's board isn't
+ * ready yet is answered once the pool has made it, and until then the rest of
+ * their commands wait unread.
+ *
+ * <p>
+ * Each command is one line, and gets one line back unless noted:
+ *
+ * <pre>
+ * JOIN room [EASY|MEDIUM|HARD]  OK size words, or ERR if the room has another
+ *                               difficulty. A new room is EASY if none is given.
+ * BOARD                         BOARD size, then one line of letters per row
+ * WORDS                         WORDS and every word not yet found
+ * SEL row col                   SEL and the letters selected, or FOUND word left
+ * DEL                           SEL and the letters selected
+ * STATE                         STATE found words
+ * QUIT                          closes the connection
+ * </pre>
+ *
+ * Anything else, or a command other than JOIN before joining, gets ERR and a
+ * reason.
+ *
+ * The following files are also required to run:
+ *
+ * Base.java Difficulty.java GameSession.java MappedWordSource.java Puzzle.java PuzzlePool.java
+ * WordSource.java
+ */
+
+public class GameServer implements AutoCloseable {
+
+    static final int DEFAULT_PORT = 7878;
+    static final int MAX_LINE = 256; // Longest command accepted, in bytes
+    static final long ACCEPT_RETRY_MS = 100; // Wait after accepting fails, such as when out of file descriptors
+
+    private final PuzzlePool pool; // Boards of every difficulty, made ahead of time off the loops
+    private final ServerSocketChannel server;
+    private final Loop[] loops;
+    private final Thread acceptor;
+    private final ConcurrentHashMap<String, Room> rooms = new ConcurrentHashMap<>();
+    private final AtomicInteger sessionCount = new AtomicInteger(); // Players connected right now
+    private volatile boolean closed;
+
+    /**
+     * Starts a server on the loopback address
+     *
+     * @param port       Port to listen on, or 0 for any free port
+     * @param wordSource Words to hide, which must be safe to read from many
+     *                   threads at once
+     */
+    public GameServer(int port, WordSource wordSource) throws IOException {
+        this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), wordSource,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Starts a server on any address
+     *
+     * @param address    Address and port to listen on
+     * @param wordSource Words to hide, which must be safe to read from many
+     *                   threads at once
+     * @param loopCount  How many event loops to share connections between
+     */
+    public GameServer(InetSocketAddress address, WordSource wordSource, int loopCount) throws IOException {
+        pool = new PuzzlePool(wordSource, PuzzlePool.DEFAULT_BOARDS_PER_PROFILE, Difficulty.EASY.getProfile(),
+                Difficulty.MEDIUM.getProfile(), Difficulty.HARD.getProfile());
+        server = ServerSocketChannel.open();
+        server.bind(address, 1024);
+        loops = new Loop[Math.max(1, loopCount)];
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new Loop(Selector.open());
+            Thread thread = new Thread(loops[i], "game-server-" + (i + 1));
+            thread.setDaemon(true);
+            thread.start();
+        }
+        acceptor = new Thread(this::acceptAll, "game-server-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        InetAddress address = InetAddress.getLoopbackAddress();
+        int port = DEFAULT_PORT;
+        WordSource words = Base.LIBRARY;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+            case "-b":
+                address = InetAddress.getByName(args[++i]);
+                break;
+            case "-p":
+                port = Integer.parseInt(args[++i]);
+                break;
+            case "-w":
+                words = MappedWordSource.open(Paths.get(args[++i]));
+                break;
+            default:
+                System.err.println("Usage: java GameServer [-b address] [-p port] [-w dictionary]");
+                System.exit(2);
+            }
+        }
+        GameServer gameServer = new GameServer(new InetSocketAddress(address, port), words,
+                Runtime.getRuntime().availableProcessors());
+        System.err.println("Word Search server listening on " + address.getHostAddress() + " port "
+                + gameServer.getPort());
+        gameServer.acceptor.join();
+    }
+
+    /**
+     * Returns the port the server is listening on
+     */
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    /**
+     * Returns how many players are connected
+     */
+    public int getSessionCount() {
+        return sessionCount.get();
+    }
+
+    /**
+     * Returns how many rooms have players in them
+     */
+    public int getRoomCount() {
+        return rooms.size();
+    }
+
+    /**
+     * Returns the puzzle played in a room, or null if nobody is in it or its
+     * board is still being made
+     */
+    public Puzzle getPuzzle(String room) {
+        Room found = rooms.get(room);
+        if (found == null || !found.puzzle.isDone() || found.puzzle.isCompletedExceptionally()) {
+            return null;
+        }
+        return found.puzzle.join();
+    }
+
+    /**
+     * Stops accepting players and closes every connection
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        pool.shutdown();
+        server.close();
+        for (Loop loop : loops) {
+            loop.selector.wakeup();
+        }
+    }
+
+    /**
+     * Accepts connections until the server is closed, handing them to the event
+     * loops in turn. If accepting fails it waits a little before trying again,
+     * as the cause, such as running out of file descriptors, rarely clears at
+     * once.
+     */
+    private void acceptAll() {
+        int next = 0;
+        while (!closed) {
+            SocketChannel channel;
+            try {
+                channel = server.accept();
+            } catch (IOException e) {
+                if (!closed) {
+                    System.err.println("Couldn't accept a connection: " + e);
+                    try {
+                        Thread.sleep(ACCEPT_RETRY_MS);
+                    } catch (InterruptedException interrupted) {
+                        return;
+                    }
+                }
+                continue;
+            }
+            try {
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                loops[next].add(channel);
+                next = (next + 1) % loops.length;
+            } catch (IOException e) {
+                try {
+                    channel.close(); // Only this connection failed, and the rest carry on
+                } catch (IOException ignored) {
+                    // Nothing more can be done with it
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a player to a room, opening it if this is the first player to join.
+     * Later players get the same room and so the same puzzle.
+     *
+     * @param difficulty Difficulty of the room, or null to join whatever the
+     *                   room is, or an EASY room if there is none
+     *
+     * @throws IllegalStateException If the room already has another difficulty
+     */
+    private Room join(String name, Difficulty difficulty) {
+        return rooms.compute(name, (key, room) -> { // Counts players under the map's lock for the room
+            if (room == null) {
+                Difficulty chosen = difficulty != null ? difficulty : Difficulty.EASY;
+                room = new Room(chosen, pool.takeAsync(chosen.getProfile()).thenApply(Base::getPuzzle));
+            } else if (difficulty != null && difficulty != room.difficulty) {
+                throw new IllegalStateException("room " + key + " is " + room.difficulty);
+            }
+            room.players++;
+            return room;
+        });
+    }
+
+    /**
+     * Takes a player out of a room, dropping the room if they were the last one
+     * in it
+     */
+    private void leave(String name, Room room) {
+        rooms.computeIfPresent(name, (key, current) -> current == room && --room.players == 0 ? null : current);
+    }
+
+    /**
+     * A room that players can join, and the puzzle they all play
+     */
+    private static final class Room {
+
+        private final Difficulty difficulty;
+        private final CompletableFuture<Puzzle> puzzle; // Done once the pool has a board for the room
+        private int players; // Only changed inside rooms.compute() for this room
+
+        private Room(Difficulty difficulty, CompletableFuture<Puzzle> puzzle) {
+            this.difficulty = difficulty;
+            this.puzzle = puzzle;
+        }
+    }
+
+    /**
+     * One event loop, which owns every connection handed to it
+     */
+    private final class Loop implements Runnable {
+
+        private final Selector selector;
+        private final Queue<SocketChannel> added = new ConcurrentLinkedQueue<>(); // Accepted but not registered yet
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>(); // Work handed to this loop's thread
+
+        private Loop(Selector selector) {
+            this.selector = selector;
+        }
+
+        /**
+         * Passes a new connection to this loop's thread
+         */
+        private void add(SocketChannel channel) {
+            added.add(channel);
+            selector.wakeup();
+        }
+
+        /**
+         * Runs a task on this loop's thread after its next select
+         */
+        private void post(Runnable task) {
+            tasks.add(task);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!closed) {
+                    selector.select();
+                    registerAdded();
+                    Runnable task;
+                    while ((task = tasks.poll()) != null) {
+                        try {
+                            task.run();
+                        } catch (RuntimeException e) { // Only the player the task was for is affected
+                            System.err.println("Task failed on a game server loop: " + e);
+                        }
+                    }
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        Player player = (Player) key.attachment();
+                        try {
+                            if (key.isReadable()) {
+                                player.read(key);
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                player.flush(key);
+                            }
+                        } catch (IOException e) {
+                            player.close(key);
+                        } catch (RuntimeException e) { // A bug with one player, so only they are dropped
+                            System.err.println("Dropped a player after an error: " + e);
+                            player.close(key);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                // Selector failed, so this loop's players are dropped below
+            } finally {
+                for (SelectionKey key : selector.keys()) {
+                    ((Player) key.attachment()).close(key);
+                }
+                try {
+                    selector.close();
+                } catch (IOException e) {
+                    // Nothing left to release
+                }
+            }
+        }
+
+        /**
+         * Registers connections accepted since the last select
+         */
+        private void registerAdded() {
+            SocketChannel channel;
+            while ((channel = added.poll()) != null) {
+                try {
+                    channel.register(selector, SelectionKey.OP_READ, new Player(this, channel));
+                    sessionCount.incrementAndGet();
+                } catch (ClosedChannelException e) {
+                    // Player left before being registered
+                }
+            }
+        }
+    }
+
+    /**
+     * The connection and session of one player. Only used by the thread of the
+     * loop that owns it.
+     */
+    private final class Player {
+
+        private final Loop loop; // Loop that owns the connection
+        private final SocketChannel channel;
+        private final ByteBuffer in = ByteBuffer.allocate(MAX_LINE); // Part of a line not yet read
+        private ByteBuffer out = ByteBuffer.allocate(64); // Replies not yet sent, ready to be read from
+        private final StringBuilder reply = new StringBuilder();
+        private String roomName; // Room joined, null until the player joins one
+        private Room room;
+        private Room joining; // Room whose board is still being made, if any
+        private GameSession session; // Null until the player's room has a board
+
+        private Player(Loop loop, SocketChannel channel) {
+            this.loop = loop;
+            this.channel = channel;
+            out.flip();
+        }
+
+        /**
+         * Reads what has arrived and answers it
+         */
+        private void read(SelectionKey key) throws IOException {
+            if (channel.read(in) < 0) {
+                close(key);
+                return;
+            }
+            answer(key);
+        }
+
+        /**
+         * Answers every complete line read so far, then sends the replies. Stops
+         * after a JOIN whose board isn't ready, leaving the lines after it to be
+         * answered once it is.
+         */
+        private void answer(SelectionKey key) throws IOException {
+            in.flip();
+            int start = 0;
+            for (int i = 0; i < in.limit() && joining == null; i++) {
+                if (in.get(i) == '\n') {
+                    if (!handle(new String(in.array(), start, i - start, StandardCharsets.US_ASCII).trim(), key)) {
+                        send();
+                        flush(key);
+                        close(key);
+                        return;
+                    }
+                    start = i + 1;
+                }
+            }
+            in.position(start);
+            in.compact();
+            if (!in.hasRemaining() && joining == null) { // Line longer than any command
+                close(key);
+                return;
+            }
+            send();
+            flush(key);
+        }
+
+        /**
+         * Answers one command
+         *
+         * @return false if the player asked to quit
+         */
+        private boolean handle(String line, SelectionKey key) {
+            String[] parts = line.split(" +");
+            String command = parts[0].toUpperCase(Locale.ROOT);
+            if (command.equals("QUIT")) {
+                return false;
+            }
+            try {
+                if (command.equals("JOIN")) {
+                    join(parts, key);
+                } else if (session == null) {
+                    reply.append("ERR join a room first\n");
+                } else {
+                    play(command, parts);
+                }
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                reply.append("ERR bad command: ").append(line).append('\n');
+            } catch (IllegalStateException e) {
+                reply.append("ERR ").append(e.getMessage()).append('\n');
+            }
+            return true;
+        }
+
+        /**
+         * Joins a room, leaving any room joined before. If the room's board isn't
+         * ready the reply is sent by joined() once it is.
+         */
+        private void join(String[] parts, SelectionKey key) {
+            Difficulty difficulty = parts.length > 2 ? Difficulty.valueOf(parts[2].toUpperCase(Locale.ROOT)) : null;
+            Room joined = GameServer.this.join(parts[1], difficulty);
+            leave();
+            roomName = parts[1];
+            room = joined;
+            if (joined.puzzle.isDone()) {
+                joined(key);
+            } else {
+                joining = joined;
+                joined.puzzle.whenComplete((puzzle, error) -> loop.post(() -> {
+                    joining = null;
+                    if (key.isValid()) {
+                        joined(key);
+                        try {
+                            answer(key); // Lines sent after the JOIN
+                        } catch (IOException e) {
+                            close(key);
+                        }
+                    }
+                }));
+            }
+        }
+
+        /**
+         * Answers a JOIN once the room's board is made, or leaves the room if it
+         * couldn't be
+         */
+        private void joined(SelectionKey key) {
+            try {
+                Puzzle puzzle = room.puzzle.join();
+                session = new GameSession(puzzle);
+                reply.append("OK ").append(puzzle.getBoardSize()).append(' ').append(puzzle.getWordCount())
+                        .append('\n');
+            } catch (CompletionException | CancellationException e) {
+                rooms.remove(roomName, room); // Lets the next player to join try again
+                leave();
+                reply.append("ERR can't make a board for the room\n");
+            }
+        }
+
+        /**
+         * Leaves the room joined, if any
+         */
+        private void leave() {
+            if (room != null) {
+                GameServer.this.leave(roomName, room);
+                room = null;
+                roomName = null;
+                session = null;
+            }
+        }
+
+        /**
+         * Answers a command about the room already joined
+         */
+        private void play(String command, String[] parts) {
+            Puzzle puzzle = session.getPuzzle();
+            switch (command) {
+            case "BOARD":
+                Board board = puzzle.getBoard();
+                reply.append("BOARD ").append(board.getSize()).append('\n');
+                for (int row = 0; row < board.getSize(); row++) {
+                    for (int col = 0; col < board.getSize(); col++) {
+                        reply.append(board.getChar(row, col));
+                    }
+                    reply.append('\n');
+                }
+                break;
+            case "WORDS":
+                reply.append("WORDS");
+                for (int word = 0; word < puzzle.getWordCount(); word++) {
+                    if (!session.isFound(word)) {
+                        reply.append(' ').append(puzzle.getWord(word));
+                    }
+                }
+                reply.append('\n');
+                break;
+            case "SEL":
+                int row = Integer.parseInt(parts[1]);
+                int col = Integer.parseInt(parts[2]);
+                if (row < 0 || col < 0 || row >= puzzle.getBoardSize() || col >= puzzle.getBoardSize()) {
+                    throw new IndexOutOfBoundsException(row + "," + col);
+                }
+                int found = session.select(row, col);
+                if (found >= 0) {
+                    reply.append("FOUND ").append(puzzle.getWord(found)).append(' ')
+                            .append(session.getRemainingCount()).append('\n');
+                } else {
+                    reply.append("SEL ").append(session.getSelectedText()).append('\n');
+                }
+                break;
+            case "DEL":
+                session.deleteLastLetter();
+                reply.append("SEL ").append(session.getSelectedText()).append('\n');
+                break;
+            case "STATE":
+                reply.append("STATE ").append(session.getFoundCount()).append(' ').append(puzzle.getWordCount())
+                        .append('\n');
+                break;
+            default:
+                throw new IllegalArgumentException(command);
+            }
+        }
+
+        /**
+         * Moves the replies made so far into the output buffer, growing it if needed
+         */
+        private void send() {
+            if (reply.length() == 0) {
+                return;
+            }
+            out.compact();
+            if (out.remaining() < reply.length()) {
+                ByteBuffer bigger = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + reply.length()));
+                out.flip();
+                bigger.put(out);
+                out = bigger;
+            }
+            for (int i = 0; i < reply.length(); i++) {
+                out.put((byte) reply.charAt(i));
+            }
+            out.flip();
+            reply.setLength(0);
+        }
+
+        /**
+         * Sends as much as the connection takes, and waits to be told it can take
+         * more if any is left
+         */
+        private void flush(SelectionKey key) throws IOException {
+            channel.write(out);
+            int ops = joining == null ? SelectionKey.OP_READ : 0; // Nothing more is read until the JOIN is answered
+            key.interestOps(out.hasRemaining() ? ops | SelectionKey.OP_WRITE : ops);
+        }
+
+        /**
+         * Closes the connection, drops the session and leaves the room
+         */
+        private void close(SelectionKey key) {
+            if (channel.isOpen()) {
+                leave();
+                sessionCount.decrementAndGet();
+                key.cancel();
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    // Already gone
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/**
+ * This is one player's progress through a Word Search Puzzle: which words they
+ * have found, and the letters they have selected so far.
+ *
+ * <p>
+ * The board and words belong to the Puzzle, which may be shared by any number
+ * of sessions, so a session only holds a bit per word and the selection. A
+ * found word is never matched again, the same as removing it from the list.
+ *
+ * A GameSession is meant to be used by one thread at a time, such as the
+ * thread serving its player.
+ *
+ * The following files are also required to run:
+ *
+ * Base.java GameServer.java Puzzle.java WordSelected.java WordTrie.java
+ */
+
+public final class GameSession {
+
+    private final Puzzle puzzle;
+    private final long[] found; // Bit w is set once word w has been found
+    private int foundCount;
+    private final WordSelected wordSelect = new WordSelected(); // Selected characters and their match state
+    private int oldRow = -1; // Set to the row of the first letter of wordSelect
+    private int oldCol = -1; // Set to the column of the first letter of wordSelect
+
+    public GameSession(Puzzle puzzle) {
+        this.puzzle = puzzle;
+        this.found = new long[(puzzle.getWordCount() + 63) >>> 6];
+        wordSelect.setIndex(puzzle.getIndex());
+    }
+
+    /**
+     * Resumes a session from progress saved by getFoundBits(), with nothing
+     * selected
+     *
+     * @throws IllegalArgumentException If the bits don't fit the puzzle's words
+     */
+    public GameSession(Puzzle puzzle, long[] foundBits) {
+        this(puzzle);
+        if (foundBits.length != found.length
+                || (found.length > 0 && (foundBits[found.length - 1] & ~lastWordsMask()) != 0)) {
+            throw new IllegalArgumentException("Found words don't match a puzzle of " + puzzle.getWordCount()
+                    + " words");
+        }
+        for (int i = 0; i < found.length; i++) {
+            found[i] = foundBits[i];
+            foundCount += Long.bitCount(foundBits[i]);
+        }
+    }
+
+    /**
+     * Adds the letter at a cell to the selection, then checks if a word is
+     * complete
+     *
+     * @return The number of the word that was found, or -1 if none was
+     */
+    public int select(int row, int col) {
+        addLetter(puzzle.getBoard().getChar(row, col));
+        checkForSameRowCol(row, col);
+        return checkForFinishedWord();
+    }
+
+    /**
+     * Checks if the selected letters are a word that hasn't been found yet.
+     * wordSelect follows the word trie as each letter is added, so this is a
+     * single lookup and makes no Strings.
+     *
+     * <p>
+     * If the selection matches a word, marks the word found and clears the
+     * selection.
+     *
+     * @return The number of the word that was found, or -1 if none was
+     */
+    public int checkForFinishedWord() {
+        if (!wordSelect.isWord()) {
+            return -1;
+        }
+        int word = puzzle.getIndex().getWordId(wordSelect.getNode());
+        if (isFound(word)) {
+            return -1; // Found words are no longer matched
+        }
+        markFound(word);
+        clearSelection();
+        return word;
+    }
+
+    /**
+     * Clears the selection if the most recent letter is not in the same row,
+     * column or diagonal as the first letter selected
+     */
+    public void checkForSameRowCol(int rowSelection, int colSelection) {
+        if (wordSelect.getSize() == 1) { // Letter just added is the first one
+            oldCol = colSelection;
+            oldRow = rowSelection;
+        } else if (!(oldRow == rowSelection || oldCol == colSelection
+                || Math.abs(rowSelection - oldRow) == Math.abs(colSelection - oldCol))) {
+            clearSelection();
+        }
+    }
+
+    /**
+     * Marks a word as found
+     */
+    public void markFound(int word) {
+        if (!isFound(word)) {
+            found[word >>> 6] |= 1L << word;
+            foundCount++;
+        }
+    }
+
+    /**
+     * Returns true if a word has been found
+     */
+    public boolean isFound(int word) {
+        return (found[word >>> 6] & 1L << word) != 0;
+    }
+
+    /**
+     * Returns a copy of the found words, one bit per word with bit w of the
+     * whole array set once word w is found. Enough to save or snapshot the
+     * player's progress, as the selection is dropped on resuming.
+     */
+    public long[] getFoundBits() {
+        return found.clone();
+    }
+
+    /**
+     * Returns the bits of the last long in found that belong to a word
+     */
+    private long lastWordsMask() {
+        int used = puzzle.getWordCount() & 63;
+        return used == 0 ? -1L : (1L << used) - 1;
+    }
+
+    /**
+     * Returns how many words have been found
+     */
+    public int getFoundCount() {
+        return foundCount;
+    }
+
+    /**
+     * Returns how many words are still to be found
+     */
+    public int getRemainingCount() {
+        return puzzle.getWordCount() - foundCount;
+    }
+
+    /**
+     * Returns true once every word has been found
+     */
+    public boolean isFinished() {
+        return foundCount == puzzle.getWordCount();
+    }
+
+    /**
+     * Adds a given letter to the selection
+     */
+    public void addLetter(char val) {
+        wordSelect.addLetter(val);
+    }
+
+    /**
+     * Removes the last letter added to the selection
+     */
+    public void deleteLastLetter() {
+        wordSelect.removeLastValue();
+    }
+
+    /**
+     * Clears every letter from the selection
+     */
+    public void clearSelection() {
+        wordSelect.clearArrayList();
+    }
+
+    /**
+     * Returns how many letters are selected
+     */
+    public int getSelectionSize() {
+        return wordSelect.getSize();
+    }
+
+    /**
+     * Returns the selected letter at a given position
+     */
+    public char getSelectionValue(int pos) {
+        return wordSelect.getValue(pos);
+    }
+
+    /**
+     * Returns the selected letters as a String, for display. The String is only
+     * made again after the selection changes.
+     */
+    public String getSelectedText() {
+        return wordSelect.toString();
+    }
+
+    /**
+     * Returns the puzzle being played
+     */
+    public Puzzle getPuzzle() {
+        return puzzle;
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * This is the state of a game of Word Search at one moment, made by a
+ * GameLogic after applying some inputs. Nothing in it ever changes, so it can
+ * be handed from the thread running the game to the thread drawing it without
+ * any locks, and the drawing thread can keep it as long as it likes.
+ *
+ * The following files are also required to run:
+ *
+ * GameLogic.java Puzzle.java
+ */
+
+public final class GameSnapshot {
+
+    private final Puzzle puzzle;
+    private final long version; // Inputs applied before this was made
+    private final int row; // Row of the selection square
+    private final int col; // Column of the selection square
+    private final String selectedText;
+    private final long[] found; // Bit w is set once word w has been found, shared with later snapshots
+    private final int foundCount;
+
+    /**
+     * @param found Found words in the form of GameSession.getFoundBits(), which
+     *              must never be changed afterwards
+     */
+    GameSnapshot(Puzzle puzzle, long version, int row, int col, String selectedText, long[] found,
+            int foundCount) {
+        this.puzzle = puzzle;
+        this.version = version;
+        this.row = row;
+        this.col = col;
+        this.selectedText = selectedText;
+        this.found = found;
+        this.foundCount = foundCount;
+    }
+
+    /**
+     * Returns the puzzle being played
+     */
+    public Puzzle getPuzzle() {
+        return puzzle;
+    }
+
+    /**
+     * Returns how many inputs had been applied when this was made. A later
+     * snapshot of the same game always has a higher version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the row of the selection square
+     */
+    public int getRow() {
+        return row;
+    }
+
+    /**
+     * Returns the column of the selection square
+     */
+    public int getCol() {
+        return col;
+    }
+
+    /**
+     * Returns the selected letters
+     */
+    public String getSelectedText() {
+        return selectedText;
+    }
+
+    /**
+     * Returns true if a word has been found
+     */
+    public boolean isFound(int word) {
+        return (found[word >>> 6] & 1L << word) != 0;
+    }
+
+    /**
+     * Returns a copy of the found words, in the form of
+     * GameSession.getFoundBits()
+     */
+    public long[] getFoundBits() {
+        return found.clone();
+    }
+
+    /**
+     * Returns the found words without copying them, for the next snapshot of
+     * the same game to share
+     */
+    long[] foundBits() {
+        return found;
+    }
+
+    /**
+     * Returns how many words have been found
+     */
+    public int getFoundCount() {
+        return foundCount;
+    }
+
+    /**
+     * Returns how many words are still to be found
+     */
+    public int getRemainingCount() {
+        return puzzle.getWordCount() - foundCount;
+    }
+
+    /**
+     * Returns true once every word has been found
+     */
+    public boolean isFinished() {
+        return foundCount == puzzle.getWordCount();
+    }
+}
@@ -0,0 +1,79 @@
+import java.util.SplittableRandom;
+
+/**
+ * This measures how long BoardGenerator takes to place words for the Word
+ * Search game, and how long BoardFiller takes to fill the rest of the board and
+ * remove second copies of the words, at the three game board sizes and at much
+ * larger poster sizes. Each size is filled once with evenly spread letters and
+ * once with letters spread like those of the built in word library.
+ * 
+ * <p>
+ * Run with: java GeneratorBenchmark [boards per size]
+ *
+ * The following files are also required to run:
+ *
+ * Base.java Board.java BoardFiller.java BoardGenerator.java Direction.java LetterModel.java WordPlacement.java
+ */
+
+public class GeneratorBenchmark {
+
+    static final int[] BOARD_SIZES = { 15, 20, 25, 50, 100, 500, 1000, 2000 };
+    static final int[] WORD_COUNTS = { 4, 8, 12, 37, 37, 37, 37, 37 };
+    static final long WARM_UP_CELLS = 20_000_000; // Cells filled before timing each size, so it is all compiled
+
+    public static void main(String[] args) {
+        int boards = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        SplittableRandom rand = new SplittableRandom(42);
+
+        LetterModel[] models = { LetterModel.UNIFORM, LetterModel.of(Base.LIBRARY) };
+        String[] modelNames = { "even", "library" };
+        System.out.printf("%9s %6s %8s %8s %12s %10s %10s %10s %8s%n", "size", "words", "filler", "boards", "place us",
+                "attempts", "fill us", "check us", "check %");
+        for (int s = 0; s < BOARD_SIZES.length; s++) {
+            for (int m = 0; m < models.length; m++) {
+                int size = BOARD_SIZES[s];
+                String[] words = new String[WORD_COUNTS[s]];
+                System.arraycopy(Base.WORD_LIBRARY, 0, words, 0, words.length);
+                int runs = Math.max(10, (int) ((long) boards * 625 / ((long) size * size))); // Fewer runs on big boards
+
+                generate(size, words, models[m], (int) Math.max(runs, WARM_UP_CELLS / (size * size)), rand); // Warm up
+                long[] result = generate(size, words, models[m], runs, rand);
+                System.out.printf("%9s %6d %8s %8d %12.1f %10.1f %10.1f %10.1f %8.1f%s%n", size + "x" + size,
+                        words.length, modelNames[m], runs, result[0] / 1000.0 / runs, (double) result[1] / runs,
+                        result[3] / 1000.0 / runs, result[4] / 1000.0 / runs,
+                        100.0 * result[4] / (result[0] + result[3] + result[4]),
+                        result[2] > 0 ? "  (" + result[2] + " failed)" : "");
+            }
+        }
+    }
+
+    /**
+     * Generates and fills a number of boards
+     * 
+     * @return Total placement nanoseconds, total slot attempts, number of
+     *         failures, total fill nanoseconds and total nanoseconds spent
+     *         removing second copies of words
+     */
+    private static long[] generate(int size, String[] words, LetterModel model, int runs, SplittableRandom rand) {
+        BoardGenerator generator = new BoardGenerator(size);
+        BoardFiller filler = new BoardFiller(model);
+        long nanos = 0;
+        long attempts = 0;
+        long failed = 0;
+        long fillNanos = 0;
+        long checkNanos = 0;
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            Board gameBoard = new Board(size);
+            WordPlacement[] placements = generator.populate(gameBoard, words, rand);
+            nanos += System.nanoTime() - start;
+            attempts += generator.getAttempts();
+            if (placements == null || !filler.fill(gameBoard, placements, rand)) {
+                failed++;
+            }
+            fillNanos += filler.getFillNanos();
+            checkNanos += filler.getCheckNanos();
+        }
+        return new long[] { nanos, attempts, failed, fillNanos, checkNanos };
+    }
+}
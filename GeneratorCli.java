@@ -0,0 +1,85 @@
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Command line entry point for generating Word Search boards in bulk. This
+ * never touches WordSearch.java, so JavaFX is not needed to run it.
+ *
+ * <p>
+ * Usage: java GeneratorCli [-n count] [-d EASY|MEDIUM|HARD] [-p profile]
+ * [-f json|text] [-s seed] [-o file] [-w dictionary]
+ *
+ * <p>
+ * A profile describes boards of any size in the form read by
+ * DifficultyProfile.parse(), for example
+ * -p "size=2000 words=3000 length=4-12", and is used instead of a difficulty.
+ *
+ * <p>
+ * Boards are written to standard output unless a file is given. Words are
+ * drawn from the built in word library, or from a dictionary file written by
+ * DictionaryCompiler. Running again with the same seed, count, difficulty or
+ * profile and words gives exactly the same boards.
+ *
+ * The following files are also required to run:
+ *
+ * BatchGenerator.java Base.java Difficulty.java DifficultyProfile.java MappedWordSource.java PuzzleWriter.java
+ */
+
+public class GeneratorCli {
+
+    public static void main(String[] args) throws IOException {
+        int count = 1;
+        DifficultyProfile profile = Difficulty.HARD.getProfile();
+        PuzzleWriter.Format format = PuzzleWriter.Format.JSON;
+        long seed = ThreadLocalRandom.current().nextLong();
+        String file = null;
+        WordSource words = Base.LIBRARY;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+            case "-n":
+                count = Integer.parseInt(args[++i]);
+                break;
+            case "-d":
+                profile = Difficulty.valueOf(args[++i].toUpperCase(Locale.ROOT)).getProfile();
+                break;
+            case "-p":
+                profile = DifficultyProfile.parse(args[++i]);
+                break;
+            case "-f":
+                format = PuzzleWriter.Format.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                break;
+            case "-s":
+                seed = Long.parseLong(args[++i]);
+                break;
+            case "-o":
+                file = args[++i];
+                break;
+            case "-w":
+                words = MappedWordSource.open(Paths.get(args[++i]));
+                break;
+            default:
+                System.err.println("Usage: java GeneratorCli [-n count] [-d EASY|MEDIUM|HARD] [-p profile]"
+                        + " [-f json|text] [-s seed] [-o file] [-w dictionary]");
+                System.exit(2);
+            }
+        }
+
+        OutputStream stream = file == null ? System.out : new FileOutputStream(file);
+        long start = System.nanoTime();
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.US_ASCII), 1 << 16)) {
+            new BatchGenerator(BatchGenerator.DEFAULT_CHUNK_SIZE, words).write(count, profile, seed, format, out);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("Generated %d %s boards from seed %d in %.2fs (%.0f boards/s)%n", count, profile.getName(),
+                seed, seconds, count / seconds);
+    }
+}
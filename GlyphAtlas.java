@@ -0,0 +1,77 @@
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+
+/**
+ * This holds every letter of the Word Search board drawn once into a single
+ * image, so that drawing a cell is one copy from the image instead of laying
+ * out text.
+ *
+ * <p>
+ * The top row of the image holds the 26 letters as they appear on the board,
+ * and the bottom row the same letters as they appear under the selection
+ * square. Each letter fills a whole cell, including the background, so a cell
+ * can be redrawn without clearing it first. The image is only drawn again when
+ * the cell size changes.
+ *
+ * The following files are also required to run:
+ *
+ * Board.java
+ */
+
+public class GlyphAtlas {
+
+    private WritableImage image; // Every letter, plain then selected
+    private int cellSize; // Size of each letter in the image, 0 before the first build
+
+    /**
+     * Draws the letters again if the cell size has changed. Must be called on the
+     * JavaFX application thread.
+     */
+    public void update(int cellSize) {
+        if (cellSize == this.cellSize) {
+            return;
+        }
+        this.cellSize = cellSize;
+        Canvas canvas = new Canvas(Board.LETTERS * cellSize, 2 * cellSize);
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.setFont(Font.font(cellSize * 0.65)); // Matches the default font on a 20 pixel cell
+        double textX = cellSize * 0.25;
+        double textY = cellSize * 0.7;
+        double squareOffset = cellSize * 0.1;
+        double squareSize = cellSize * 0.75;
+
+        gc.setFill(Color.WHITE);
+        gc.fillRect(0, 0, Board.LETTERS * cellSize, 2 * cellSize);
+        for (int code = 1; code <= Board.LETTERS; code++) {
+            double x = (code - 1) * cellSize;
+            String glyph = String.valueOf(Board.decode((byte) code));
+            gc.setFill(Color.BLACK);
+            gc.fillText(glyph, x + textX, textY);
+            gc.fillRect(x + squareOffset, cellSize + squareOffset, squareSize, squareSize);
+            gc.setFill(Color.WHITE);
+            gc.fillText(glyph, x + textX, cellSize + textY);
+        }
+
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        image = canvas.snapshot(parameters, new WritableImage(Board.LETTERS * cellSize, 2 * cellSize));
+    }
+
+    /**
+     * Draws a letter filling a whole cell
+     *
+     * @param gc       Where to draw
+     * @param code     Cell value of the letter, from 1 to 26
+     * @param x        Left edge of the cell
+     * @param y        Top edge of the cell
+     * @param selected True to draw the letter under the selection square
+     */
+    public void draw(GraphicsContext gc, int code, double x, double y, boolean selected) {
+        gc.drawImage(image, (code - 1) * cellSize, selected ? cellSize : 0, cellSize, cellSize, x, y, cellSize,
+                cellSize);
+    }
+}
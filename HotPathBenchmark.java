@@ -0,0 +1,282 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.IntToLongFunction;
+
+/**
+ * This measures the hot paths of the Word Search game with a BenchmarkRunner:
+ * generating a whole puzzle at each difficulty, placing the words and how many
+ * tries that takes, filling the rest of the board, each key press while
+ * selecting a word, and the work done to draw a frame.
+ *
+ * <p>
+ * Run with: java HotPathBenchmark [-f filter] [-w warmup ms] [-m measure ms]
+ *
+ * <p>
+ * The same tasks are run under JMH by jmh/src/main/java/wordsearch/jmh/HotPathJmh.java,
+ * through tasks().
+ *
+ * <p>
+ * A frame can't be drawn without a JavaFX window, so the frame benchmarks do
+ * everything WordSearch.run() does except the calls to the GraphicsContext:
+ * finding the visible cells, looking up each cell's letter and position, and
+ * walking the word list.
+ *
+ * The following files are also required to run:
+ *
+ * Base.java BenchmarkRunner.java Board.java BoardFiller.java BoardGenerator.java BoardViewport.java
+ * Difficulty.java GameSession.java LetterModel.java Puzzle.java WordPlacement.java
+ */
+
+public class HotPathBenchmark {
+
+    static final int SNAPSHOTS = 64; // Placed but unfilled boards kept for the fill benchmarks
+
+    public static void main(String[] args) throws Exception {
+        String filter = null;
+        long warmup = 1000;
+        long measure = 2000;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+            case "-f":
+                filter = args[++i];
+                break;
+            case "-w":
+                warmup = Long.parseLong(args[++i]);
+                break;
+            case "-m":
+                measure = Long.parseLong(args[++i]);
+                break;
+            default:
+                System.err.println("Usage: java HotPathBenchmark [-f filter] [-w warmup ms] [-m measure ms]");
+                System.exit(2);
+            }
+        }
+
+        BenchmarkRunner runner = new BenchmarkRunner(warmup, measure, filter);
+        runner.printHeader();
+        runAll(runner);
+    }
+
+    /**
+     * Returns every task by name, each taking how many operations to do and
+     * returning a value that depends on them. Used by the JMH benchmarks, which
+     * have to be in a package and so can only reach these classes through
+     * reflection and standard interfaces.
+     */
+    public static Map<String, IntToLongFunction> tasks() throws Exception {
+        BenchmarkRunner runner = BenchmarkRunner.collecting();
+        runAll(runner);
+        Map<String, IntToLongFunction> tasks = new LinkedHashMap<String, IntToLongFunction>();
+        for (Map.Entry<String, BenchmarkRunner.Task> entry : runner.getCollected().entrySet()) {
+            BenchmarkRunner.Task task = entry.getValue();
+            tasks.put(entry.getKey(), ops -> {
+                try {
+                    return task.run(ops);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+        return tasks;
+    }
+
+    /**
+     * Passes every task to a runner
+     */
+    private static void runAll(BenchmarkRunner runner) throws Exception {
+        for (Difficulty difficulty : Difficulty.values()) {
+            generate(runner, difficulty);
+        }
+        for (Difficulty difficulty : Difficulty.values()) {
+            populate(runner, difficulty);
+        }
+        for (Difficulty difficulty : Difficulty.values()) {
+            fill(runner, difficulty);
+        }
+        keystrokes(runner);
+        frame(runner, Difficulty.HARD.getProfile());
+        frame(runner, DifficultyProfile.parse("name=POSTER size=2000 words=30 length=4-12"));
+    }
+
+    /**
+     * Measures generating a whole puzzle: drawing words, placing them, filling
+     * and checking the board
+     */
+    private static void generate(BenchmarkRunner runner, Difficulty difficulty) throws Exception {
+        long[] seed = { 0 };
+        runner.run("generate/" + difficulty, ops -> {
+            long result = 0;
+            for (int i = 0; i < ops; i++) {
+                result += Puzzle.generate(difficulty.getProfile(), seed[0]++, Base.LIBRARY).getBoard().getCode(0);
+            }
+            return result;
+        }, null);
+    }
+
+    /**
+     * Measures placing the same words on an empty board, noting how many slots
+     * were tried for each board
+     */
+    private static void populate(BenchmarkRunner runner, Difficulty difficulty) throws Exception {
+        DifficultyProfile profile = difficulty.getProfile();
+        String[] words = wordsOf(Puzzle.generate(profile, 1, Base.LIBRARY));
+        BoardGenerator generator = new BoardGenerator(profile);
+        SplittableRandom rand = new SplittableRandom(42);
+        long[] counts = new long[2]; // Slots tried, boards that failed
+        runner.run("populate/" + difficulty, ops -> {
+            long result = 0;
+            for (int i = 0; i < ops; i++) {
+                WordPlacement[] placements = generator.populate(new Board(profile.getBoardSize()), words, rand);
+                counts[0] += generator.getAttempts();
+                if (placements == null) {
+                    counts[1]++;
+                } else {
+                    result += placements[0].getRow();
+                }
+            }
+            return result;
+        }, new BenchmarkRunner.Notes() {
+            public void reset() {
+                counts[0] = counts[1] = 0;
+            }
+
+            public String describe(long ops) {
+                return String.format("%.1f attempts/board, %d failed", (double) counts[0] / ops, counts[1]);
+            }
+        });
+    }
+
+    /**
+     * Measures filling boards that already have their words placed, including
+     * the check that each word appears only once. The board is reset to its
+     * placed words before each fill, which is part of the time measured.
+     */
+    private static void fill(BenchmarkRunner runner, Difficulty difficulty) throws Exception {
+        DifficultyProfile profile = difficulty.getProfile();
+        BoardGenerator generator = new BoardGenerator(profile);
+        SplittableRandom rand = new SplittableRandom(42);
+        byte[][] cells = new byte[SNAPSHOTS][];
+        WordPlacement[][] placements = new WordPlacement[SNAPSHOTS][];
+        for (int s = 0; s < SNAPSHOTS; s++) {
+            Board board = new Board(profile.getBoardSize());
+            placements[s] = generator.populate(board, wordsOf(Puzzle.generate(profile, s, Base.LIBRARY)), rand);
+            cells[s] = new byte[profile.getBoardSize() * profile.getBoardSize()];
+            for (int i = 0; i < cells[s].length; i++) {
+                cells[s][i] = board.getCode(i);
+            }
+        }
+        Board board = new Board(profile.getBoardSize());
+        BoardFiller filler = new BoardFiller(LetterModel.of(Base.LIBRARY)); // As Puzzle fills them
+        long[] rerolls = new long[1];
+        runner.run("fill/" + difficulty, ops -> {
+            long result = 0;
+            for (int i = 0; i < ops; i++) {
+                int s = i % SNAPSHOTS;
+                for (int c = 0; c < cells[s].length; c++) {
+                    board.setCode(c, cells[s][c]);
+                }
+                result += filler.fill(board, placements[s], rand) ? 1 : 0;
+                rerolls[0] += filler.getRerolls();
+            }
+            return result;
+        }, new BenchmarkRunner.Notes() {
+            public void reset() {
+                rerolls[0] = 0;
+            }
+
+            public String describe(long ops) {
+                return String.format("%.2f rerolls/board", (double) rerolls[0] / ops);
+            }
+        });
+    }
+
+    /**
+     * Measures a key press on the game board: adding the letter under the
+     * selection square, checking the line and whether a word is finished, then
+     * getting the selected text to draw, as WordSearch does every frame. Each
+     * word is typed up to its last letter and then cleared, so nothing is ever
+     * found and every press does the same work. The second benchmark presses
+     * random cells, which mostly leave the word trie straight away.
+     */
+    private static void keystrokes(BenchmarkRunner runner) throws Exception {
+        Puzzle puzzle = Puzzle.generate(Difficulty.HARD.getProfile(), 7, Base.LIBRARY);
+        GameSession session = new GameSession(puzzle);
+        int[] typed = new int[2]; // Word being typed, letters typed of it
+        runner.run("keystroke/word-prefix", ops -> {
+            long result = 0;
+            for (int i = 0; i < ops; i++) {
+                WordPlacement placement = puzzle.getPlacement(typed[0]);
+                int k = typed[1]++;
+                result += session.select(placement.getRow() + Direction.ROW_STEP[placement.getOrientation()] * k,
+                        placement.getCol() + Direction.COL_STEP[placement.getOrientation()] * k);
+                result += session.getSelectedText().length();
+                if (typed[1] == placement.getWord().length() - 1) {
+                    session.clearSelection();
+                    typed[0] = (typed[0] + 1) % puzzle.getWordCount();
+                    typed[1] = 0;
+                }
+            }
+            return result;
+        }, null);
+
+        SplittableRandom rand = new SplittableRandom(42);
+        int size = puzzle.getBoardSize();
+        runner.run("keystroke/random-cell", ops -> {
+            long result = 0;
+            for (int i = 0; i < ops; i++) {
+                result += session.select(rand.nextInt(size), rand.nextInt(size));
+                result += session.getSelectedText().length();
+                if (session.getSelectionSize() > 8) {
+                    session.clearSelection();
+                }
+            }
+            return result;
+        }, null);
+    }
+
+    /**
+     * Measures the work of drawing the board and word list in a 600x514 view,
+     * without drawing anything
+     */
+    private static void frame(BenchmarkRunner runner, DifficultyProfile profile) throws Exception {
+        Puzzle puzzle = Puzzle.generate(profile, 3, Base.LIBRARY);
+        GameSession session = new GameSession(puzzle);
+        session.markFound(0);
+        Board board = puzzle.getBoard();
+        BoardViewport viewport = new BoardViewport(0, 86, 600, 514);
+        viewport.reset(board.getSize());
+        viewport.scrollToCell(board.getSize() / 2, board.getSize() / 2);
+        runner.run("frame/" + board.getSize() + "x" + board.getSize(), ops -> {
+            long result = 0;
+            for (int i = 0; i < ops; i++) {
+                int lastRow = viewport.getLastRow();
+                int lastCol = viewport.getLastCol();
+                for (int row = viewport.getFirstRow(); row <= lastRow; row++) {
+                    double y = viewport.getCellY(row);
+                    for (int col = viewport.getFirstCol(); col <= lastCol; col++) {
+                        result += board.getCode(board.index(row, col)) + (long) (viewport.getCellX(col) + y);
+                    }
+                }
+                for (int word = 0; word < puzzle.getWordCount(); word++) {
+                    if (!session.isFound(word)) {
+                        result += puzzle.getWord(word).length();
+                    }
+                }
+                result += session.getSelectedText().length();
+            }
+            return result;
+        }, null);
+    }
+
+    /**
+     * Returns the words hidden in a puzzle
+     */
+    private static String[] wordsOf(Puzzle puzzle) {
+        String[] words = new String[puzzle.getWordCount()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = puzzle.getWord(i);
+        }
+        return words;
+    }
+}
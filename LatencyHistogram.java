@@ -0,0 +1,129 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This counts how often values of every size are recorded, such as how many
+ * nanoseconds each frame took, cheaply enough to be left on all the time.
+ *
+ * <p>
+ * Values are counted in log-linear buckets, in the same way as an HDR
+ * histogram: every power of two is split into 16 equal buckets, so any value
+ * is known to within about 6% whatever its size, and the whole range of a long
+ * takes under a thousand counters. Recording a value is a few shifts and one
+ * atomic increment, with no locks and no allocation, so any thread can record
+ * at any time. Percentiles read while values are being recorded may be a
+ * value or two out, which doesn't matter for watching a running game.
+ *
+ * The following files are also required to run:
+ *
+ * GameMetrics.java
+ */
+
+public final class LatencyHistogram {
+
+    static final int SUB_BITS = 4; // Each power of two is split into 1 << SUB_BITS buckets
+    static final int SUB_COUNT = 1 << SUB_BITS;
+    static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder(); // Sum of every value, for the mean
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a value. Negative values are counted as 0.
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+        counts.incrementAndGet(bucketOf(value));
+        total.add(value);
+        long highest = max.get();
+        while (value > highest && !max.compareAndSet(highest, value)) {
+            highest = max.get();
+        }
+    }
+
+    /**
+     * Returns how many values have been recorded
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the mean of every value recorded, or 0 if there are none
+     */
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : total.doubleValue() / count;
+    }
+
+    /**
+     * Returns the largest value recorded
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns roughly the value that a given percentage of values are at or
+     * below, or 0 if nothing has been recorded
+     *
+     * @param percentile From 0 to 100
+     */
+    public long getPercentile(double percentile) {
+        long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(middleOf(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Forgets every value recorded so far
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        total.reset();
+        max.set(0);
+    }
+
+    /**
+     * Returns the bucket a value is counted in. Values below SUB_COUNT each have
+     * their own bucket.
+     */
+    static int bucketOf(long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value); // At least SUB_BITS
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+        return (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+    }
+
+    /**
+     * Returns the value in the middle of a bucket
+     */
+    static long middleOf(int bucket) {
+        if (bucket < SUB_COUNT) {
+            return bucket;
+        }
+        int shift = bucket / SUB_COUNT - 1; // Width of the bucket is 1 << shift
+        long lowest = (long) (SUB_COUNT + bucket % SUB_COUNT) << shift;
+        return lowest + ((1L << shift) >>> 1);
+    }
+}
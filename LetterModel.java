@@ -0,0 +1,237 @@
+import java.util.Collections;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.WeakHashMap;
+
+/**
+ * This picks filler letters for a Word Search board as often as they appear in
+ * the words being hidden, so hidden words don't stand out against letters that
+ * never appear in real words.
+ *
+ * <p>
+ * A letter is picked knowing only one neighbour, the letter before it along
+ * the direction the board is filled, using how often each letter follows that
+ * one in the words. BoardFiller fills down the board, so the letter before is
+ * the one above, and pairs counted along the words are used down the columns.
+ * Pairs that never appear in a word are still given a small chance, so every
+ * letter can be picked after every other. A letter with nothing before it, such
+ * as on the top row, is picked by how often it appears at all.
+ *
+ * <p>
+ * Each of the 27 distributions is kept as an alias table, so a letter takes
+ * 32 random bits and two table reads whatever the distribution: the bits pick
+ * a column, and what is left over decides between the column's own letter and
+ * the one it shares the column with. A model is never changed once made, so
+ * one can be shared by any number of threads, and models made from a word
+ * source are kept for as long as the word source is in use.
+ *
+ * <p>
+ * Filling a large board through an alias table for every cell would be slow,
+ * so the tables are also read out into a flat table of 1024 letters for each
+ * letter before. Cells are then filled with one table read for each 10 random
+ * bits, with every chance rounded to the nearest 1 in 1024.
+ *
+ * <p>
+ * This still costs more than evenly spread letters. Each cell has to read the
+ * letter before it, and common pairs make more near copies of the hidden
+ * words, which the check that each word appears once has to re-roll. With
+ * GeneratorBenchmark's settings, a 25x25 board took 3.0us to fill and 8.2us
+ * to check, against 2.8us and 6.9us with evenly spread letters, and a
+ * 1000x1000 board took 10.6ms and 31.5ms against 11.6ms and 25.7ms. Filling
+ * is within the noise of the machine, but the check is 20 to 30% slower.
+ *
+ * <p>
+ * The following files are also required to run:
+ *
+ * Board.java BoardFiller.java WordSource.java
+ */
+
+public final class LetterModel {
+
+    static final int MAX_WORDS_READ = 50_000; // Words read from large word sources, spread evenly through them
+    static final long ONE = 1L << 31; // A probability of 1 in a threshold
+    static final int FILL_BITS = 10; // Random bits used for each letter of a whole board
+
+    /**
+     * Every letter equally often, whatever letter is before it
+     */
+    public static final LetterModel UNIFORM = new LetterModel(new long[(Board.LETTERS + 1) * Board.LETTERS]);
+
+    private static final Map<WordSource, LetterModel> MODELS = Collections
+            .synchronizedMap(new WeakHashMap<WordSource, LetterModel>());
+
+    // Entry (before * LETTERS + column) of each table. Before is the letter
+    // before, or BLANK for none. A column keeps its own letter when what is left
+    // of the random bits is below its threshold, and gives its alias if not.
+    private final int[] thresholds = new int[(Board.LETTERS + 1) * Board.LETTERS];
+    private final byte[] aliases = new byte[(Board.LETTERS + 1) * Board.LETTERS];
+    // Letter given by each value of FILL_BITS random bits, at (before <<
+    // FILL_BITS | bits), taken from the alias tables
+    private final byte[] fillLetters = new byte[(Board.LETTERS + 1) << FILL_BITS];
+
+    /**
+     * @param counts Times each letter was seen after each letter, at (before *
+     *               LETTERS + letter - 1), with BLANK before for letters
+     *               counted on their own
+     */
+    private LetterModel(long[] counts) {
+        double[] weights = new double[Board.LETTERS];
+        for (int before = 0; before <= Board.LETTERS; before++) {
+            long total = 0;
+            for (int i = 0; i < Board.LETTERS; i++) {
+                total += counts[before * Board.LETTERS + i] + 1; // Every pair keeps a small chance
+            }
+            for (int i = 0; i < Board.LETTERS; i++) {
+                weights[i] = (double) (counts[before * Board.LETTERS + i] + 1) * Board.LETTERS / total;
+            }
+            buildTable(before * Board.LETTERS, weights);
+            for (int bits = 0; bits < 1 << FILL_BITS; bits++) { // The middle of each slice of the random range
+                fillLetters[before << FILL_BITS | bits] = pick(before, (bits << 1 | 1) << (31 - FILL_BITS));
+            }
+        }
+    }
+
+    /**
+     * Returns the model of the letters in a word source, making it the first
+     * time the word source is used
+     */
+    public static LetterModel of(WordSource source) {
+        LetterModel model = MODELS.get(source);
+        if (model == null) {
+            model = count(source); // Two threads may both count a new source, which does no harm
+            MODELS.put(source, model);
+        }
+        return model;
+    }
+
+    /**
+     * Makes a model of the letters in a word source. Only MAX_WORDS_READ words
+     * are read from larger sources, which is plenty to learn 702 numbers.
+     */
+    private static LetterModel count(WordSource source) {
+        long[] counts = new long[(Board.LETTERS + 1) * Board.LETTERS];
+        int size = source.size();
+        long stride = Math.max(1, (size + MAX_WORDS_READ - 1) / MAX_WORDS_READ);
+        for (long n = 0; n < size; n += stride) {
+            String word = source.getWord((int) n);
+            int before = Board.BLANK;
+            for (int i = 0; i < word.length(); i++) {
+                int letter = Board.encode(word.charAt(i));
+                if (letter < 1 || letter > Board.LETTERS) {
+                    before = Board.BLANK; // Not a letter, so the next one starts again
+                    continue;
+                }
+                counts[Board.BLANK * Board.LETTERS + letter - 1]++;
+                if (before != Board.BLANK) {
+                    counts[before * Board.LETTERS + letter - 1]++;
+                }
+                before = letter;
+            }
+        }
+        return new LetterModel(counts);
+    }
+
+    /**
+     * Fills one alias table with Vose's method
+     *
+     * @param base    First entry of the table
+     * @param weights Chance of each letter times LETTERS, so they average 1.
+     *                Changed by this method.
+     */
+    private void buildTable(int base, double[] weights) {
+        int[] small = new int[Board.LETTERS];
+        int[] large = new int[Board.LETTERS];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < Board.LETTERS; i++) {
+            if (weights[i] < 1) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            thresholds[base + less] = (int) Math.min(Integer.MAX_VALUE, Math.round(weights[less] * ONE));
+            aliases[base + less] = (byte) (more + 1);
+            weights[more] -= 1 - weights[less]; // The rest of less's column is given to more
+            if (weights[more] < 1) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        while (largeCount > 0) { // Left over columns are full, up to rounding
+            keepsOwn(base + large[--largeCount]);
+        }
+        while (smallCount > 0) {
+            keepsOwn(base + small[--smallCount]);
+        }
+    }
+
+    /**
+     * Makes a column always give its own letter
+     */
+    private void keepsOwn(int entry) {
+        thresholds[entry] = Integer.MAX_VALUE;
+        aliases[entry] = (byte) (entry % Board.LETTERS + 1);
+    }
+
+    /**
+     * Returns the cell value of a random letter
+     *
+     * @param before Cell value of the letter before, or BLANK for none
+     */
+    public byte next(int before, SplittableRandom rand) {
+        return pick(before, rand.nextInt());
+    }
+
+    /**
+     * Returns the cell value of a random letter for filling a board, much as
+     * next() would but from one table read. Each chance is rounded to a
+     * multiple of 1 in 1 << FILL_BITS, so only the top FILL_BITS bits are used
+     * and callers filling many cells can take two letters from each random
+     * long.
+     *
+     * @param before Cell value of the letter before, or BLANK for none
+     * @param random Uniformly random bits
+     */
+    public byte fillLetter(int before, int random) {
+        return fillLetters[before << FILL_BITS | random >>> (32 - FILL_BITS)];
+    }
+
+    /**
+     * Returns the cell value of the letter picked by 32 random bits
+     */
+    private byte pick(int before, int random) {
+        long scaled = (random & 0xFFFFFFFFL) * Board.LETTERS;
+        int column = (int) (scaled >>> 32); // The high half picks a column
+        int entry = before * Board.LETTERS + column;
+        // What is left over in the low half is just as random, and decides
+        // between the column's letter and its alias
+        return ((int) scaled >>> 1) < thresholds[entry] ? (byte) (column + 1) : aliases[entry];
+    }
+
+    /**
+     * Returns the chance that next() gives a letter after another, worked out
+     * from the tables
+     *
+     * @param before Cell value of the letter before, or BLANK for none
+     * @param letter Cell value of the letter
+     */
+    public double chance(int before, int letter) {
+        double chance = 0;
+        for (int column = 0; column < Board.LETTERS; column++) {
+            int entry = before * Board.LETTERS + column;
+            double keep = thresholds[entry] == Integer.MAX_VALUE ? 1 : (double) thresholds[entry] / ONE;
+            if (column + 1 == letter) {
+                chance += keep;
+            }
+            if (aliases[entry] == letter) {
+                chance += 1 - keep;
+            }
+        }
+        return chance / Board.LETTERS;
+    }
+}
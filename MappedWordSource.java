@@ -0,0 +1,159 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This is a WordSource read straight from a dictionary file written by
+ * DictionaryCompiler, so a dictionary of any size opens without parsing text or
+ * making a String for every word.
+ *
+ * <p>
+ * The file is memory-mapped and only its header and group table are read when
+ * it is opened. The letters of a word are read from the mapping, and turned
+ * into a String, only when the word is asked for. Words in a group all have the
+ * same length, so finding a word's letters is a search of the group table and
+ * a multiply, with no table of word offsets.
+ *
+ * <p>
+ * File layout, all numbers are big-endian ints unless noted:
+ *
+ * <pre>
+ * magic, version, word count, group count, category count
+ * for each category: name length (short), name (ASCII)
+ * for each group:    category, word length, first word, letter offset
+ * letters of every word, one after another (ASCII, no separators)
+ * </pre>
+ *
+ * A MappedWordSource is never changed after it is opened, so it can be shared
+ * between threads.
+ *
+ * The following files are also required to run:
+ *
+ * DictionaryCompiler.java WordSource.java
+ */
+
+public final class MappedWordSource implements WordSource {
+
+    static final int MAGIC = 0x57534431; // "WSD1"
+    static final int VERSION = 1;
+
+    private final MappedByteBuffer data;
+    private final int size; // Number of words
+    private final String[] categories; // Name of each category
+    private final int[] groupCategory;
+    private final int[] groupLength; // Length of every word in each group
+    private final int[] groupStart; // First word of each group, plus the total at the end
+    private final int[] groupOffset; // Position in data of the letters of each group's first word
+
+    private MappedWordSource(MappedByteBuffer data) throws IOException {
+        this.data = data;
+        try {
+            if (data.getInt() != MAGIC) {
+                throw new IOException("Not a dictionary file");
+            }
+            int version = data.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported dictionary version " + version);
+            }
+            size = data.getInt();
+            int groupCount = data.getInt();
+            categories = new String[data.getInt()];
+            for (int i = 0; i < categories.length; i++) {
+                byte[] name = new byte[data.getShort()];
+                data.get(name);
+                categories[i] = new String(name, StandardCharsets.US_ASCII);
+            }
+
+            groupCategory = new int[groupCount];
+            groupLength = new int[groupCount];
+            groupStart = new int[groupCount + 1];
+            groupOffset = new int[groupCount];
+            for (int i = 0; i < groupCount; i++) {
+                groupCategory[i] = data.getInt();
+                groupLength[i] = data.getInt();
+                groupStart[i] = data.getInt();
+                groupOffset[i] = data.getInt();
+            }
+            groupStart[groupCount] = size;
+            int letters = data.position();
+            for (int i = 0; i < groupCount; i++) {
+                groupOffset[i] += letters;
+            }
+            if (groupCount > 0 && groupOffset[groupCount - 1]
+                    + (long) groupLength[groupCount - 1] * getGroupSize(groupCount - 1) > data.limit()) {
+                throw new IOException("Dictionary file is truncated");
+            }
+        } catch (BufferUnderflowException | NegativeArraySizeException e) {
+            throw new IOException("Dictionary file is truncated", e);
+        }
+    }
+
+    /**
+     * Opens a dictionary file written by DictionaryCompiler
+     *
+     * @throws IOException If the file can't be read or is not a dictionary file
+     */
+    public static MappedWordSource open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new MappedWordSource(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String getWord(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        int group = getGroup(index);
+        int length = groupLength[group];
+        int offset = groupOffset[group] + (index - groupStart[group]) * length;
+        byte[] letters = new byte[length];
+        data.get(offset, letters); // Absolute read, so threads don't share a position
+        return new String(letters, StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public int getGroupCount() {
+        return groupLength.length;
+    }
+
+    @Override
+    public int getGroupStart(int group) {
+        return groupStart[group];
+    }
+
+    @Override
+    public int getGroupSize(int group) {
+        return groupStart[group + 1] - groupStart[group];
+    }
+
+    @Override
+    public int getGroupLength(int group) {
+        return groupLength[group];
+    }
+
+    @Override
+    public int getGroupCategory(int group) {
+        return groupCategory[group];
+    }
+
+    @Override
+    public int getCategoryCount() {
+        return categories.length;
+    }
+
+    @Override
+    public String getCategoryName(int category) {
+        return categories[category];
+    }
+}
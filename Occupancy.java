@@ -0,0 +1,139 @@
+import java.util.Arrays;
+
+/**
+ * This keeps track of which cells of a Word Search board hold a letter, as a
+ * bitset for every row, column and diagonal of the board.
+ *
+ * <p>
+ * Each line is stored as a run of longs with one bit per cell, so the cells a
+ * word would cover are always one run of bits in one line, whichever of the
+ * eight orientations it is written in. Checking that none of them are taken is
+ * a mask and a compare for every 64 cells, instead of reading the cells one at
+ * a time.
+ *
+ * The following files are also required to run:
+ *
+ * BoardGenerator.java Direction.java
+ */
+
+public final class Occupancy {
+
+    private static final int ROWS = 0;
+    private static final int COLUMNS = 1;
+    private static final int DIAGONALS = 2; // Lines running down and to the right
+    private static final int ANTI_DIAGONALS = 3; // Lines running down and to the left
+
+    private static final int[] FAMILY = { COLUMNS, ROWS, COLUMNS, ROWS, ANTI_DIAGONALS, DIAGONALS, ANTI_DIAGONALS,
+            DIAGONALS }; // Lines that each orientation runs along
+
+    private final int size; // Width and height of the board
+    private final int wordsPerLine; // Longs used to store each line
+    private final long[][] lines; // Bits of every line, for each family of lines
+
+    /**
+     * Creates an empty set of bitsets
+     *
+     * @param size Width and height of the board
+     */
+    public Occupancy(int size) {
+        this.size = size;
+        this.wordsPerLine = (size + 63) >>> 6;
+        int diagonals = Math.max(0, 2 * size - 1);
+        this.lines = new long[][] { new long[size * wordsPerLine], new long[size * wordsPerLine],
+                new long[diagonals * wordsPerLine], new long[diagonals * wordsPerLine] };
+    }
+
+    /**
+     * Marks a cell as holding a letter
+     */
+    public void set(int row, int col) {
+        for (int family = ROWS; family <= ANTI_DIAGONALS; family++) {
+            int bit = position(family, row, col);
+            lines[family][line(family, row, col) * wordsPerLine + (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Marks a cell as blank
+     */
+    public void clear(int row, int col) {
+        for (int family = ROWS; family <= ANTI_DIAGONALS; family++) {
+            int bit = position(family, row, col);
+            lines[family][line(family, row, col) * wordsPerLine + (bit >>> 6)] &= ~(1L << bit);
+        }
+    }
+
+    /**
+     * Marks every cell as blank
+     */
+    public void clearAll() {
+        for (long[] family : lines) {
+            Arrays.fill(family, 0);
+        }
+    }
+
+    /**
+     * Returns true if a cell holds a letter
+     */
+    public boolean isSet(int row, int col) {
+        return (lines[ROWS][row * wordsPerLine + (col >>> 6)] & (1L << col)) != 0;
+    }
+
+    /**
+     * Returns true if every cell a word would cover is blank
+     *
+     * @param orientation Orientation the word is written in
+     * @param row         Row of the first letter
+     * @param col         Column of the first letter
+     * @param length      Number of letters in the word
+     */
+    public boolean isClear(int orientation, int row, int col, int length) {
+        int family = FAMILY[orientation];
+        int endRow = row + Direction.ROW_STEP[orientation] * (length - 1);
+        int endCol = col + Direction.COL_STEP[orientation] * (length - 1);
+        int from = Math.min(position(family, row, col), position(family, endRow, endCol));
+        int to = Math.max(position(family, row, col), position(family, endRow, endCol));
+        long[] bits = lines[family];
+        int base = line(family, row, col) * wordsPerLine;
+
+        int first = from >>> 6;
+        int last = to >>> 6;
+        for (int word = first; word <= last; word++) {
+            long mask = -1L;
+            if (word == first) {
+                mask &= -1L << from; // Shifts only use the low 6 bits
+            }
+            if (word == last) {
+                mask &= -1L >>> (63 - (to & 63));
+            }
+            if ((bits[base + word] & mask) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns which line of a family a cell is on
+     */
+    private int line(int family, int row, int col) {
+        switch (family) {
+        case ROWS:
+            return row;
+        case COLUMNS:
+            return col;
+        case DIAGONALS:
+            return row - col + size - 1;
+        default:
+            return row + col;
+        }
+    }
+
+    /**
+     * Returns the bit for a cell within its line. Diagonals use the row, which
+     * leaves some bits unused but keeps every cell of a line in order.
+     */
+    private static int position(int family, int row, int col) {
+        return family == ROWS ? col : row;
+    }
+}
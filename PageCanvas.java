@@ -0,0 +1,73 @@
+/**
+ * This is a printed page that a PuzzlePage can be drawn on, so that the same
+ * layout can be written as SVG, PNG or PDF.
+ *
+ * <p>
+ * Positions and sizes are in points, 72 to the inch, measured from the top
+ * left corner of the page. All text is drawn in a fixed width font where each
+ * character is CHAR_WIDTH of the font size wide, so a layout can work out how
+ * much room text takes without knowing which format it is written in.
+ *
+ * The following files are also required to run:
+ *
+ * PdfBook.java PngCanvas.java PuzzlePage.java SvgCanvas.java
+ */
+
+public interface PageCanvas {
+
+    double CHAR_WIDTH = 0.6; // Width of each character of a fixed width font, as a share of the font size
+
+    /**
+     * Draws a line of text
+     *
+     * @param x       Left edge of the text, or its middle if centred
+     * @param y       Baseline of the text
+     * @param size    Font size
+     * @param bold    True for bold text
+     * @param centred True if x is the middle of the text
+     */
+    void text(double x, double y, double size, boolean bold, boolean centred, String text);
+
+    /**
+     * Draws a row of single characters at an even spacing, such as a row of a
+     * grid, as one piece of text where the format allows
+     *
+     * @param x     Middle of the first character
+     * @param y     Baseline of the text
+     * @param size  Font size
+     * @param pitch Distance from the middle of one character to the next
+     * @param text  Characters to draw
+     */
+    void row(double x, double y, double size, double pitch, String text);
+
+    /**
+     * Draws the outline of a rectangle
+     */
+    void rectangle(double x, double y, double width, double height, double lineWidth);
+
+    /**
+     * Draws a light grey line with rounded ends under the text, to mark a word
+     * on an answer key
+     */
+    void highlight(double x1, double y1, double x2, double y2, double width);
+
+    /**
+     * Appends a number of points rounded to two decimal places, which is as
+     * exact as any printer needs, without the cost of String.format()
+     */
+    static void appendNumber(StringBuilder out, double value) {
+        long hundredths = Math.round(value * 100);
+        if (hundredths < 0) {
+            out.append('-');
+            hundredths = -hundredths;
+        }
+        out.append(hundredths / 100);
+        int fraction = (int) (hundredths % 100);
+        if (fraction != 0) {
+            out.append('.').append(fraction / 10);
+            if (fraction % 10 != 0) {
+                out.append(fraction % 10);
+            }
+        }
+    }
+}
@@ -0,0 +1,261 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * This writes a PDF document one page at a time, so a book of any number of
+ * pages can be written while holding only the page being added.
+ *
+ * <p>
+ * Each page is drawn on a Page, which keeps the PDF drawing commands for it
+ * and compresses them when finished. Pages can be drawn on any thread, and the
+ * finished pages are then added to the book in order. The book writes every
+ * page as soon as it is added and only remembers where in the file each
+ * object starts. The tree of pages and the cross-reference table that points
+ * at every object are written last, when the book is closed.
+ *
+ * <p>
+ * Text uses the Courier fonts that every PDF reader has built in, so no fonts
+ * are embedded and every character is exactly PageCanvas.CHAR_WIDTH wide.
+ *
+ * The following files are also required to run:
+ *
+ * PageCanvas.java
+ */
+
+public final class PdfBook implements AutoCloseable {
+
+    static final int CATALOG = 1; // Object numbers of the objects every book has
+    static final int PAGES = 2;
+    static final int PLAIN_FONT = 3;
+    static final int BOLD_FONT = 4;
+
+    private final OutputStream out;
+    private final double width;
+    private final double height;
+    private long written; // Bytes written so far, which is where the next object starts
+    private long[] offsets = new long[1024]; // Where each object starts, by object number
+    private int lastObject = BOLD_FONT;
+    private int[] pages = new int[1024]; // Object number of each page
+    private int pageCount;
+
+    /**
+     * Starts a book. The stream is closed when the book is.
+     *
+     * @param width  Width of every page in points
+     * @param height Height of every page in points
+     */
+    public PdfBook(OutputStream out, double width, double height) throws IOException {
+        this.out = out;
+        this.width = width;
+        this.height = height;
+        write("%PDF-1.4\n%\u00e2\u00e3\u00cf\u00d3\n"); // Bytes over 127 mark the file as binary
+        startObject(PLAIN_FONT);
+        write("<< /Type /Font /Subtype /Type1 /BaseFont /Courier /Encoding /WinAnsiEncoding >>\nendobj\n");
+        startObject(BOLD_FONT);
+        write("<< /Type /Font /Subtype /Type1 /BaseFont /Courier-Bold /Encoding /WinAnsiEncoding >>\nendobj\n");
+    }
+
+    /**
+     * Adds a page to the end of the book
+     *
+     * @param content Finished content of the page, from Page.finish()
+     */
+    public void addPage(byte[] content) throws IOException {
+        int stream = ++lastObject;
+        startObject(stream);
+        write("<< /Length " + content.length + " /Filter /FlateDecode >>\nstream\n");
+        out.write(content);
+        written += content.length;
+        write("\nendstream\nendobj\n");
+
+        int page = ++lastObject;
+        startObject(page);
+        StringBuilder object = new StringBuilder(256);
+        object.append("<< /Type /Page /Parent ").append(PAGES).append(" 0 R /MediaBox [0 0 ");
+        PageCanvas.appendNumber(object, width);
+        object.append(' ');
+        PageCanvas.appendNumber(object, height);
+        object.append("] /Resources << /Font << /F1 ").append(PLAIN_FONT).append(" 0 R /F2 ").append(BOLD_FONT)
+                .append(" 0 R >> >> /Contents ").append(stream).append(" 0 R >>\nendobj\n");
+        write(object.toString());
+        if (pageCount == pages.length) {
+            pages = Arrays.copyOf(pages, pageCount * 2);
+        }
+        pages[pageCount++] = page;
+    }
+
+    /**
+     * Returns how many pages have been added
+     */
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    /**
+     * Writes the tree of pages, the catalog and the cross-reference table, then
+     * closes the stream
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            startObject(PAGES);
+            StringBuilder kids = new StringBuilder(pageCount * 10 + 64);
+            kids.append("<< /Type /Pages /Count ").append(pageCount).append(" /Kids [");
+            for (int i = 0; i < pageCount; i++) {
+                kids.append(i > 0 ? " " : "").append(pages[i]).append(" 0 R");
+            }
+            kids.append("] >>\nendobj\n");
+            write(kids.toString());
+            startObject(CATALOG);
+            write("<< /Type /Catalog /Pages " + PAGES + " 0 R >>\nendobj\n");
+
+            long xref = written;
+            StringBuilder table = new StringBuilder((lastObject + 1) * 20 + 128);
+            table.append("xref\n0 ").append(lastObject + 1).append("\n0000000000 65535 f \n");
+            for (int i = 1; i <= lastObject; i++) {
+                String offset = Long.toString(offsets[i]);
+                for (int pad = offset.length(); pad < 10; pad++) {
+                    table.append('0');
+                }
+                table.append(offset).append(" 00000 n \n");
+            }
+            table.append("trailer\n<< /Size ").append(lastObject + 1).append(" /Root ").append(CATALOG)
+                    .append(" 0 R >>\nstartxref\n").append(xref).append("\n%%EOF\n");
+            write(table.toString());
+        } finally {
+            out.close();
+        }
+    }
+
+    private void startObject(int number) throws IOException {
+        if (number >= offsets.length) {
+            offsets = Arrays.copyOf(offsets, Math.max(number + 1, offsets.length * 2));
+        }
+        offsets[number] = written;
+        write(number + " 0 obj\n");
+    }
+
+    /**
+     * Writes text that is all single byte characters
+     */
+    private void write(String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+        out.write(bytes);
+        written += bytes.length;
+    }
+
+    /**
+     * This is one page of a PdfBook being drawn. PDF measures from the bottom
+     * of the page, so every height is turned over as it is drawn.
+     */
+    public static final class Page implements PageCanvas {
+
+        private final double height;
+        private final StringBuilder content = new StringBuilder(8192); // PDF drawing commands
+
+        /**
+         * @param height Height of the page in points
+         */
+        public Page(double height) {
+            this.height = height;
+        }
+
+        @Override
+        public void text(double x, double y, double size, boolean bold, boolean centred, String text) {
+            if (centred) {
+                x -= text.length() * CHAR_WIDTH * size / 2;
+            }
+            content.append("BT /").append(bold ? "F2 " : "F1 ");
+            number(size);
+            content.append("Tf ");
+            number(x);
+            number(height - y);
+            content.append("Td ");
+            string(text);
+            content.append("Tj ET\n");
+        }
+
+        @Override
+        public void row(double x, double y, double size, double pitch, String text) {
+            // Spacing added after every character makes each one pitch wide
+            content.append("BT /F1 ");
+            number(size);
+            content.append("Tf ");
+            number(pitch - CHAR_WIDTH * size);
+            content.append("Tc ");
+            number(x - CHAR_WIDTH * size / 2);
+            number(height - y);
+            content.append("Td ");
+            string(text);
+            content.append("Tj 0 Tc ET\n"); // Spacing lasts past ET, so is put back
+        }
+
+        @Override
+        public void rectangle(double x, double y, double width, double height, double lineWidth) {
+            number(lineWidth);
+            content.append("w ");
+            number(x);
+            number(this.height - y - height);
+            number(width);
+            number(height);
+            content.append("re S\n");
+        }
+
+        @Override
+        public void highlight(double x1, double y1, double x2, double y2, double width) {
+            content.append("q 0.82 G 1 J ");
+            number(width);
+            content.append("w ");
+            number(x1);
+            number(height - y1);
+            content.append("m ");
+            number(x2);
+            number(height - y2);
+            content.append("l S Q\n");
+        }
+
+        /**
+         * Ends the page and returns its drawing commands compressed, ready for
+         * PdfBook.addPage()
+         */
+        public byte[] finish() {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            deflater.setInput(content.toString().getBytes(StandardCharsets.ISO_8859_1));
+            deflater.finish();
+            byte[] buffer = new byte[Math.max(1024, content.length() / 2)];
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+            deflater.end();
+            return Arrays.copyOf(buffer, length);
+        }
+
+        private void number(double value) {
+            PageCanvas.appendNumber(content, value);
+            content.append(' ');
+        }
+
+        /**
+         * Appends text as a PDF string, escaping the characters that end or
+         * escape one
+         */
+        private void string(String text) {
+            content.append('(');
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '(' || c == ')' || c == '\\') {
+                    content.append('\\');
+                }
+                content.append(c);
+            }
+            content.append(')');
+        }
+    }
+}
@@ -0,0 +1,104 @@
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Line2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import javax.imageio.ImageIO;
+
+/**
+ * This draws a printed page into a greyscale image, to be saved as a PNG.
+ *
+ * <p>
+ * Drawing uses Java 2D rather than JavaFX, so it works with no display
+ * attached. Run with -Djava.awt.headless=true on a machine with no display at
+ * all. Every canvas has its own image, so pages can be drawn on many threads
+ * at once.
+ *
+ * The following files are also required to run:
+ *
+ * PageCanvas.java
+ */
+
+public final class PngCanvas implements PageCanvas {
+
+    static final Color HIGHLIGHT = new Color(0xd0d0d0);
+    static final Font PLAIN = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+    static final Font BOLD = new Font(Font.MONOSPACED, Font.BOLD, 12);
+
+    private final BufferedImage image;
+    private final Graphics2D graphics;
+
+    /**
+     * @param width  Width of the page in points
+     * @param height Height of the page in points
+     * @param dpi    Pixels to the inch
+     */
+    public PngCanvas(double width, double height, int dpi) {
+        double scale = dpi / 72.0;
+        image = new BufferedImage((int) Math.ceil(width * scale), (int) Math.ceil(height * scale),
+                BufferedImage.TYPE_BYTE_GRAY);
+        graphics = image.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+        graphics.scale(scale, scale);
+        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        graphics.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+        graphics.setColor(Color.BLACK);
+    }
+
+    @Override
+    public void text(double x, double y, double size, boolean bold, boolean centred, String text) {
+        graphics.setFont((bold ? BOLD : PLAIN).deriveFont((float) size));
+        if (centred) {
+            x -= graphics.getFontMetrics().getStringBounds(text, graphics).getWidth() / 2;
+        }
+        graphics.drawString(text, (float) x, (float) y);
+    }
+
+    @Override
+    public void row(double x, double y, double size, double pitch, String text) {
+        graphics.setFont(PLAIN.deriveFont((float) size));
+        FontMetrics metrics = graphics.getFontMetrics();
+        for (int i = 0; i < text.length(); i++) {
+            String letter = text.substring(i, i + 1);
+            double width = metrics.getStringBounds(letter, graphics).getWidth();
+            graphics.drawString(letter, (float) (x + i * pitch - width / 2), (float) y);
+        }
+    }
+
+    @Override
+    public void rectangle(double x, double y, double width, double height, double lineWidth) {
+        graphics.setStroke(new BasicStroke((float) lineWidth));
+        graphics.draw(new Rectangle2D.Double(x, y, width, height));
+    }
+
+    @Override
+    public void highlight(double x1, double y1, double x2, double y2, double width) {
+        graphics.setColor(HIGHLIGHT);
+        graphics.setStroke(new BasicStroke((float) width, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+        graphics.draw(new Line2D.Double(x1, y1, x2, y2));
+        graphics.setColor(Color.BLACK);
+    }
+
+    /**
+     * Ends the page and returns it encoded as a PNG
+     */
+    public byte[] finish() {
+        graphics.dispose();
+        ByteArrayOutputStream png = new ByteArrayOutputStream(1 << 16);
+        try {
+            ImageIO.write(image, "png", png);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Can't happen writing to memory
+        }
+        return png.toByteArray();
+    }
+}
@@ -0,0 +1,197 @@
+import java.util.SplittableRandom;
+
+/**
+ * This is a finished Word Search puzzle: the filled board, the hidden words and
+ * where each one was placed, and the profile and seed it was generated from.
+ *
+ * <p>
+ * A Puzzle is never changed after it is generated, so one instance can be
+ * shared by every player of the same board, each with their own GameSession.
+ * The board and word index are handed out without copying, and must not be
+ * changed by callers either.
+ *
+ * <p>
+ * Words are numbered by their position in the word list. The same number is
+ * used for the word's placement and its id in the word index.
+ *
+ * The following files are also required to run:
+ *
+ * Board.java BoardFiller.java BoardGenerator.java DensePacker.java Difficulty.java DifficultyProfile.java
+ * GameMetrics.java GameSession.java LetterModel.java WordPlacement.java WordSampler.java WordSource.java
+ * WordTrie.java
+ */
+
+public final class Puzzle {
+
+    static final int MAX_GENERATION_ATTEMPTS = 10; // Boards tried before giving up
+    // Raised whenever a change to generation makes a seed give a different
+    // board, and stored next to seeds so an old seed isn't taken for a new board
+    static final int GENERATOR_VERSION = 3;
+
+    private final DifficultyProfile profile; // Size, words and directions the board was generated with
+    private final long seed; // Seed that the whole board is generated from
+    private final Board board;
+    private final String[] words; // Hidden words, in the order they were drawn
+    private final WordPlacement[] placements; // Where each word was placed
+    private final WordTrie index; // Same words, for following a selection one letter at a time
+
+    /**
+     * Creates a puzzle from a board that has already been filled, such as one
+     * read from a PuzzleArchive
+     */
+    Puzzle(DifficultyProfile profile, long seed, Board board, String[] words, WordPlacement[] placements) {
+        this.profile = profile;
+        this.seed = seed;
+        this.board = board;
+        this.words = words;
+        this.placements = placements;
+        this.index = WordTrie.of(words); // Words are distinct, so each id is the word's position
+    }
+
+    /**
+     * Generates a puzzle from a profile. A dense profile hides only the words it
+     * took to cover the board, so the puzzle may have fewer words than the
+     * profile. The same profile, seed and words always give the same puzzle
+     * from the same GENERATOR_VERSION, however busy the machine is, as every
+     * budget is counted in attempts rather than time. A puzzle can be stored as
+     * just these values and rebuilt when needed.
+     *
+     * @param profile    Size, words and directions of the board
+     * @param seed       Seed for every random choice made while generating
+     * @param wordSource Words that can be hidden
+     *
+     * @throws IllegalArgumentException If wordSource doesn't have enough words
+     *                                  that fit the profile
+     * @throws IllegalStateException    If the words could not be placed
+     */
+    public static Puzzle generate(DifficultyProfile profile, long seed, WordSource wordSource) {
+        long start = System.nanoTime();
+        SplittableRandom rand = new SplittableRandom(seed);
+        int boardSize = profile.getBoardSize();
+        int wordCount = profile.getWordCount();
+        BoardGenerator generator = new BoardGenerator(boardSize, profile.getDirections(), profile.getOverlapRate(),
+                BoardGenerator.DEFAULT_MAX_ATTEMPTS);
+        DensePacker packer = profile.isDense() ? new DensePacker(profile) : null;
+        BoardFiller filler = new BoardFiller(LetterModel.of(wordSource)); // Filler looks like the words
+        long slotsTried = 0; // Counted for GameMetrics, over every board tried
+        long wordsPlaced = 0;
+        long rerolls = 0;
+        for (int attempt = 0; attempt < MAX_GENERATION_ATTEMPTS; attempt++) {
+            String[] words = drawWords(profile, wordSource, rand);
+            Board board = new Board(boardSize);
+            WordPlacement[] placements;
+            if (packer != null) { // Places as many words as it takes to cover the board
+                placements = packer.pack(board, words, profile.getDensity(), rand);
+                slotsTried += packer.getAttempts();
+                words = wordsOf(placements);
+            } else { // Places every word
+                placements = generator.populate(board, words, rand);
+                slotsTried += generator.getAttempts();
+            }
+            if (placements != null) {
+                wordsPlaced += placements.length;
+                boolean filled = filler.fill(board, placements, rand); // Then fills the rest
+                rerolls += filler.getRerolls();
+                if (filled) {
+                    GameMetrics.get().recordGeneration(System.nanoTime() - start, slotsTried, wordsPlaced, rerolls,
+                            true);
+                    return new Puzzle(profile, seed, board, words, placements);
+                }
+            }
+        }
+        GameMetrics.get().recordGeneration(System.nanoTime() - start, slotsTried, wordsPlaced, rerolls, false);
+        throw new IllegalStateException("Unable to generate a " + boardSize + "x" + boardSize + " board with "
+                + wordCount + " words that each appear once");
+    }
+
+    /**
+     * Draws random words from a word source. Only words in the profile's length
+     * range that fit on the board are drawn, and never two where one is inside
+     * the other, as the shorter would be found twice.
+     */
+    private static String[] drawWords(DifficultyProfile profile, WordSource wordSource, SplittableRandom rand) {
+        int[] picked = new WordSampler(wordSource).sampleUnnested(profile.getWordCount(), profile.getMinLength(),
+                Math.min(profile.getMaxLength(), profile.getBoardSize()), null, rand);
+        String[] words = new String[picked.length];
+        for (int i = 0; i < picked.length; i++) {
+            words[i] = wordSource.getWord(picked[i]);
+        }
+        return words;
+    }
+
+    /**
+     * Returns the word of each placement
+     */
+    private static String[] wordsOf(WordPlacement[] placements) {
+        String[] words = new String[placements.length];
+        for (int i = 0; i < placements.length; i++) {
+            words[i] = placements[i].getWord();
+        }
+        return words;
+    }
+
+    /**
+     * Returns the profile the puzzle was generated from
+     */
+    public DifficultyProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Returns the difficulty the puzzle was generated for, or null if it was
+     * generated from some other profile
+     */
+    public Difficulty getDifficulty() {
+        return Difficulty.of(profile);
+    }
+
+    /**
+     * Returns the seed the puzzle was generated from
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the width and height of the board
+     */
+    public int getBoardSize() {
+        return board.getSize();
+    }
+
+    /**
+     * Returns the board, which must not be changed
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Returns how many words are hidden
+     */
+    public int getWordCount() {
+        return words.length;
+    }
+
+    /**
+     * Returns the hidden word with a given number
+     */
+    public String getWord(int word) {
+        return words[word];
+    }
+
+    /**
+     * Returns where the word with a given number was placed
+     */
+    public WordPlacement getPlacement(int word) {
+        return placements[word];
+    }
+
+    /**
+     * Returns the trie of hidden words, which must not be changed. The id of each
+     * word is its number.
+     */
+    WordTrie getIndex() {
+        return index;
+    }
+}
@@ -0,0 +1,407 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This is a file of Word Search puzzles, and optionally the progress made in
+ * each, stored compactly enough to hold millions of puzzles.
+ *
+ * <p>
+ * Each cell of a board takes 5 bits, as a cell is blank or one of 26 letters.
+ * Every puzzle is one record, and a table at the end of the file gives where
+ * each record starts, so any puzzle can be read by its number without reading
+ * the others. The file is memory-mapped when opened, and only the header is
+ * read until a puzzle is asked for.
+ *
+ * <p>
+ * A mapping can be at most 2GB, so larger files are mapped as several segments.
+ * The Writer never lets a record cross from one segment into the next, padding
+ * to the next segment instead, so each record can be read from a single
+ * mapping.
+ *
+ * <p>
+ * File layout, all numbers are big-endian:
+ *
+ * <pre>
+ * magic (int), version (int), segment bits (int), puzzle count (int), index offset (long)
+ * for each puzzle:
+ *   profile length (short), profile (ASCII, as given by DifficultyProfile.toString())
+ *   seed (long), board size (int), word count (int)
+ *   cells, 5 bits each, row by row, high bits first, padded to a whole byte
+ *   for each word: length (short), letters (ASCII), row (int), column (int), orientation (byte)
+ *   flags (byte), then if bit 0 is set: found bits (a long per 64 words), cursor row (int), cursor column (int)
+ * at the index offset, for each puzzle: record offset (long)
+ * </pre>
+ *
+ * The header is written last, so a file whose Writer was never closed is not
+ * mistaken for an archive. A PuzzleArchive is never changed after it is
+ * opened, so it can be shared between threads.
+ *
+ * The following files are also required to run:
+ *
+ * Board.java Difficulty.java DifficultyProfile.java Puzzle.java SavedGame.java WordPlacement.java
+ */
+
+public final class PuzzleArchive {
+
+    static final int MAGIC = 0x57534131; // "WSA1"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 24;
+    static final int DEFAULT_SEGMENT_BITS = 30; // Each mapped segment is 1GB
+    static final int CELL_BITS = 5; // Enough for blank and 26 letters
+    static final int HAS_PROGRESS = 1; // Flag set when found words and the cursor are stored
+
+    private final MappedByteBuffer[] segments; // Whole file, one mapping per segment
+    private final LongBuffer index; // Start of each record
+    private final int segmentBits;
+    private final Map<String, DifficultyProfile> profiles = new ConcurrentHashMap<>(); // Parsed once per archive
+
+    private PuzzleArchive(FileChannel channel) throws IOException {
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        if (size < HEADER_SIZE || channel.read(header, 0) < HEADER_SIZE) {
+            throw new IOException("Archive is truncated");
+        }
+        header.flip();
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not a puzzle archive");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported archive version " + version);
+        }
+        segmentBits = header.getInt();
+        int count = header.getInt();
+        long indexOffset = header.getLong();
+        if (segmentBits < 8 || segmentBits > 30 || count < 0 || indexOffset < HEADER_SIZE
+                || indexOffset + 8L * count != size) {
+            throw new IOException("Archive header is damaged");
+        }
+        index = channel.map(FileChannel.MapMode.READ_ONLY, indexOffset, 8L * count).asLongBuffer();
+        segments = new MappedByteBuffer[(int) ((indexOffset + (1L << segmentBits) - 1) >>> segmentBits)];
+        for (int i = 0; i < segments.length; i++) {
+            long start = (long) i << segmentBits;
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                    Math.min(indexOffset - start, 1L << segmentBits));
+        }
+    }
+
+    /**
+     * Opens an archive written by a Writer
+     *
+     * @throws IOException If the file can't be read or is not an archive
+     */
+    public static PuzzleArchive open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new PuzzleArchive(channel); // The mappings stay valid after the channel is closed
+        }
+    }
+
+    /**
+     * Creates an archive, replacing any file already there. Nothing can be read
+     * from it until the Writer is closed.
+     */
+    public static Writer create(Path file) throws IOException {
+        return new Writer(file, DEFAULT_SEGMENT_BITS);
+    }
+
+    /**
+     * Returns how many puzzles are in the archive
+     */
+    public int size() {
+        return index.limit();
+    }
+
+    /**
+     * Reads the puzzle with a given number, without any progress made in it
+     *
+     * @throws IOException If the record is damaged
+     */
+    public Puzzle getPuzzle(int id) throws IOException {
+        return read(id).getPuzzle();
+    }
+
+    /**
+     * Reads the puzzle with a given number, and the progress made in it. A
+     * puzzle saved without progress has nothing found and the cursor in the top
+     * left corner.
+     *
+     * @throws IOException If the record is damaged
+     */
+    public SavedGame getGame(int id) throws IOException {
+        return read(id);
+    }
+
+    /**
+     * Reads and checks one record
+     */
+    private SavedGame read(int id) throws IOException {
+        long offset = index.get(id); // Absolute read, so threads don't share a position
+        ByteBuffer data = segments[(int) (offset >>> segmentBits)].duplicate();
+        data.position((int) (offset & ((1L << segmentBits) - 1)));
+        try {
+            byte[] text = new byte[data.getShort()];
+            data.get(text);
+            DifficultyProfile profile = profileOf(new String(text, StandardCharsets.US_ASCII));
+            long seed = data.getLong();
+            int size = data.getInt();
+            int wordCount = data.getInt();
+            if (size != profile.getBoardSize() || wordCount < 0) {
+                throw new IOException("Puzzle " + id + " doesn't match its profile");
+            }
+            Board board = readCells(data, size);
+            String[] words = new String[wordCount];
+            WordPlacement[] placements = new WordPlacement[wordCount];
+            for (int i = 0; i < wordCount; i++) {
+                byte[] letters = new byte[data.getShort()];
+                data.get(letters);
+                words[i] = new String(letters, StandardCharsets.US_ASCII);
+                placements[i] = new WordPlacement(words[i], data.getInt(), data.getInt(), data.get());
+            }
+            Puzzle puzzle = new Puzzle(profile, seed, board, words, placements);
+            long[] found = new long[(wordCount + 63) >>> 6];
+            int row = 0;
+            int col = 0;
+            if ((data.get() & HAS_PROGRESS) != 0) {
+                for (int i = 0; i < found.length; i++) {
+                    found[i] = data.getLong();
+                }
+                row = data.getInt();
+                col = data.getInt();
+            }
+            return new SavedGame(puzzle, found, row, col);
+        } catch (BufferUnderflowException | NegativeArraySizeException | IllegalArgumentException e) {
+            throw new IOException("Puzzle " + id + " is damaged", e);
+        }
+    }
+
+    /**
+     * Returns the profile written as some text, parsing each text only once
+     */
+    private DifficultyProfile profileOf(String text) {
+        return profiles.computeIfAbsent(text, DifficultyProfile::parse);
+    }
+
+    /**
+     * Reads a board of 5 bit cells
+     */
+    private static Board readCells(ByteBuffer data, int size) throws IOException {
+        Board board = new Board(size);
+        int cells = size * size;
+        long bits = 0; // Bits read but not yet used, lowest CELL_BITS bits last
+        int held = 0;
+        for (int i = 0; i < cells; i++) {
+            if (held < CELL_BITS) {
+                bits = bits << 8 | (data.get() & 0xFF);
+                held += 8;
+            }
+            held -= CELL_BITS;
+            int code = (int) (bits >>> held) & ((1 << CELL_BITS) - 1);
+            if (code > Board.LETTERS) {
+                throw new IOException("Cell " + i + " is not a letter");
+            }
+            board.setCode(i, (byte) code);
+        }
+        return board;
+    }
+
+    /**
+     * Writes puzzles to a new archive, one after another. Each puzzle's number is
+     * the order it was added, from 0.
+     */
+    public static final class Writer implements AutoCloseable {
+
+        private final FileChannel channel;
+        private final int segmentBits;
+        private ByteBuffer record = ByteBuffer.allocate(1 << 12); // Reused for every record
+        // Written so far but not yet sent, ends at position
+        private final ByteBuffer pending = ByteBuffer.allocate(1 << 16);
+        private long[] offsets = new long[1024]; // Start of every record written so far
+        private int count;
+        private long position = HEADER_SIZE; // Where the next record goes
+
+        Writer(Path file, int segmentBits) throws IOException {
+            this.segmentBits = segmentBits;
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            channel.write(ByteBuffer.allocate(HEADER_SIZE), 0); // Left blank until close()
+        }
+
+        /**
+         * Adds a puzzle without any progress
+         *
+         * @return The puzzle's number in the archive
+         */
+        public int add(Puzzle puzzle) throws IOException {
+            return write(puzzle, null, 0, 0);
+        }
+
+        /**
+         * Adds a puzzle with the words found so far and where the selection
+         * square is
+         *
+         * @param foundBits Found words, as given by GameSession.getFoundBits()
+         * @return The puzzle's number in the archive
+         */
+        public int add(Puzzle puzzle, long[] foundBits, int cursorRow, int cursorCol) throws IOException {
+            if (foundBits.length != (puzzle.getWordCount() + 63) >>> 6) {
+                throw new IllegalArgumentException("Found words don't match a puzzle of " + puzzle.getWordCount()
+                        + " words");
+            }
+            return write(puzzle, foundBits, cursorRow, cursorCol);
+        }
+
+        /**
+         * Writes every puzzle's offset and the header. The archive can be opened
+         * once this returns.
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                for (int i = 0; i < count; i++) {
+                    if (pending.remaining() < 8) {
+                        flush();
+                    }
+                    pending.putLong(offsets[i]);
+                    position += 8;
+                }
+                flush();
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putInt(VERSION).putInt(segmentBits).putInt(count)
+                        .putLong(position - 8L * count);
+                header.flip();
+                channel.write(header, 0);
+            } finally {
+                channel.close();
+            }
+        }
+
+        /**
+         * Encodes one record, then writes it where it fits in a single segment
+         */
+        private int write(Puzzle puzzle, long[] foundBits, int cursorRow, int cursorCol) throws IOException {
+            if (count == Integer.MAX_VALUE) {
+                throw new IllegalStateException("Archive is full");
+            }
+            record.clear();
+            byte[] profile = puzzle.getProfile().toString().getBytes(StandardCharsets.US_ASCII);
+            int size = puzzle.getBoardSize();
+            int wordCount = puzzle.getWordCount();
+            ensureRoom(2 + profile.length + 16 + ((long) size * size * CELL_BITS + 7) / 8);
+            record.putShort((short) profile.length).put(profile);
+            record.putLong(puzzle.getSeed()).putInt(size).putInt(wordCount);
+            writeCells(puzzle.getBoard());
+            for (int i = 0; i < wordCount; i++) {
+                WordPlacement placement = puzzle.getPlacement(i);
+                String word = placement.getWord();
+                if (word.length() > Short.MAX_VALUE) {
+                    throw new IllegalArgumentException("Word is too long to archive: " + word.length() + " letters");
+                }
+                ensureRoom(2 + word.length() + 9);
+                record.putShort((short) word.length()).put(word.getBytes(StandardCharsets.US_ASCII));
+                record.putInt(placement.getRow()).putInt(placement.getCol()).put((byte) placement.getOrientation());
+            }
+            ensureRoom(1 + 8L * ((wordCount + 63) >>> 6) + 8);
+            if (foundBits == null) {
+                record.put((byte) 0);
+            } else {
+                record.put((byte) HAS_PROGRESS);
+                for (long bits : foundBits) {
+                    record.putLong(bits);
+                }
+                record.putInt(cursorRow).putInt(cursorCol);
+            }
+            record.flip();
+
+            long segment = 1L << segmentBits;
+            if (record.limit() > segment) {
+                throw new IllegalArgumentException("Puzzle is too large to archive: " + record.limit() + " bytes");
+            }
+            if ((position & (segment - 1)) + record.limit() > segment) {
+                flush();
+                position = (position | (segment - 1)) + 1; // Skips to the next segment, leaving a gap of zeros
+            }
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            offsets[count] = position;
+            append(record);
+            return count++;
+        }
+
+        /**
+         * Packs the board's cells 5 bits each
+         */
+        private void writeCells(Board board) {
+            int cells = board.getSize() * board.getSize();
+            long bits = 0; // Bits not yet written, lowest held bits last
+            int held = 0;
+            for (int i = 0; i < cells; i++) {
+                bits = bits << CELL_BITS | board.getCode(i);
+                held += CELL_BITS;
+                if (held >= 8) {
+                    held -= 8;
+                    record.put((byte) (bits >>> held));
+                }
+            }
+            if (held > 0) {
+                record.put((byte) (bits << (8 - held)));
+            }
+        }
+
+        /**
+         * Grows the record buffer so that a number of bytes more fit
+         */
+        private void ensureRoom(long bytes) {
+            if (record.remaining() < bytes) {
+                if (record.position() + bytes > Integer.MAX_VALUE - 8) {
+                    throw new IllegalArgumentException("Puzzle is too large to archive");
+                }
+                int capacity = (int) Math.max(record.capacity() * 2L, record.position() + bytes);
+                ByteBuffer bigger = ByteBuffer.allocate(capacity);
+                record.flip();
+                bigger.put(record);
+                record = bigger;
+            }
+        }
+
+        /**
+         * Adds what is left in a buffer after everything written so far. Small
+         * records are gathered up and written together.
+         */
+        private void append(ByteBuffer buffer) throws IOException {
+            if (buffer.remaining() > pending.remaining()) {
+                flush();
+            }
+            if (buffer.remaining() > pending.capacity()) {
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+            } else {
+                position += buffer.remaining();
+                pending.put(buffer);
+            }
+        }
+
+        /**
+         * Writes the records gathered up by append()
+         */
+        private void flush() throws IOException {
+            pending.flip();
+            long at = position - pending.remaining();
+            while (pending.hasRemaining()) {
+                at += channel.write(pending, at);
+            }
+            pending.clear();
+        }
+    }
+}
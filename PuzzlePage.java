@@ -0,0 +1,177 @@
+import java.util.Arrays;
+
+/**
+ * This lays out a Word Search puzzle as a printed page: a title, the grid of
+ * letters, and the words to find in columns underneath. An answer key page
+ * has the same title and grid, with every word marked.
+ *
+ * <p>
+ * The grid is made as large as the page allows, up to GRID_SHARE of its
+ * height when there is a word list, and the word list then shrinks its font
+ * until every word fits in the space left. Words that still don't fit at
+ * MIN_WORD_SIZE are counted at the bottom instead of being written.
+ *
+ * The following files are also required to run:
+ *
+ * Board.java PageCanvas.java Puzzle.java WordPlacement.java
+ */
+
+public final class PuzzlePage {
+
+    static final double MARGIN = 36; // Half an inch on every side
+    static final double TITLE_SIZE = 16;
+    static final double DETAIL_SIZE = 10; // Size of the difficulty written across from the title
+    static final double GRID_SHARE = 0.68; // Most of the height below the title the grid takes above a word list
+    static final double MAX_LETTER_SIZE = 20;
+    static final double LETTER_SHARE = 0.7; // Font size of grid letters as a share of the cell size
+    static final double MAX_WORD_SIZE = 12;
+    static final double MIN_WORD_SIZE = 5;
+    static final double LINE_SPACING = 1.35; // Height of each line of the word list as a multiple of its font size
+
+    /**
+     * Sizes of paper that pages can be laid out on, in points
+     */
+    enum Paper {
+        A4(595.28, 841.89), LETTER(612, 792);
+
+        private final double width;
+        private final double height;
+
+        Paper(double width, double height) {
+            this.width = width;
+            this.height = height;
+        }
+
+        public double getWidth() {
+            return width;
+        }
+
+        public double getHeight() {
+            return height;
+        }
+    }
+
+    private PuzzlePage() {
+    }
+
+    /**
+     * Draws a puzzle and its word list
+     *
+     * @param title Written at the top of the page, such as the puzzle's number
+     */
+    public static void drawPuzzle(PageCanvas canvas, Paper paper, Puzzle puzzle, String title) {
+        double top = drawTitle(canvas, paper, puzzle, title);
+        double space = paper.getHeight() - MARGIN - top;
+        double side = gridSide(paper, puzzle, space * GRID_SHARE);
+        drawGrid(canvas, paper, puzzle, top, side, false);
+        drawWordList(canvas, paper, puzzle, top + side + TITLE_SIZE, paper.getHeight() - MARGIN);
+    }
+
+    /**
+     * Draws the answer key of a puzzle, with every hidden word marked
+     */
+    public static void drawAnswers(PageCanvas canvas, Paper paper, Puzzle puzzle, String title) {
+        double top = drawTitle(canvas, paper, puzzle, title);
+        drawGrid(canvas, paper, puzzle, top, gridSide(paper, puzzle, paper.getHeight() - MARGIN - top), true);
+    }
+
+    /**
+     * Draws the title on the left and the puzzle's difficulty and size on the
+     * right
+     *
+     * @return Where the rest of the page starts
+     */
+    private static double drawTitle(PageCanvas canvas, Paper paper, Puzzle puzzle, String title) {
+        double baseline = MARGIN + TITLE_SIZE;
+        canvas.text(MARGIN, baseline, TITLE_SIZE, true, false, title);
+        String detail = puzzle.getProfile().getName() + "  " + puzzle.getBoardSize() + "x" + puzzle.getBoardSize();
+        canvas.text(paper.getWidth() - MARGIN - detail.length() * PageCanvas.CHAR_WIDTH * DETAIL_SIZE, baseline,
+                DETAIL_SIZE, false, false, detail);
+        return baseline + TITLE_SIZE;
+    }
+
+    /**
+     * Returns the width and height of the grid, as a whole number of cells
+     * where possible
+     */
+    private static double gridSide(Paper paper, Puzzle puzzle, double height) {
+        double side = Math.min(paper.getWidth() - 2 * MARGIN, height);
+        int size = puzzle.getBoardSize();
+        return side >= size ? Math.floor(side / size) * size : side; // Whole points keep the letters lined up
+    }
+
+    /**
+     * Draws the grid of letters centred across the page, with each word marked
+     * under its letters on an answer key
+     */
+    private static void drawGrid(PageCanvas canvas, Paper paper, Puzzle puzzle, double top, double side,
+            boolean answers) {
+        Board board = puzzle.getBoard();
+        int size = board.getSize();
+        double cell = side / size;
+        double left = (paper.getWidth() - side) / 2;
+        if (answers) { // Before the letters, so they are drawn on top
+            for (int word = 0; word < puzzle.getWordCount(); word++) {
+                WordPlacement placement = puzzle.getPlacement(word);
+                canvas.highlight(left + (placement.getCol() + 0.5) * cell, top + (placement.getRow() + 0.5) * cell,
+                        left + (placement.getEndCol() + 0.5) * cell, top + (placement.getEndRow() + 0.5) * cell,
+                        cell * 0.8);
+            }
+        }
+        double letterSize = Math.min(MAX_LETTER_SIZE, cell * LETTER_SHARE);
+        char[] row = new char[size];
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                row[c] = board.getChar(r, c);
+            }
+            // The middle of a capital letter sits about a third of its size above
+            // the baseline
+            canvas.row(left + cell / 2, top + (r + 0.5) * cell + letterSize * 0.35, letterSize, cell,
+                    new String(row));
+        }
+        canvas.rectangle(left, top, side, side, Math.min(1, cell / 8));
+    }
+
+    /**
+     * Draws the words to find in alphabetical order, down each column in turn,
+     * using the largest font that fits them all between two heights
+     */
+    private static void drawWordList(PageCanvas canvas, Paper paper, Puzzle puzzle, double top, double bottom) {
+        String[] words = new String[puzzle.getWordCount()];
+        int longest = 1;
+        for (int i = 0; i < words.length; i++) {
+            words[i] = puzzle.getWord(i);
+            longest = Math.max(longest, words[i].length());
+        }
+        Arrays.sort(words);
+
+        double width = paper.getWidth() - 2 * MARGIN;
+        double size = MAX_WORD_SIZE;
+        int columns;
+        int rows;
+        while (true) {
+            double columnWidth = (longest + 2) * PageCanvas.CHAR_WIDTH * size;
+            columns = Math.max(1, (int) (width / columnWidth));
+            rows = (int) ((bottom - top) / (size * LINE_SPACING));
+            if ((long) rows * columns >= words.length || size <= MIN_WORD_SIZE) {
+                break;
+            }
+            size = Math.max(MIN_WORD_SIZE, size - 0.5);
+        }
+        if (rows <= 0) {
+            return;
+        }
+        int shown = (int) Math.min(words.length, (long) rows * columns);
+        if (shown < words.length) { // The last line is used to say how many are missing
+            shown = Math.max(0, shown - columns);
+            canvas.text(MARGIN, top + rows * size * LINE_SPACING, size, false, false,
+                    "and " + (words.length - shown) + " more words");
+        }
+        rows = Math.max(1, (shown + columns - 1) / columns); // Columns are filled evenly
+        double pitch = width / columns;
+        for (int i = 0; i < shown; i++) {
+            canvas.text(MARGIN + i / rows * pitch, top + (i % rows + 1) * size * LINE_SPACING, size, false, false,
+                    words[i]);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This keeps a few Word Search boards of each profile generated ahead of time,
+ * so that starting a game only has to take one that is already made.
+ *
+ * <p>
+ * Boards are generated on low priority daemon threads, which never stop the
+ * program from exiting. Each profile has its own bounded queue of ready boards.
+ * Every board taken starts a new one, so the queue is topped back up in the
+ * background while the game is played. If the queue is empty because boards
+ * are taken faster than they are made, take() makes one on the calling thread
+ * instead of waiting, which is also how a profile that can't be generated
+ * reports its error. takeAsync() makes it on a pool thread instead, for
+ * callers such as the JavaFX thread that must not wait for the generator.
+ *
+ * <p>
+ * Profiles are matched by value, so a profile read back from text shares the
+ * queue of an equal one passed in when the pool was made.
+ *
+ * The following files are also required to run:
+ *
+ * Base.java DifficultyProfile.java WordSource.java
+ */
+
+public class PuzzlePool {
+
+    static final int DEFAULT_BOARDS_PER_PROFILE = 2; // Ready boards kept for each profile
+
+    private final WordSource wordSource; // Words hidden on every board
+    private final int boardsPerProfile;
+    private final ExecutorService workers;
+    private final Map<DifficultyProfile, BlockingQueue<Base>> ready = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a pool and starts generating boards for some profiles straight
+     * away. Other profiles are added the first time they are taken.
+     *
+     * @param wordSource       Words to hide, which must be safe to read from many
+     *                         threads at once
+     * @param boardsPerProfile How many ready boards to keep for each profile
+     * @param profiles         Profiles to start generating now
+     */
+    public PuzzlePool(WordSource wordSource, int boardsPerProfile, DifficultyProfile... profiles) {
+        this.wordSource = wordSource;
+        this.boardsPerProfile = boardsPerProfile;
+        AtomicInteger threadCount = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), task -> {
+            Thread thread = new Thread(task, "puzzle-pool-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY); // Leaves the JavaFX thread free to draw
+            return thread;
+        });
+        for (DifficultyProfile profile : profiles) {
+            queueFor(profile);
+        }
+    }
+
+    /**
+     * Takes a ready board of a given profile, and starts generating another to
+     * replace it
+     *
+     * @throws IllegalArgumentException If the word source doesn't have enough
+     *                                  words for the profile
+     * @throws IllegalStateException    If boards of the profile can't be
+     *                                  generated
+     */
+    public Base take(DifficultyProfile profile) {
+        BlockingQueue<Base> queue = queueFor(profile);
+        Base game = queue.poll();
+        refill(profile, queue);
+        return game != null ? game : newGame(profile); // Pool ran dry, so make one now
+    }
+
+    /**
+     * Takes a ready board of a given profile like take(), but if none is ready
+     * the board is made on a pool thread rather than the calling one. The future
+     * fails with the same exceptions take() throws, or with
+     * RejectedExecutionException if the pool has been shut down.
+     */
+    public CompletableFuture<Base> takeAsync(DifficultyProfile profile) {
+        BlockingQueue<Base> queue = queueFor(profile);
+        Base game = queue.poll();
+        refill(profile, queue);
+        if (game != null) {
+            return CompletableFuture.completedFuture(game);
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> newGame(profile), workers); // Pool ran dry
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Returns how many boards of a profile are ready to be taken
+     */
+    public int getReadyCount(DifficultyProfile profile) {
+        BlockingQueue<Base> queue = ready.get(profile);
+        return queue == null ? 0 : queue.size();
+    }
+
+    /**
+     * Stops generating boards. Boards already made are dropped.
+     */
+    public void shutdown() {
+        workers.shutdownNow();
+        ready.clear();
+    }
+
+    /**
+     * Returns the queue of ready boards of a profile, creating and filling it the
+     * first time the profile is seen
+     */
+    private BlockingQueue<Base> queueFor(DifficultyProfile profile) {
+        BlockingQueue<Base> queue = ready.get(profile);
+        if (queue == null) {
+            BlockingQueue<Base> created = new ArrayBlockingQueue<Base>(boardsPerProfile);
+            queue = ready.putIfAbsent(profile, created);
+            if (queue == null) {
+                queue = created;
+                for (int i = 0; i < boardsPerProfile; i++) {
+                    refill(profile, queue);
+                }
+            }
+        }
+        return queue;
+    }
+
+    /**
+     * Generates one board in the background and adds it to a queue. A board that
+     * fails to generate is dropped, so take() makes one itself and reports why.
+     */
+    private void refill(DifficultyProfile profile, BlockingQueue<Base> queue) {
+        try {
+            workers.execute(() -> {
+                try {
+                    queue.offer(newGame(profile)); // Dropped if the queue was filled in the meantime
+                } catch (RuntimeException e) {
+                    // Left empty, so the next take() generates on its own thread and throws
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // The pool has been shut down
+        }
+    }
+
+    /**
+     * Creates and fills a single board from a new random seed
+     */
+    private Base newGame(DifficultyProfile profile) {
+        Base game = new Base();
+        game.setWordSource(wordSource);
+        game.initGameBoard(profile, ThreadLocalRandom.current().nextLong());
+        return game;
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * This converts generated boards from the Word Search game into text, so that
+ * they can be streamed out by the batch generator.
+ *
+ * The following files are also required to run:
+ *
+ * Base.java DifficultyProfile.java WordPlacement.java
+ */
+
+public class PuzzleWriter {
+
+    /**
+     * Output formats that a puzzle can be written in
+     */
+    enum Format {
+        JSON, // One JSON object per line
+        TEXT // A seed line, the grid, the word list, then a blank line
+    }
+
+    private PuzzleWriter() {
+    }
+
+    /**
+     * Appends a puzzle to a StringBuilder in a given format
+     */
+    public static void append(Base game, Format format, StringBuilder out) {
+        switch (format) {
+        case JSON:
+            appendJson(game, out);
+            break;
+        case TEXT:
+            appendText(game, out);
+            break;
+        }
+    }
+
+    /**
+     * Appends a puzzle as a single line JSON object, including where each word
+     * was placed so that answer keys can be produced later. The profile is
+     * written as text that DifficultyProfile.parse() reads, so the board can be
+     * rebuilt from it and the seed by the generator version written with them.
+     */
+    public static void appendJson(Base game, StringBuilder out) {
+        int size = game.getBoardSize();
+        DifficultyProfile profile = game.getProfile();
+        out.append("{\"seed\":").append(game.getSeed()).append(",\"generator\":").append(Puzzle.GENERATOR_VERSION)
+                .append(",\"difficulty\":\"").append(profile.getName())
+                .append("\",\"profile\":\"").append(profile).append("\",\"size\":").append(size);
+        out.append(",\"board\":[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append('"');
+            appendRow(game, i, out);
+            out.append('"');
+        }
+        out.append("],\"words\":[");
+        for (int i = 0; i < game.getWordCount(); i++) {
+            WordPlacement placement = game.getPlacement(i);
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append("{\"word\":\"").append(placement.getWord()).append("\",\"row\":").append(placement.getRow())
+                    .append(",\"col\":").append(placement.getCol()).append(",\"orientation\":")
+                    .append(placement.getOrientation()).append('}');
+        }
+        out.append("]}\n");
+    }
+
+    /**
+     * Appends a puzzle as its seed, difficulty and generator version, the grid,
+     * then the word list
+     */
+    public static void appendText(Base game, StringBuilder out) {
+        int size = game.getBoardSize();
+        out.append("# ").append(game.getSeed()).append(' ').append(game.getProfile().getName())
+                .append(" generator ").append(Puzzle.GENERATOR_VERSION).append('\n');
+        for (int i = 0; i < size; i++) {
+            appendRow(game, i, out);
+            out.append('\n');
+        }
+        for (int i = 0; i < game.getWordCount(); i++) {
+            out.append(i > 0 ? ' ' : "").append(game.getWord(i));
+        }
+        out.append("\n\n");
+    }
+
+    /**
+     * Appends every letter in a given row of the board
+     */
+    private static void appendRow(Base game, int row, StringBuilder out) {
+        for (int j = 0; j < game.getBoardSize(); j++) {
+            out.append(game.getBoardPos(row, j));
+        }
+    }
+}
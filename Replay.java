@@ -0,0 +1,241 @@
+import java.util.Arrays;
+
+/**
+ * This is one recorded game of Word Search: the puzzle it was played on, given
+ * by its profile and seed, where the player started, every input they made and
+ * when, and how the game ended.
+ *
+ * <p>
+ * GameLogic always ends in the same state after the same inputs, so playing
+ * the inputs again on the same puzzle must end with the selection square in
+ * the same place and the same number of words found. A replay that doesn't is
+ * a change in the rules of the game, or a puzzle generated differently from
+ * the one that was played.
+ *
+ * <p>
+ * A Replay is never changed once made, so it can be played on many threads at
+ * once. Each game is recorded by a Recorder while it is played.
+ *
+ * The following files are also required to run:
+ *
+ * Base.java DifficultyProfile.java GameLogic.java GameSnapshot.java Puzzle.java ReplayLog.java SavedGame.java
+ */
+
+public final class Replay {
+
+    static final GameLogic.Input[] INPUTS = GameLogic.Input.values(); // Input for each recorded code
+
+    private final DifficultyProfile profile;
+    private final long seed;
+    private final int startRow; // Where the selection square started
+    private final int startCol;
+    private final long[] startFound; // Words found before recording started, as given by GameSession.getFoundBits()
+    private final byte[] inputs; // Ordinal of each input, in the order they were made
+    private final int[] delays; // Milliseconds before each input, since the last one or the start
+    private final int endRow; // Where the selection square ended
+    private final int endCol;
+    private final int endFoundCount; // Words found when recording stopped
+
+    Replay(DifficultyProfile profile, long seed, int startRow, int startCol, long[] startFound, byte[] inputs,
+            int[] delays, int endRow, int endCol, int endFoundCount) {
+        this.profile = profile;
+        this.seed = seed;
+        this.startRow = startRow;
+        this.startCol = startCol;
+        this.startFound = startFound;
+        this.inputs = inputs;
+        this.delays = delays;
+        this.endRow = endRow;
+        this.endCol = endCol;
+        this.endFoundCount = endFoundCount;
+    }
+
+    /**
+     * Plays every input again on a puzzle, with no display
+     *
+     * @param puzzle The puzzle the game was played on, made from getProfile()
+     *               and getSeed()
+     * @return The state the game ends in
+     *
+     * @throws IllegalArgumentException If the words found at the start don't
+     *                                  fit the puzzle
+     */
+    public GameSnapshot play(Puzzle puzzle) {
+        Base game = new Base();
+        game.resumeGame(new SavedGame(puzzle, startFound, startRow, startCol));
+        GameLogic logic = new GameLogic(game, startRow, startCol);
+        for (byte input : inputs) {
+            logic.apply(INPUTS[input]);
+        }
+        return logic.snapshot();
+    }
+
+    /**
+     * Returns true if a game played again ended the same way as the one
+     * recorded
+     */
+    public boolean matches(GameSnapshot end) {
+        return end.getRow() == endRow && end.getCol() == endCol && end.getFoundCount() == endFoundCount;
+    }
+
+    /**
+     * Returns the profile the puzzle was generated from
+     */
+    public DifficultyProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Returns the seed the puzzle was generated from
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the row the selection square started on
+     */
+    public int getStartRow() {
+        return startRow;
+    }
+
+    /**
+     * Returns the column the selection square started on
+     */
+    public int getStartCol() {
+        return startCol;
+    }
+
+    /**
+     * Returns a copy of the words found before recording started
+     */
+    public long[] getStartFound() {
+        return startFound.clone();
+    }
+
+    /**
+     * Returns how many inputs were recorded
+     */
+    public int getInputCount() {
+        return inputs.length;
+    }
+
+    /**
+     * Returns the input with a given number
+     */
+    public GameLogic.Input getInput(int i) {
+        return INPUTS[inputs[i]];
+    }
+
+    /**
+     * Returns how many milliseconds passed before the input with a given
+     * number, since the one before or the start of the game
+     */
+    public int getDelay(int i) {
+        return delays[i];
+    }
+
+    /**
+     * Returns how many milliseconds passed between the start of the game and
+     * the last input
+     */
+    public long getDuration() {
+        long total = 0;
+        for (int delay : delays) {
+            total += delay;
+        }
+        return total;
+    }
+
+    /**
+     * Returns the row the selection square ended on
+     */
+    public int getEndRow() {
+        return endRow;
+    }
+
+    /**
+     * Returns the column the selection square ended on
+     */
+    public int getEndCol() {
+        return endCol;
+    }
+
+    /**
+     * Returns how many words had been found when recording stopped
+     */
+    public int getEndFoundCount() {
+        return endFoundCount;
+    }
+
+    /**
+     * This records a game as it is played. Inputs are added in the order they
+     * are given to the game, from one thread.
+     */
+    public static final class Recorder {
+
+        private final Puzzle puzzle;
+        private final long[] startFound;
+        private final int startRow;
+        private final int startCol;
+        private byte[] inputs = new byte[256];
+        private int[] delays = new int[256];
+        private int count;
+        private long last; // When the last input was made, or the game started, in nanoseconds
+
+        /**
+         * Starts recording a game
+         *
+         * @param start State of the game before any input
+         * @param now   The time, from System.nanoTime()
+         */
+        public Recorder(GameSnapshot start, long now) {
+            this.puzzle = start.getPuzzle();
+            this.startFound = start.getFoundBits();
+            this.startRow = start.getRow();
+            this.startCol = start.getCol();
+            this.last = now;
+        }
+
+        /**
+         * Records an input
+         *
+         * @param now The time it was made, from System.nanoTime()
+         */
+        public void add(GameLogic.Input input, long now) {
+            if (count == inputs.length) {
+                inputs = Arrays.copyOf(inputs, count * 2);
+                delays = Arrays.copyOf(delays, count * 2);
+            }
+            inputs[count] = (byte) input.ordinal();
+            delays[count++] = (int) Math.min(Integer.MAX_VALUE, Math.max(0, (now - last) / 1_000_000));
+            last = now;
+        }
+
+        /**
+         * Records an input made a number of milliseconds after the last one,
+         * for games played by a program rather than a person
+         */
+        public void addAfter(GameLogic.Input input, int millis) {
+            add(input, last + millis * 1_000_000L);
+        }
+
+        /**
+         * Returns how many inputs have been recorded
+         */
+        public int getInputCount() {
+            return count;
+        }
+
+        /**
+         * Ends the recording
+         *
+         * @param end State of the game after every input recorded
+         */
+        public Replay finish(GameSnapshot end) {
+            return new Replay(puzzle.getProfile(), puzzle.getSeed(), startRow, startCol, startFound,
+                    Arrays.copyOf(inputs, count), Arrays.copyOf(delays, count), end.getRow(), end.getCol(),
+                    end.getFoundCount());
+        }
+    }
+}
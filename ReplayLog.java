@@ -0,0 +1,362 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This is a file of recorded Word Search games, each a Replay, stored compactly
+ * enough to hold millions of games.
+ *
+ * <p>
+ * A puzzle is stored as just its profile and seed, as Puzzle.generate() makes
+ * it again from those. That only holds for the GENERATOR_VERSION the games
+ * were played with, so it is written in the header, every game added must be
+ * from that version, and getGeneratorVersion() lets a replayer refuse a log
+ * from another. Each input is a single varint holding the input and the
+ * milliseconds since the one before, so most inputs take two bytes. Games are
+ * only ever added to the end of a log, so WordSearch can add each game as it
+ * finishes.
+ *
+ * <p>
+ * File layout, fixed size numbers are big-endian, and a varint is 7 bits to a
+ * byte, lowest first, with the top bit set on every byte but the last:
+ *
+ * <pre>
+ * magic (int), version (int), generator version (int)
+ * for each game:
+ *   record length (int), counting the bytes after it
+ *   profile length (short), profile (ASCII, as given by DifficultyProfile.toString())
+ *   seed (long), start row (varint), start column (varint)
+ *   found longs (varint), then found bits at the start (long each)
+ *   input count (varint), then for each input: delay * 8 + input (varint)
+ *   end row (varint), end column (varint), end found count (varint)
+ * </pre>
+ *
+ * <p>
+ * The file is memory-mapped when opened, and only the record lengths are read
+ * until a game is asked for, so a ReplayLog can be at most 2GB. It is never
+ * changed after it is opened, so it can be shared between threads.
+ *
+ * The following files are also required to run:
+ *
+ * Difficulty.java DifficultyProfile.java GameLogic.java Puzzle.java Replay.java
+ */
+
+public final class ReplayLog {
+
+    static final int MAGIC = 0x57535231; // "WSR1"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 12;
+    static final int INPUT_BITS = 3; // Enough for every GameLogic.Input
+
+    // Parsed once and shared by every log, so games of the same profile share
+    // one instance even when read from different files
+    private static final Map<String, DifficultyProfile> PROFILES = new ConcurrentHashMap<>();
+
+    private final MappedByteBuffer data; // Whole file
+    private final int generatorVersion; // Puzzle.GENERATOR_VERSION the games were played with
+    private final int[] offsets; // Start of each record, after its length
+
+    private ReplayLog(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Replay log is larger than 2GB");
+        }
+        if (size < HEADER_SIZE) {
+            throw new IOException("Replay log is truncated");
+        }
+        data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        if (data.getInt(0) != MAGIC) {
+            throw new IOException("Not a replay log");
+        }
+        int version = data.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported replay log version " + version);
+        }
+        generatorVersion = data.getInt(8);
+        long position = HEADER_SIZE;
+        int[] found = new int[1024];
+        int count = 0;
+        while (position < size) {
+            if (position + 4 > size) {
+                throw new IOException("Replay log is truncated after game " + count);
+            }
+            int length = data.getInt((int) position);
+            if (length < 0 || position + 4 + length > size) {
+                throw new IOException("Replay log is truncated after game " + count);
+            }
+            if (count == found.length) {
+                found = Arrays.copyOf(found, count * 2);
+            }
+            found[count++] = (int) position + 4;
+            position += 4L + length;
+        }
+        offsets = Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Opens a log written by a Writer
+     *
+     * @throws IOException If the file can't be read or is not a replay log
+     */
+    public static ReplayLog open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new ReplayLog(channel); // The mapping stays valid after the channel is closed
+        }
+    }
+
+    /**
+     * Creates a log, replacing any file already there
+     */
+    public static Writer create(Path file) throws IOException {
+        return new Writer(file, false);
+    }
+
+    /**
+     * Opens a log to add games to the end of it, creating it if there is none
+     *
+     * @throws IOException If the file is there but is not a replay log of this
+     *                     version, with games of this GENERATOR_VERSION
+     */
+    public static Writer append(Path file) throws IOException {
+        return new Writer(file, true);
+    }
+
+    /**
+     * Returns the Puzzle.GENERATOR_VERSION the games were played with. Their
+     * puzzles can only be made again by that version.
+     */
+    public int getGeneratorVersion() {
+        return generatorVersion;
+    }
+
+    /**
+     * Returns how many games are in the log
+     */
+    public int size() {
+        return offsets.length;
+    }
+
+    /**
+     * Reads the game with a given number
+     *
+     * @throws IOException If the record is damaged
+     */
+    public Replay get(int id) throws IOException {
+        ByteBuffer record = data.duplicate(); // Own position, so threads don't share one
+        record.position(offsets[id]);
+        record.limit(offsets[id] + data.getInt(offsets[id] - 4));
+        try {
+            byte[] text = new byte[record.getShort()];
+            record.get(text);
+            DifficultyProfile profile = profileOf(new String(text, StandardCharsets.US_ASCII));
+            long seed = record.getLong();
+            int startRow = getInt(record);
+            int startCol = getInt(record);
+            int longs = getInt(record);
+            if (longs > record.remaining() / 8) { // Checked before allocating, as a damaged count can be huge
+                throw new IOException("Game " + id + " is damaged");
+            }
+            long[] found = new long[longs];
+            for (int i = 0; i < found.length; i++) {
+                found[i] = record.getLong();
+            }
+            int count = getInt(record);
+            if (count > record.remaining()) { // Every input takes a byte at least
+                throw new IOException("Game " + id + " is damaged");
+            }
+            byte[] inputs = new byte[count];
+            int[] delays = new int[count];
+            for (int i = 0; i < count; i++) {
+                long value = getVarint(record);
+                int input = (int) value & ((1 << INPUT_BITS) - 1);
+                if (input >= Replay.INPUTS.length || value >>> INPUT_BITS > Integer.MAX_VALUE) {
+                    throw new IOException("Game " + id + " has an unknown input");
+                }
+                inputs[i] = (byte) input;
+                delays[i] = (int) (value >>> INPUT_BITS);
+            }
+            return new Replay(profile, seed, startRow, startCol, found, inputs, delays, getInt(record),
+                    getInt(record), getInt(record));
+        } catch (BufferUnderflowException | NegativeArraySizeException | IllegalArgumentException e) {
+            throw new IOException("Game " + id + " is damaged", e);
+        }
+    }
+
+    /**
+     * Returns the profile written as some text, parsing each text only once
+     */
+    private static DifficultyProfile profileOf(String text) {
+        return PROFILES.computeIfAbsent(text, DifficultyProfile::parse);
+    }
+
+    /**
+     * Reads a varint that must fit in an int
+     */
+    private static int getInt(ByteBuffer record) throws IOException {
+        long value = getVarint(record);
+        if (value > Integer.MAX_VALUE) {
+            throw new IOException("Number is too large: " + value);
+        }
+        return (int) value;
+    }
+
+    private static long getVarint(ByteBuffer record) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 63; shift += 7) {
+            byte b = record.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Varint is too long");
+    }
+
+    /**
+     * Writes games to the end of a log, one after another
+     */
+    public static final class Writer implements AutoCloseable {
+
+        private final FileChannel channel;
+        private ByteBuffer record = ByteBuffer.allocate(1 << 12); // Reused for every record
+        private final ByteBuffer pending = ByteBuffer.allocate(1 << 16); // Written so far but not yet sent
+        private int count;
+
+        Writer(Path file, boolean append) throws IOException {
+            channel = append
+                    ? FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                            StandardOpenOption.WRITE)
+                    : FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                            StandardOpenOption.TRUNCATE_EXISTING);
+            try {
+                long size = channel.size();
+                if (size == 0) {
+                    pending.putInt(MAGIC).putInt(VERSION).putInt(Puzzle.GENERATOR_VERSION);
+                } else {
+                    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                    if (size < HEADER_SIZE || channel.read(header, 0) < HEADER_SIZE) {
+                        throw new IOException("Not a replay log");
+                    }
+                    header.flip();
+                    if (header.getInt() != MAGIC) {
+                        throw new IOException("Not a replay log");
+                    }
+                    if (header.getInt() != VERSION) {
+                        throw new IOException("Can't add to a replay log of another version");
+                    }
+                    int generator = header.getInt();
+                    if (generator != Puzzle.GENERATOR_VERSION) {
+                        throw new IOException("Can't add games to a replay log of generator version " + generator
+                                + ", as boards are now made by version " + Puzzle.GENERATOR_VERSION);
+                    }
+                }
+                channel.position(size);
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Adds a game to the end of the log
+         */
+        public void add(Replay replay) throws IOException {
+            byte[] profile = replay.getProfile().toString().getBytes(StandardCharsets.US_ASCII);
+            long[] found = replay.getStartFound();
+            record.clear();
+            ensureRoom(4 + 2 + profile.length + 8 + 10 * 3 + 8L * found.length
+                    + 10L * (replay.getInputCount() + 4));
+            record.putInt(0); // Length, filled in below
+            record.putShort((short) profile.length).put(profile);
+            record.putLong(replay.getSeed());
+            putVarint(replay.getStartRow());
+            putVarint(replay.getStartCol());
+            putVarint(found.length);
+            for (long bits : found) {
+                record.putLong(bits);
+            }
+            putVarint(replay.getInputCount());
+            for (int i = 0; i < replay.getInputCount(); i++) {
+                putVarint((long) replay.getDelay(i) << INPUT_BITS | replay.getInput(i).ordinal());
+            }
+            putVarint(replay.getEndRow());
+            putVarint(replay.getEndCol());
+            putVarint(replay.getEndFoundCount());
+            record.putInt(0, record.position() - 4);
+            record.flip();
+            if (record.remaining() > pending.remaining()) {
+                flush();
+            }
+            if (record.remaining() > pending.capacity()) {
+                while (record.hasRemaining()) {
+                    channel.write(record);
+                }
+            } else {
+                pending.put(record);
+            }
+            count++;
+        }
+
+        /**
+         * Returns how many games have been added
+         */
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * Writes any games not yet written and closes the file
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+
+        private void putVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                record.put((byte) (value | 0x80));
+                value >>>= 7;
+            }
+            record.put((byte) value);
+        }
+
+        /**
+         * Grows the record buffer so that a number of bytes more fit
+         */
+        private void ensureRoom(long bytes) {
+            if (record.remaining() < bytes) {
+                if (record.position() + bytes > Integer.MAX_VALUE - 8) {
+                    throw new IllegalArgumentException("Game is too long to record");
+                }
+                int capacity = (int) Math.max(record.capacity() * 2L, record.position() + bytes);
+                ByteBuffer bigger = ByteBuffer.allocate(capacity);
+                record.flip();
+                bigger.put(record);
+                record = bigger;
+            }
+        }
+
+        /**
+         * Writes the records gathered up by add()
+         */
+        private void flush() throws IOException {
+            pending.flip();
+            while (pending.hasRemaining()) {
+                channel.write(pending);
+            }
+            pending.clear();
+        }
+    }
+}
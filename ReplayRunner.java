@@ -0,0 +1,338 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.LongStream;
+
+/**
+ * Command line entry point for playing recorded Word Search games again with
+ * no display, to check that the game logic still plays them the same way and
+ * to measure how fast it does. This never touches WordSearch.java, so JavaFX
+ * is not needed to run it.
+ *
+ * <p>
+ * Usage: java ReplayRunner [-x times] [-w dictionary] log... <br>
+ * or: java ReplayRunner -g games -o log [-d EASY|MEDIUM|HARD] [-p profile]
+ * [-s seed] [-players count] [-w dictionary]
+ *
+ * <p>
+ * Games recorded by WordSearch -r are replayed from every log given, each one
+ * as many times as -x asks, spread across every core. Each game regenerates
+ * its puzzle from its profile and seed, so it must be replayed with the same
+ * dictionary it was played with. Puzzles are kept while their games are
+ * replayed, up to about MAX_CACHED_CELLS cells, so games played on the same
+ * puzzle generate it only once. Any game that doesn't end the way it was
+ * recorded is counted, and the first one is described, and the exit status
+ * is then 1. A log recorded with another Puzzle.GENERATOR_VERSION can't have
+ * its puzzles made again, so every game in it counts as mismatched.
+ *
+ * <p>
+ * With -g, games are played by a program instead and recorded to a new log,
+ * to have something to replay in bulk. Each one walks the selection square to
+ * the letters of the words in a random order, at about the pace of a person,
+ * making the odd wrong selection and sometimes giving up early. Games are
+ * played on boards from a BatchGenerator, with -players games on each board.
+ *
+ * The following files are also required to run:
+ *
+ * Base.java BatchGenerator.java Difficulty.java DifficultyProfile.java GameLogic.java GameSnapshot.java
+ * MappedWordSource.java Puzzle.java Replay.java ReplayLog.java WordPlacement.java WordSource.java
+ */
+
+public class ReplayRunner {
+
+    static final long MAX_CACHED_CELLS = 1 << 26; // Cells of puzzles kept for more games to be replayed on
+    static final int START_ROW = 6; // Where WordSearch starts the selection square
+    static final int START_COL = 4;
+
+    private final WordSource wordSource; // Words hidden on every puzzle
+    private final Map<Long, Puzzle> puzzles = new ConcurrentHashMap<>(); // Puzzles generated, by seed
+    private final LongAdder games = new LongAdder();
+    private final LongAdder inputs = new LongAdder();
+    private final LongAdder generated = new LongAdder(); // Puzzles generated rather than found in puzzles
+    private final LongAdder mismatches = new LongAdder();
+    private final AtomicReference<String> firstMismatch = new AtomicReference<>();
+
+    /**
+     * @param wordSource Words the games were played with, which must be safe to
+     *                   read from many threads at once
+     */
+    public ReplayRunner(WordSource wordSource) {
+        this.wordSource = wordSource;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int times = 1;
+        int games = 0;
+        String output = null;
+        DifficultyProfile profile = Difficulty.HARD.getProfile();
+        long seed = ThreadLocalRandom.current().nextLong();
+        int players = 1;
+        WordSource words = Base.LIBRARY;
+        List<String> logs = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+            case "-x":
+                times = Integer.parseInt(args[++i]);
+                break;
+            case "-g":
+                games = Integer.parseInt(args[++i]);
+                break;
+            case "-o":
+                output = args[++i];
+                break;
+            case "-d":
+                profile = Difficulty.valueOf(args[++i].toUpperCase(Locale.ROOT)).getProfile();
+                break;
+            case "-p":
+                profile = DifficultyProfile.parse(args[++i]);
+                break;
+            case "-s":
+                seed = Long.parseLong(args[++i]);
+                break;
+            case "-players":
+                players = Integer.parseInt(args[++i]);
+                break;
+            case "-w":
+                words = MappedWordSource.open(Paths.get(args[++i]));
+                break;
+            default:
+                if (args[i].startsWith("-")) {
+                    usage();
+                }
+                logs.add(args[i]);
+            }
+        }
+        if (games > 0 ? output == null || players < 1 : logs.isEmpty() || times < 1) {
+            usage();
+        }
+
+        long start = System.nanoTime();
+        if (games > 0) {
+            try (ReplayLog.Writer out = ReplayLog.create(Paths.get(output))) {
+                record(words, games, players, profile, seed, out);
+            }
+            long bytes = Files.size(Paths.get(output)) - ReplayLog.HEADER_SIZE;
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.err.printf("Recorded %d games on %s puzzles from seed %d to %s in %.2fs (%.1f bytes/game)%n",
+                    games, profile.getName(), seed, output, seconds, (double) bytes / games);
+            return;
+        }
+
+        ReplayRunner runner = new ReplayRunner(words);
+        for (String log : logs) {
+            runner.replay(ReplayLog.open(Paths.get(log)), times);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("Replayed %d games (%d inputs, %d puzzles generated) in %.2fs: %.0f games/min,"
+                + " %.0f inputs/s, %d mismatched%n", runner.getGames(), runner.getInputs(), runner.getGenerated(),
+                seconds, runner.getGames() / seconds * 60, runner.getInputs() / seconds, runner.getMismatches());
+        if (runner.getMismatches() > 0) {
+            System.err.println("First mismatch: " + runner.getFirstMismatch());
+            System.exit(1);
+        }
+    }
+
+    private static void usage() {
+        System.err.println("Usage: java ReplayRunner [-x times] [-w dictionary] log...");
+        System.err.println("   or: java ReplayRunner -g games -o log [-d EASY|MEDIUM|HARD] [-p profile] [-s seed]"
+                + " [-players count] [-w dictionary]");
+        System.exit(2);
+    }
+
+    /**
+     * Replays every game in a log a number of times, on every core
+     */
+    public void replay(ReplayLog log, int times) {
+        int size = log.size();
+        if (log.getGeneratorVersion() != Puzzle.GENERATOR_VERSION) { // Its puzzles can't be made again
+            for (int id = 0; id < size; id++) {
+                games.increment();
+                mismatch("game " + id + " was played on a board of generator version " + log.getGeneratorVersion()
+                        + ", but boards are now made by version " + Puzzle.GENERATOR_VERSION);
+            }
+            return;
+        }
+        LongStream.range(0, (long) size * times).parallel().forEach(i -> replayGame(log, (int) (i % size)));
+    }
+
+    /**
+     * Replays one game and checks it ends the way it was recorded
+     */
+    private void replayGame(ReplayLog log, int id) {
+        games.increment();
+        Replay replay;
+        try {
+            replay = log.get(id);
+        } catch (IOException e) {
+            mismatch("game " + id + " can't be read: " + e.getMessage());
+            return;
+        }
+        inputs.add(replay.getInputCount());
+        GameSnapshot end;
+        try {
+            end = replay.play(puzzleFor(replay));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            mismatch("game " + id + " can't be played: " + e.getMessage());
+            return;
+        }
+        if (!replay.matches(end)) {
+            mismatch("game " + id + " of " + replay.getProfile().getName() + " seed " + replay.getSeed()
+                    + " ended at " + end.getRow() + "," + end.getCol() + " with " + end.getFoundCount()
+                    + " found, but was recorded ending at " + replay.getEndRow() + "," + replay.getEndCol()
+                    + " with " + replay.getEndFoundCount() + " found");
+        }
+    }
+
+    private void mismatch(String description) {
+        mismatches.increment();
+        firstMismatch.compareAndSet(null, description);
+    }
+
+    /**
+     * Returns the puzzle a game was played on, generating it unless it was
+     * generated for an earlier game. When the puzzles kept hold too many cells
+     * they are all forgotten.
+     */
+    private Puzzle puzzleFor(Replay replay) {
+        Puzzle puzzle = puzzles.get(replay.getSeed());
+        if (puzzle != null && puzzle.getProfile() == replay.getProfile()) { // ReplayLog shares profile instances
+            return puzzle;
+        }
+        puzzle = Puzzle.generate(replay.getProfile(), replay.getSeed(), wordSource);
+        generated.increment();
+        long cells = (long) puzzle.getBoardSize() * puzzle.getBoardSize();
+        if (puzzles.size() >= Math.max(1, MAX_CACHED_CELLS / cells)) {
+            puzzles.clear();
+        }
+        puzzles.put(replay.getSeed(), puzzle);
+        return puzzle;
+    }
+
+    /**
+     * Returns how many games have been replayed
+     */
+    public long getGames() {
+        return games.sum();
+    }
+
+    /**
+     * Returns how many inputs the replayed games held
+     */
+    public long getInputs() {
+        return inputs.sum();
+    }
+
+    /**
+     * Returns how many puzzles had to be generated
+     */
+    public long getGenerated() {
+        return generated.sum();
+    }
+
+    /**
+     * Returns how many games didn't end the way they were recorded, or
+     * couldn't be played
+     */
+    public long getMismatches() {
+        return mismatches.sum();
+    }
+
+    /**
+     * Returns what was wrong with the first game that didn't end the way it was
+     * recorded, or null if every game did
+     */
+    public String getFirstMismatch() {
+        return firstMismatch.get();
+    }
+
+    /**
+     * Plays games with a program and records them, in order, to a log
+     *
+     * @param games   How many games to play
+     * @param players How many games to play on each board
+     */
+    public static void record(WordSource words, int games, int players, DifficultyProfile profile, long seed,
+            ReplayLog.Writer out) throws IOException {
+        int boards = (int) ((games + (long) players - 1) / players);
+        IOException[] failed = new IOException[1];
+        new BatchGenerator(BatchGenerator.DEFAULT_CHUNK_SIZE, words).map(boards, profile, seed, (index, game) -> {
+            Replay[] played = new Replay[(int) Math.min(players, games - (long) index * players)];
+            for (int i = 0; i < played.length; i++) {
+                played[i] = playBot(game.getPuzzle(),
+                        new SplittableRandom(BatchGenerator.seedFor(~seed, (long) index * players + i)));
+            }
+            return played;
+        }, played -> {
+            try {
+                for (Replay replay : played) {
+                    out.add(replay);
+                }
+            } catch (IOException e) {
+                failed[0] = e;
+            }
+        });
+        if (failed[0] != null) {
+            throw failed[0];
+        }
+    }
+
+    /**
+     * Plays a game the way a person might, and returns the recording of it
+     */
+    public static Replay playBot(Puzzle puzzle, SplittableRandom rand) {
+        Base game = new Base();
+        game.startPuzzle(puzzle);
+        GameLogic logic = new GameLogic(game, START_ROW, START_COL);
+        Replay.Recorder recorder = new Replay.Recorder(logic.snapshot(), 0);
+        int words = puzzle.getWordCount();
+        int[] order = new int[words];
+        for (int i = 0; i < words; i++) {
+            int j = rand.nextInt(i + 1); // Shuffles the words as they are added
+            order[i] = order[j];
+            order[j] = i;
+        }
+        int goal = rand.nextInt(5) == 0 ? rand.nextInt(words + 1) : words; // One in five players gives up
+        for (int w = 0; w < goal && !game.isFinished(); w++) {
+            WordPlacement placement = puzzle.getPlacement(order[w]);
+            int length = placement.getWord().length();
+            int rowStep = Integer.signum(placement.getEndRow() - placement.getRow());
+            int colStep = Integer.signum(placement.getEndCol() - placement.getCol());
+            if (game.getWordSelectSize() == 0 && rand.nextInt(20) == 0) { // Picks a wrong letter, then takes it back
+                act(logic, recorder, GameLogic.Input.SELECT, 150 + rand.nextInt(450));
+                act(logic, recorder, GameLogic.Input.DELETE, 150 + rand.nextInt(450));
+            }
+            for (int k = 0; k < length; k++) {
+                walkTo(logic, recorder, placement.getRow() + rowStep * k, placement.getCol() + colStep * k, rand);
+                act(logic, recorder, GameLogic.Input.SELECT, 150 + rand.nextInt(450));
+            }
+        }
+        return recorder.finish(logic.snapshot());
+    }
+
+    /**
+     * Moves the selection square to a cell one key press at a time
+     */
+    private static void walkTo(GameLogic logic, Replay.Recorder recorder, int row, int col, SplittableRandom rand) {
+        while (logic.getRow() != row || logic.getCol() != col) {
+            boolean vertical = logic.getCol() == col || (logic.getRow() != row && rand.nextBoolean());
+            GameLogic.Input move = vertical ? (logic.getRow() < row ? GameLogic.Input.DOWN : GameLogic.Input.UP)
+                    : (logic.getCol() < col ? GameLogic.Input.RIGHT : GameLogic.Input.LEFT);
+            act(logic, recorder, move, 60 + rand.nextInt(140));
+        }
+    }
+
+    private static void act(GameLogic logic, Replay.Recorder recorder, GameLogic.Input input, int millis) {
+        logic.apply(input);
+        recorder.addAfter(input, millis);
+    }
+}
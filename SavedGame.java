@@ -0,0 +1,64 @@
+/**
+ * This is a Word Search game read back from a PuzzleArchive: the puzzle, which
+ * words had been found, and where the selection square was.
+ *
+ * <p>
+ * Letters selected but not yet made into a word are not saved, so a resumed
+ * game starts with nothing selected.
+ *
+ * The following files are also required to run:
+ *
+ * GameSession.java Puzzle.java PuzzleArchive.java
+ */
+
+public final class SavedGame {
+
+    private final Puzzle puzzle;
+    private final long[] foundBits; // One bit per word, as given by GameSession.getFoundBits()
+    private final int cursorRow; // Row of the selection square
+    private final int cursorCol; // Column of the selection square
+
+    public SavedGame(Puzzle puzzle, long[] foundBits, int cursorRow, int cursorCol) {
+        this.puzzle = puzzle;
+        this.foundBits = foundBits.clone();
+        this.cursorRow = cursorRow;
+        this.cursorCol = cursorCol;
+    }
+
+    /**
+     * Returns the puzzle being played
+     */
+    public Puzzle getPuzzle() {
+        return puzzle;
+    }
+
+    /**
+     * Returns a copy of the found words, one bit per word
+     */
+    public long[] getFoundBits() {
+        return foundBits.clone();
+    }
+
+    /**
+     * Returns a new session carrying on from where the game was saved
+     *
+     * @throws IllegalArgumentException If the found words don't fit the puzzle
+     */
+    public GameSession resume() {
+        return new GameSession(puzzle, foundBits);
+    }
+
+    /**
+     * Returns the row the selection square was on
+     */
+    public int getCursorRow() {
+        return cursorRow;
+    }
+
+    /**
+     * Returns the column the selection square was on
+     */
+    public int getCursorCol() {
+        return cursorCol;
+    }
+}
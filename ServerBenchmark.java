@@ -0,0 +1,184 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This measures how many players one GameServer can host, by connecting
+ * thousands of players over the loopback address and having every one of them
+ * solve their room's puzzle.
+ *
+ * <p>
+ * Run with: java ServerBenchmark [players] [rooms] [client threads]
+ *
+ * <p>
+ * Players are spread evenly over the rooms and difficulties. Each player sends
+ * every letter of every word as its own SEL command, pipelined, then checks
+ * STATE says the puzzle is finished. Heap per player is measured after
+ * everyone has joined, and includes the client's side of each connection.
+ *
+ * The following files are also required to run:
+ *
+ * Difficulty.java Direction.java GameServer.java Puzzle.java WordPlacement.java
+ */
+
+public class ServerBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int players = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int rooms = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+
+        try (GameServer server = new GameServer(0, Base.LIBRARY)) {
+            long heapBefore = usedHeap();
+            long start = System.nanoTime();
+            List<Client> clients = new ArrayList<>();
+            for (int i = 0; i < players; i++) {
+                int room = i % rooms;
+                clients.add(new Client(server.getPort(), "room" + room, Difficulty.values()[room % 3]));
+            }
+            for (Client client : clients) {
+                client.join();
+            }
+            double joinSeconds = (System.nanoTime() - start) / 1e9;
+            long heapPerPlayer = (usedHeap() - heapBefore) / players;
+            System.out.printf("%d players joined %d rooms (%d sessions, %d puzzles) in %.2fs, %d bytes of heap each%n",
+                    players, rooms, server.getSessionCount(), server.getRoomCount(), joinSeconds, heapPerPlayer);
+
+            LongAdder commands = new LongAdder();
+            LongAdder unfinished = new LongAdder();
+            List<Thread> workers = new ArrayList<>();
+            start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                int first = t;
+                Thread worker = new Thread(() -> {
+                    for (int i = first; i < clients.size(); i += threads) {
+                        Client client = clients.get(i);
+                        try {
+                            commands.add(client.solve(server.getPuzzle(client.room)));
+                            if (!client.isFinished()) {
+                                unfinished.increment();
+                            }
+                        } catch (IOException e) {
+                            unfinished.increment();
+                        }
+                    }
+                });
+                workers.add(worker);
+                worker.start();
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Solved in %.2fs: %d commands, %.0f commands/s, %.0f players/s, %d unfinished%n", seconds,
+                    commands.sum(), commands.sum() / seconds, players / seconds, unfinished.sum());
+
+            for (Client client : clients) {
+                client.quit();
+            }
+            if (unfinished.sum() > 0) {
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * Returns the bytes of heap in use after a garbage collection
+     */
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * One player's connection
+     */
+    private static final class Client {
+
+        private final String room;
+        private final Difficulty difficulty;
+        private final Socket socket;
+        private final OutputStream out;
+        private final BufferedReader in;
+
+        private Client(int port, String room, Difficulty difficulty) throws IOException {
+            this.room = room;
+            this.difficulty = difficulty;
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            socket.setTcpNoDelay(true);
+            out = socket.getOutputStream();
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII), 256);
+        }
+
+        /**
+         * Joins the room, checking the server agreed
+         */
+        private void join() throws IOException {
+            send("JOIN " + room + " " + difficulty + "\n");
+            String reply = in.readLine();
+            if (reply == null || !reply.startsWith("OK ")) {
+                throw new IOException("Join refused: " + reply);
+            }
+        }
+
+        /**
+         * Selects every letter of every word, all in one write, and reads the
+         * replies
+         *
+         * @return How many commands were sent
+         */
+        private int solve(Puzzle puzzle) throws IOException {
+            StringBuilder script = new StringBuilder();
+            int commands = 0;
+            for (int word = 0; word < puzzle.getWordCount(); word++) {
+                WordPlacement placement = puzzle.getPlacement(word);
+                int orientation = placement.getOrientation();
+                for (int k = 0; k < placement.getWord().length(); k++) {
+                    script.append("SEL ").append(placement.getRow() + Direction.ROW_STEP[orientation] * k).append(' ')
+                            .append(placement.getCol() + Direction.COL_STEP[orientation] * k).append('\n');
+                    commands++;
+                }
+            }
+            send(script.toString());
+            for (int i = 0; i < commands; i++) {
+                if (in.readLine() == null) {
+                    throw new IOException("Server closed the connection");
+                }
+            }
+            return commands;
+        }
+
+        /**
+         * Returns true if the server says every word has been found
+         */
+        private boolean isFinished() throws IOException {
+            send("STATE\n");
+            String[] state = in.readLine().split(" ");
+            return state[1].equals(state[2]);
+        }
+
+        /**
+         * Leaves the server
+         */
+        private void quit() throws IOException {
+            send("QUIT\n");
+            socket.close();
+        }
+
+        private void send(String text) throws IOException {
+            out.write(text.getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+        }
+    }
+}
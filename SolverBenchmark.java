@@ -0,0 +1,43 @@
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * This measures how long WordSolver takes to find every dictionary word on a
+ * large random board.
+ *
+ * <p>
+ * Run with: java SolverBenchmark [board size] [dictionary words]
+ *
+ * The following files are also required to run:
+ *
+ * Board.java WordSolver.java WordTrie.java
+ */
+
+public class SolverBenchmark {
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int words = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        SplittableRandom rand = new SplittableRandom(42);
+
+        Board board = new Board(size);
+        for (int i = 0; i < size * size; i++) {
+            board.setCode(i, (byte) (1 + rand.nextInt(Board.LETTERS)));
+        }
+        WordTrie dictionary = new WordTrie();
+        while (dictionary.getSize() < words) {
+            char[] word = new char[3 + rand.nextInt(10)]; // 3 to 12 letters
+            for (int i = 0; i < word.length; i++) {
+                word[i] = (char) ('A' + rand.nextInt(Board.LETTERS));
+            }
+            dictionary.add(new String(word));
+        }
+        dictionary.compact();
+        for (int run = 0; run < 8; run++) { // The first runs warm up the JIT
+            long start = System.nanoTime();
+            List<WordPlacement> found = WordSolver.solve(board, dictionary);
+            System.out.printf("%dx%d board, %d words: %d found in %.1fms%n", size, size, words, found.size(),
+                    (System.nanoTime() - start) / 1e6);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This writes a printed page as an SVG image, with everything kept as text
+ * and lines so it prints sharply at any size.
+ *
+ * <p>
+ * A row of grid letters is a single text element with a position for every
+ * letter, which keeps a page of a large grid to one element per row.
+ *
+ * The following files are also required to run:
+ *
+ * PageCanvas.java
+ */
+
+public final class SvgCanvas implements PageCanvas {
+
+    private final StringBuilder out = new StringBuilder(16384);
+
+    /**
+     * @param width  Width of the page in points
+     * @param height Height of the page in points
+     */
+    public SvgCanvas(double width, double height) {
+        out.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"");
+        PageCanvas.appendNumber(out, width);
+        out.append("pt\" height=\"");
+        PageCanvas.appendNumber(out, height);
+        out.append("pt\" viewBox=\"0 0 ");
+        PageCanvas.appendNumber(out, width);
+        out.append(' ');
+        PageCanvas.appendNumber(out, height);
+        out.append("\">\n<style>text{font-family:'Courier New',Courier,monospace}.b{font-weight:bold}"
+                + ".m{text-anchor:middle}</style>\n<rect width=\"100%\" height=\"100%\" fill=\"#fff\"/>\n");
+    }
+
+    @Override
+    public void text(double x, double y, double size, boolean bold, boolean centred, String text) {
+        out.append("<text");
+        if (bold || centred) {
+            out.append(" class=\"").append(bold && centred ? "b m" : bold ? "b" : "m").append('"');
+        }
+        attribute("x", x);
+        attribute("y", y);
+        attribute("font-size", size);
+        out.append('>');
+        escape(text);
+        out.append("</text>\n");
+    }
+
+    @Override
+    public void row(double x, double y, double size, double pitch, String text) {
+        out.append("<text class=\"m\" x=\"");
+        for (int i = 0; i < text.length(); i++) {
+            if (i > 0) {
+                out.append(' ');
+            }
+            PageCanvas.appendNumber(out, x + i * pitch);
+        }
+        out.append('"');
+        attribute("y", y);
+        attribute("font-size", size);
+        out.append('>');
+        escape(text);
+        out.append("</text>\n");
+    }
+
+    @Override
+    public void rectangle(double x, double y, double width, double height, double lineWidth) {
+        out.append("<rect");
+        attribute("x", x);
+        attribute("y", y);
+        attribute("width", width);
+        attribute("height", height);
+        attribute("stroke-width", lineWidth);
+        out.append(" fill=\"none\" stroke=\"#000\"/>\n");
+    }
+
+    @Override
+    public void highlight(double x1, double y1, double x2, double y2, double width) {
+        out.append("<line");
+        attribute("x1", x1);
+        attribute("y1", y1);
+        attribute("x2", x2);
+        attribute("y2", y2);
+        attribute("stroke-width", width);
+        out.append(" stroke=\"#d0d0d0\" stroke-linecap=\"round\"/>\n");
+    }
+
+    /**
+     * Ends the page and returns it as UTF-8
+     */
+    public byte[] finish() {
+        out.append("</svg>\n");
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void attribute(String name, double value) {
+        out.append(' ').append(name).append("=\"");
+        PageCanvas.appendNumber(out, value);
+        out.append('"');
+    }
+
+    /**
+     * Appends text with the characters that mean something in XML escaped
+     */
+    private void escape(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+            case '<':
+                out.append("&lt;");
+                break;
+            case '>':
+                out.append("&gt;");
+                break;
+            case '&':
+                out.append("&amp;");
+                break;
+            default:
+                out.append(c);
+            }
+        }
+    }
+}
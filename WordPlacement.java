@@ -0,0 +1,70 @@
+/**
+ * This stores where a single word has been written on the game board for the
+ * Word Search game.
+ *
+ * The following files are also required to run:
+ *
+ * Base.java BoardGenerator.java Direction.java
+ */
+
+public final class WordPlacement {
+
+    private final String word; // The word that was placed
+    private final int row; // Row of the first letter
+    private final int col; // Column of the first letter
+    private final int orientation; // One of the Direction codes
+
+    public WordPlacement(String word, int row, int col, int orientation) {
+        this.word = word;
+        this.row = row;
+        this.col = col;
+        this.orientation = orientation;
+    }
+
+    /**
+     * Returns the word that was placed
+     */
+    public String getWord() {
+        return word;
+    }
+
+    /**
+     * Returns the row of the first letter
+     */
+    public int getRow() {
+        return row;
+    }
+
+    /**
+     * Returns the column of the first letter
+     */
+    public int getCol() {
+        return col;
+    }
+
+    /**
+     * Returns the orientation the word was written in
+     */
+    public int getOrientation() {
+        return orientation;
+    }
+
+    /**
+     * Returns the row of the last letter
+     */
+    public int getEndRow() {
+        return row + Direction.ROW_STEP[orientation] * (word.length() - 1);
+    }
+
+    /**
+     * Returns the column of the last letter
+     */
+    public int getEndCol() {
+        return col + Direction.COL_STEP[orientation] * (word.length() - 1);
+    }
+
+    @Override
+    public String toString() {
+        return word + " (" + row + "," + col + ") " + orientation;
+    }
+}
@@ -0,0 +1,297 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * This picks distinct random words from a WordSource for the Word Search game,
+ * optionally only words of certain lengths or from one category.
+ *
+ * <p>
+ * Words are picked with a Fisher-Yates shuffle that stops after the words
+ * needed, and that only records the positions it has swapped instead of
+ * copying out every word number. Matching words are found from the source's
+ * groups, never by looking at single words, so picking k words takes time set
+ * by k and the number of groups, not by the size of the source. Asking for
+ * more words than match fails straight away instead of retrying.
+ *
+ * <p>
+ * sampleUnnested() also skips words that are inside another word picked, read
+ * either way, such as CAT and CATALOG or DOG and GOD. Hiding both would always
+ * show the shorter word twice, which the board filler can't undo. The words
+ * picked are kept in a WordTrie, forwards and backwards, and every suffix of
+ * them in another, so each word drawn is checked by walking its letters
+ * rather than by building its substrings. At most MAX_DRAWS_PER_WORD words are
+ * drawn for each one asked for, so when too many nest it fails quickly instead
+ * of going through the whole source.
+ *
+ * The following files are also required to run:
+ *
+ * WordSource.java WordTrie.java
+ */
+
+public class WordSampler {
+
+    static final int MAX_DRAWS_PER_WORD = 16; // Words drawn per word asked for by sampleUnnested() before giving up
+
+    private final WordSource source;
+
+    /**
+     * @param source Words to pick from. Words are assumed to appear in it only
+     *               once.
+     */
+    public WordSampler(WordSource source) {
+        this.source = source;
+    }
+
+    /**
+     * Returns how many words match the filters
+     *
+     * @param minLength Shortest word allowed
+     * @param maxLength Longest word allowed
+     * @param category  Category the words must be in, or null for any
+     */
+    public int count(int minLength, int maxLength, String category) {
+        int[] groups = matchingGroups(minLength, maxLength, category);
+        return groups.length == 0 ? 0 : groups[groups.length - 1];
+    }
+
+    /**
+     * Picks distinct random words that match the filters
+     *
+     * @param count     How many words to pick
+     * @param minLength Shortest word allowed
+     * @param maxLength Longest word allowed
+     * @param category  Category the words must be in, or null for any
+     * @param rand      Random value generator
+     *
+     * @return The number of each word picked, in the order picked
+     *
+     * @throws IllegalArgumentException If fewer than count words match
+     */
+    public int[] sample(int count, int minLength, int maxLength, String category, SplittableRandom rand) {
+        int[] groups = matchingGroups(minLength, maxLength, category);
+        int total = groups.length == 0 ? 0 : groups[groups.length - 1];
+        if (count < 0 || count > total) {
+            throw new IllegalArgumentException("Asked for " + count + " words but only " + total + " have "
+                    + minLength + " to " + maxLength + " letters"
+                    + (category == null ? "" : " in category " + category));
+        }
+
+        Shuffle shuffle = new Shuffle(count);
+        int[] picked = new int[count];
+        for (int i = 0; i < count; i++) {
+            picked[i] = wordAt(groups, shuffle.next(i, total, rand));
+        }
+        return picked;
+    }
+
+    /**
+     * Picks distinct random words that match the filters, like sample(), but
+     * skips any word that is inside a word already picked, or has one inside it,
+     * read forwards or backwards
+     *
+     * @param count     How many words to pick
+     * @param minLength Shortest word allowed
+     * @param maxLength Longest word allowed
+     * @param category  Category the words must be in, or null for any
+     * @param rand      Random value generator
+     *
+     * @return The number of each word picked, in the order picked
+     *
+     * @throws IllegalArgumentException If count words can't be found that match
+     *                                  and don't nest
+     */
+    public int[] sampleUnnested(int count, int minLength, int maxLength, String category, SplittableRandom rand) {
+        int[] groups = matchingGroups(minLength, maxLength, category);
+        int total = groups.length == 0 ? 0 : groups[groups.length - 1];
+        if (count < 0 || count > total) {
+            throw new IllegalArgumentException("Asked for " + count + " words but only " + total + " have "
+                    + minLength + " to " + maxLength + " letters"
+                    + (category == null ? "" : " in category " + category));
+        }
+
+        WordTrie pickedBothWays = new WordTrie(); // Words picked, and the same words reversed
+        WordTrie parts = new WordTrie(); // Every run of letters in pickedBothWays, as a prefix of a suffix
+        Shuffle shuffle = new Shuffle(count);
+        int[] picked = new int[count];
+        int found = 0;
+        long draws = Math.min(total, (long) count * MAX_DRAWS_PER_WORD); // Words drawn before giving up
+        for (int i = 0; i < draws && found < count; i++) {
+            int index = wordAt(groups, shuffle.next(i, total, rand));
+            String word = source.getWord(index);
+            if (parts.isPrefix(word) || holdsAny(word, pickedBothWays)) {
+                continue;
+            }
+            String reversed = new StringBuilder(word).reverse().toString();
+            pickedBothWays.add(word);
+            pickedBothWays.add(reversed);
+            for (int start = 0; start < word.length(); start++) {
+                parts.add(word.substring(start));
+                parts.add(reversed.substring(start));
+            }
+            picked[found++] = index;
+        }
+        if (found < count) {
+            throw new IllegalArgumentException("Asked for " + count + " words but only " + found + " of " + draws
+                    + " drawn aren't inside each other");
+        }
+        return picked;
+    }
+
+    /**
+     * Returns true if any run of letters in a word is a word in a trie. Each
+     * suffix of the word is followed down the trie until no word starts with it,
+     * so most suffixes stop after a letter or two.
+     */
+    private static boolean holdsAny(String word, WordTrie words) {
+        for (int start = 0; start < word.length(); start++) {
+            int node = WordTrie.ROOT;
+            for (int i = start; i < word.length(); i++) {
+                node = words.step(node, word.charAt(i));
+                if (node == WordTrie.NONE) {
+                    break;
+                }
+                if (words.isWord(node)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the groups that match the filters. The first half of the returned
+     * array holds the group numbers and the second half the running total of
+     * words up to and including each group.
+     */
+    private int[] matchingGroups(int minLength, int maxLength, String category) {
+        int wanted = -1;
+        if (category != null) {
+            wanted = source.findCategory(category);
+            if (wanted < 0) {
+                return new int[0];
+            }
+        }
+        int[] found = new int[source.getGroupCount() * 2];
+        int matches = 0;
+        int total = 0;
+        for (int g = 0; g < source.getGroupCount(); g++) {
+            int length = source.getGroupLength(g);
+            if (length >= minLength && length <= maxLength && (wanted < 0 || source.getGroupCategory(g) == wanted)) {
+                total += source.getGroupSize(g);
+                found[matches] = g;
+                found[source.getGroupCount() + matches] = total;
+                matches++;
+            }
+        }
+        int[] groups = new int[matches * 2];
+        System.arraycopy(found, 0, groups, 0, matches);
+        System.arraycopy(found, source.getGroupCount(), groups, matches, matches);
+        return groups;
+    }
+
+    /**
+     * Returns the word number at a position among the matching words
+     */
+    private int wordAt(int[] groups, int position) {
+        int matches = groups.length / 2;
+        int low = 0;
+        int high = matches - 1;
+        while (low < high) { // First group whose running total is past position
+            int middle = (low + high) >>> 1;
+            if (groups[matches + middle] > position) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        int before = low == 0 ? 0 : groups[matches + low - 1]; // Matching words in earlier groups
+        return source.getGroupStart(groups[low]) + position - before;
+    }
+
+    /**
+     * This shuffles the positions 0 to total - 1 one step at a time without
+     * storing them. A position that isn't in the swap table still holds itself,
+     * and the table grows if more steps are taken than were expected.
+     */
+    private static final class Shuffle {
+
+        private int[] keys;
+        private int[] values;
+        private int used; // Slots holding a position
+
+        Shuffle(int expected) {
+            resize(Integer.highestOneBit(Math.max(4, expected * 4) - 1) << 1);
+        }
+
+        /**
+         * Takes step i of the shuffle, returning the position it lands on
+         */
+        int next(int i, int total, SplittableRandom rand) {
+            int j = i + rand.nextInt(total - i);
+            int atJ = get(j);
+            put(j, get(i)); // Position i is never read again
+            return atJ;
+        }
+
+        /**
+         * Returns what a position of the shuffle holds
+         */
+        private int get(int position) {
+            int mask = keys.length - 1;
+            for (int slot = mix(position) & mask;; slot = (slot + 1) & mask) {
+                if (keys[slot] == position) {
+                    return values[slot];
+                }
+                if (keys[slot] == -1) {
+                    return position;
+                }
+            }
+        }
+
+        /**
+         * Sets what a position of the shuffle holds
+         */
+        private void put(int position, int value) {
+            if (used * 2 >= keys.length) {
+                resize(keys.length * 2);
+            }
+            int mask = keys.length - 1;
+            int slot = mix(position) & mask;
+            while (keys[slot] != -1 && keys[slot] != position) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == -1) {
+                used++;
+            }
+            keys[slot] = position;
+            values[slot] = value;
+        }
+
+        /**
+         * Moves every position into a table of a new size
+         */
+        private void resize(int capacity) {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new int[capacity];
+            values = new int[capacity];
+            Arrays.fill(keys, -1);
+            used = 0;
+            if (oldKeys != null) {
+                for (int slot = 0; slot < oldKeys.length; slot++) {
+                    if (oldKeys[slot] != -1) {
+                        put(oldKeys[slot], oldValues[slot]);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Spreads the bits of a position so nearby positions use different slots
+         */
+        private static int mix(int position) {
+            int h = position * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -6,10 +6,18 @@ import javafx.scene.Group;
 import javafx.scene.Scene;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
+import javafx.scene.text.Text;
 import javafx.scene.control.*;
 import javafx.scene.canvas.*;
 import javafx.scene.input.*;
 import javafx.stage.Stage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
 
 /**
  * Basic word search game using JavaFX, created for submission for KIT101 custom
@@ -17,10 +25,56 @@ import javafx.stage.Stage;
  * 
  * This program manages the GUI, and uses JavaFX
  * 
+ * <p>
+ * The board is drawn through a BoardViewport, so boards larger than the window
+ * can be panned by dragging and zoomed with the scroll wheel or the + and -
+ * keys, and the view follows the selection square. Only the cells that can be
+ * seen are drawn, each copied from a GlyphAtlas.
+ * 
+ * <p>
+ * Usage: java WordSearch [-p profile] [-w dictionary] [-r replay log]
+ * 
+ * <p>
+ * A profile in the form read by DifficultyProfile.parse() adds a Custom button
+ * for boards of any size, and a dictionary file written by DictionaryCompiler
+ * replaces the built in word library. With a replay log, every game is
+ * recorded and added to the end of it when it is won or the window is closed,
+ * to be played again by ReplayRunner.
+ * 
+ * <p>
+ * A game that hasn't been won when the window closes is saved to
+ * .wordsearch.wsa in the home folder, and a Resume button carries on from it
+ * next time.
+ * 
+ * <p>
+ * Frame times, dropped frames and the time from a key press to the screen
+ * showing it are recorded in GameMetrics, which can be watched through JMX or
+ * shown over the board by pressing F3.
+ * 
+ * <p>
+ * The game itself runs on the thread of a GameLoop. Key presses are only
+ * posted to it as inputs, and each frame draws whatever GameSnapshot it last
+ * published, so a key press never waits for drawing and drawing never waits
+ * for the game. Only the view, its zoom and the metrics overlay belong to the
+ * JavaFX thread.
+ * 
  * The following files are also required to run:
  * 
  * Base.java
- * WordList.java
+ * BoardViewport.java
+ * Difficulty.java
+ * DifficultyProfile.java
+ * GameLogic.java
+ * GameLoop.java
+ * GameMetrics.java
+ * GameSnapshot.java
+ * GlyphAtlas.java
+ * MappedWordSource.java
+ * PuzzleArchive.java
+ * PuzzlePool.java
+ * Puzzle.java
+ * Replay.java
+ * ReplayLog.java
  * WordSelect.java
  * 
  * @version 2.0
@@ -28,21 +82,48 @@ import javafx.stage.Stage;
  * @version 14 May 2018
  */
 public class WordSearch extends Application implements EventHandler<KeyEvent> {
-    enum Difficulty {
-        EASY, MEDIUM, HARD
-    }
-
     final int windowSize = 600; // Sets the window size
     int boardSize;
-    int colSelection = 4; // The column that the user currently has selected
-    int rowSelection = 6; // The row that the user currently has selected
+    int colSelection = 4; // The column of the selection square, as last drawn
+    int rowSelection = 6; // The row of the selection square, as last drawn
     final int VBOX_SPACING = 25;
+    final int WORD_LIST_COLUMNS = 4; // Words listed on each row above the board
+    final int WORD_LIST_ROWS = 3; // Rows of words that fit above the selected word
     Difficulty difficulty; // Enum variable to contain difficulty setting
     Scene difficultyScene, mainScene, endScene; // The three scenes to contain the three views of Difficulty Selection,
                                                 // Main Game, and Game Over
     GraphicsContext gc; // Graphics Context used to print the Main Game screen
     String wordIn = new String(); // Stores the word that the user selects
     Base game = new Base();
+    GameLoop logic; // Runs the game being played on its own thread
+    GameSnapshot shown; // State of the game as last drawn
+    Path replayFile; // Log every game is recorded to, if any
+    Replay.Recorder recording; // Inputs of the game being played, if it is being recorded
+    PuzzlePool pool; // Boards generated in the background, ready for each difficulty
+    VBox menu; // Difficulty buttons, disabled while a board is being made
+    Label menuStatus = new Label(); // Says when a board is being made, or why it couldn't be
+    BoardViewport viewport = new BoardViewport(0, 86, windowSize, windowSize - 86); // Area below the word list
+    GlyphAtlas atlas = new GlyphAtlas(); // Letters drawn at the current cell size
+    Text wordMeasure = new Text(); // Measures words in the list, to strike through found ones
+    double dragX, dragY; // Last mouse position while the board is being dragged
+    final Path saveFile = Paths.get(System.getProperty("user.home"), ".wordsearch.wsa"); // Unfinished game, if any
+    boolean playing; // A game is on screen and not yet won
+    boolean resumed; // The saved game has been taken up, so the save is only kept while it is unfinished
+    GameMetrics metrics = GameMetrics.get(); // Frame and key timings, also shown through JMX
+    boolean showMetrics; // Metrics overlay is on, toggled with F3
+    long metricsDrawn; // When the metrics overlay was last drawn
+    final long METRICS_REFRESH_NANOS = 500_000_000; // How often the metrics overlay is updated
+    final int METRICS_HEIGHT = 70; // Height of the metrics overlay at the bottom of the window
+
+    // Parts of the canvas that have changed since they were last drawn. Only these
+    // are repainted, so an idle game does no drawing at all.
+    boolean boardDirty; // Whole canvas needs redrawing, e.g. after a new board is made
+    boolean selectionDirty; // Selection square has moved
+    boolean wordDirty; // Selected word has changed
+    boolean listDirty; // Word list has changed
+    boolean metricsDirty; // Metrics overlay is due to be drawn again
+    int drawnRow = -1; // Row the selection square was last drawn on
+    int drawnCol = -1; // Column the selection square was last drawn on
 
     public static void main(String[] args) {
         launch(args); // Runs start()
@@ -52,9 +133,30 @@ public class WordSearch extends Application implements EventHandler<KeyEvent> {
      * Runs the basic game starting, and printing of the start and end scene, as well as button
      * handling and the Animation Timer for the mainGame
      */
-    public void start(Stage gameStage) {
+    public void start(Stage gameStage) throws Exception {
         gameStage.setTitle("Word Search v2.0");
 
+        DifficultyProfile customProfile = null; // Given on the command line, if any
+        List<String> args = getParameters().getRaw();
+        for (int i = 0; i + 1 < args.size(); i += 2) {
+            if (args.get(i).equals("-p")) {
+                customProfile = DifficultyProfile.parse(args.get(i + 1));
+            } else if (args.get(i).equals("-w")) {
+                game.setWordSource(MappedWordSource.open(Paths.get(args.get(i + 1))));
+            } else if (args.get(i).equals("-r")) {
+                replayFile = Paths.get(args.get(i + 1));
+            }
+        }
+        List<DifficultyProfile> profiles = new ArrayList<DifficultyProfile>();
+        for (Difficulty level : Difficulty.values()) {
+            profiles.add(level.getProfile());
+        }
+        if (customProfile != null) {
+            profiles.add(customProfile);
+        }
+        pool = new PuzzlePool(game.getWordSource(), PuzzlePool.DEFAULT_BOARDS_PER_PROFILE,
+                profiles.toArray(new DifficultyProfile[0])); // Starts generating every board the buttons can ask for
+
         Label introLabel = new Label("Welcome to this Word Search");
         Label instructions1 = new Label("Use arrow keys and enter to select each letter of the word");
         Label instructions2 = new Label("Use backspace to delete the most recent letter");
@@ -65,12 +167,42 @@ public class WordSearch extends Application implements EventHandler<KeyEvent> {
 
         VBox rootForDifficulty = new VBox(VBOX_SPACING);
         rootForDifficulty.getChildren().addAll(introLabel, instructions1, instructions2, difficultyLabel,
-                difficultyEasy, difficultyMedium, difficultyHard); // Adds labels and buttons
+                menuStatus, difficultyEasy, difficultyMedium, difficultyHard); // Adds labels and buttons
+        menu = rootForDifficulty;
+        Button difficultyCustom = null;
+        if (customProfile != null) {
+            difficultyCustom = new Button("Custom (" + customProfile.getBoardSize() + "x"
+                    + customProfile.getBoardSize() + ")");
+            rootForDifficulty.getChildren().add(difficultyCustom);
+        }
+        SavedGame saved = loadGame();
+        Button resume = null;
+        if (saved != null) {
+            resume = new Button("Resume (" + (saved.getPuzzle().getWordCount() - saved.resume().getFoundCount())
+                    + " words left)");
+            rootForDifficulty.getChildren().add(resume);
+        }
         difficultyScene = new Scene(rootForDifficulty, windowSize, windowSize); // Sets the window size and content to
                                                                                 // show
 
         Canvas canvas = new Canvas(windowSize, windowSize);
         gc = canvas.getGraphicsContext2D();
+        canvas.setOnScroll(e -> { // Zooms around the mouse
+            if (e.getDeltaY() != 0 && viewport.zoomAt(Math.signum(e.getDeltaY()), e.getX(), e.getY())) {
+                boardDirty = true;
+            }
+        });
+        canvas.setOnMousePressed(e -> {
+            dragX = e.getX();
+            dragY = e.getY();
+        });
+        canvas.setOnMouseDragged(e -> { // Pans the board with the mouse
+            if (viewport.pan(e.getX() - dragX, e.getY() - dragY)) {
+                boardDirty = true;
+            }
+            dragX = e.getX();
+            dragY = e.getY();
+        });
 
         Box keyboardNode = new Box();
         keyboardNode.setFocusTraversable(true);
@@ -94,11 +226,23 @@ public class WordSearch extends Application implements EventHandler<KeyEvent> {
 
         AnimationTimer mainGame = new AnimationTimer() {
             @Override
-            public void handle(long arg0) {
-                gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight()); // Clears the canvas to prevent jagged
-                                                                           // looking characters
+            public void handle(long now) {
+                metrics.recordPulse(now);
+                GameSnapshot state = logic.getSnapshot();
+                if (state != shown) {
+                    show(state);
+                }
+                if (showMetrics && now - metricsDrawn > METRICS_REFRESH_NANOS) {
+                    metricsDirty = true;
+                    metricsDrawn = now;
+                }
+                if (!(boardDirty || selectionDirty || wordDirty || listDirty || metricsDirty)) {
+                    return; // Nothing has changed since the last frame
+                }
+                long start = System.nanoTime();
                 run();
-                wordIn = game.getWordIn();
+                metrics.recordFrame(System.nanoTime() - start);
+                metrics.repainted();
                 checkForEnd(gameStage);
             }
         };
@@ -108,31 +252,46 @@ public class WordSearch extends Application implements EventHandler<KeyEvent> {
 
         difficultyEasy.setOnAction(e -> { // When Easy selected
             difficulty = Difficulty.EASY; // Sets difficulty level
-            game.initGameBoard(difficulty);
-            boardSize = game.getBoardSize();
-            gameStage.setScene(mainScene); // Sets the stage to show main game scene
-            mainGame.start(); // Starts the animation timer that prints the gameboard
-
+            startGame(difficulty.getProfile(), gameStage, mainGame);
         });
 
         difficultyMedium.setOnAction(e -> { // When Medium selected
             difficulty = Difficulty.MEDIUM; // Sets difficulty level
-            game.initGameBoard(difficulty);
-            boardSize = game.getBoardSize();
-            gameStage.setScene(mainScene); // Sets the stage to show main game scene
-            mainGame.start(); // Starts the animation timer that prints the gameboard
+            startGame(difficulty.getProfile(), gameStage, mainGame);
         });
 
         difficultyHard.setOnAction(e -> { // When Hard selected
             difficulty = Difficulty.HARD; // Sets difficulty level
-            game.initGameBoard(difficulty);
-            boardSize = game.getBoardSize();
-            gameStage.setScene(mainScene); // Sets the stage to show main game scene
-            mainGame.start(); // Starts the animation timer that prints the gameboard
+            startGame(difficulty.getProfile(), gameStage, mainGame);
         });
 
+        if (difficultyCustom != null) {
+            DifficultyProfile profile = customProfile;
+            difficultyCustom.setOnAction(e -> { // When Custom selected
+                difficulty = null; // Not one of the built in difficulties
+                startGame(profile, gameStage, mainGame);
+            });
+        }
+
+        if (resume != null) {
+            Button resumeButton = resume;
+            resumeButton.setOnAction(e -> { // When Resume selected
+                game = new Base(); // Not the one the last game's thread may still be using
+                game.resumeGame(saved);
+                difficulty = game.getDifficulty();
+                rowSelection = saved.getCursorRow();
+                colSelection = saved.getCursorCol();
+                showNewBoard();
+                rootForDifficulty.getChildren().remove(resumeButton); // Only resumed once
+                resumed = true;
+                gameStage.setScene(mainScene); // Sets the stage to show main game scene
+                mainGame.start(); // Starts the animation timer that prints the gameboard
+            });
+        }
+
         againYes.setOnAction(e -> { // If use chooses to play again
             mainGame.stop(); // Stops main game loop
+            metrics.stopPulses(); // Time on the menu isn't dropped frames
             gameStage.setScene(difficultyScene); // Resets stage to show starting screen
         });
 
@@ -140,61 +299,270 @@ public class WordSearch extends Application implements EventHandler<KeyEvent> {
     }
 
     /**
-     * Event handler for keyboard events
+     * Takes a board of a given profile from the pool and starts playing it. If
+     * none is ready yet the menu says so and waits for one to be made on a pool
+     * thread, so the JavaFX thread keeps drawing in the meantime.
+     */
+    void startGame(DifficultyProfile profile, Stage gameStage, AnimationTimer mainGame) {
+        menu.setDisable(true); // Only one board is asked for at a time
+        menuStatus.setText("Generating board...");
+        pool.takeAsync(profile).whenComplete((made, error) -> Platform.runLater(() -> {
+            menu.setDisable(false);
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                menuStatus.setText("Couldn't generate a board: " + cause.getMessage());
+                return;
+            }
+            menuStatus.setText("");
+            game = made;
+            showNewBoard();
+            gameStage.setScene(mainScene); // Sets the stage to show main game scene
+            mainGame.start(); // Starts the animation timer that prints the gameboard
+        }));
+    }
+
+    /**
+     * Stops generating boards in the background when the window is closed, and
+     * saves the game if it hasn't been won so it can be resumed next time. A
+     * save that was never resumed is kept, so closing from the menu doesn't lose
+     * it.
+     */
+    @Override
+    public void stop() {
+        pool.shutdown();
+        GameSnapshot state = null;
+        if (logic != null) {
+            logic.close(); // Finishes any inputs still waiting
+            state = logic.getSnapshot();
+        }
+        if (playing) {
+            saveRecording(state);
+        }
+        try {
+            if (playing && !state.isFinished()) {
+                try (PuzzleArchive.Writer out = PuzzleArchive.create(saveFile)) {
+                    out.add(state.getPuzzle(), state.getFoundBits(), state.getRow(), state.getCol());
+                }
+            } else if (resumed) {
+                Files.deleteIfExists(saveFile); // The resumed game was won, so nothing is left to resume
+            }
+        } catch (IOException e) {
+            System.err.println("Unable to save game to " + saveFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the game saved when the window was last closed, or null if there is
+     * none or it can't be read
+     */
+    public SavedGame loadGame() {
+        if (!Files.exists(saveFile)) {
+            return null;
+        }
+        try {
+            SavedGame saved = PuzzleArchive.open(saveFile).getGame(0);
+            saved.resume(); // Checks the found words fit the puzzle
+            return saved;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Unable to resume game from " + saveFile + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Shows the board just generated from its top left corner, keeping the
+     * selection square on the board, and starts running the game on its own
+     * thread
+     */
+    public void showNewBoard() {
+        if (logic != null) {
+            logic.close(); // The last game is finished with
+        }
+        logic = new GameLoop(new GameLogic(game, rowSelection, colSelection));
+        shown = logic.getSnapshot();
+        boardSize = game.getBoardSize();
+        rowSelection = shown.getRow();
+        colSelection = shown.getCol();
+        wordIn = shown.getSelectedText();
+        if (replayFile != null) {
+            recording = new Replay.Recorder(shown, System.nanoTime());
+        }
+        viewport.reset(boardSize);
+        viewport.scrollToCell(rowSelection, colSelection);
+        boardDirty = true;
+        playing = true;
+    }
+
+    /**
+     * Event handler for keyboard events. Keys that play the game are posted to
+     * the game thread, and only change the screen once it has applied them.
      */
     public void handle(KeyEvent e) {
+        metrics.keyPressed();
 
         if (e.getCode() == KeyCode.LEFT) { // If left button pressed
-            if (colSelection - 1 >= 0) { // And not on edge
-                colSelection--; // Move selection square to the left
-            }
+            post(GameLogic.Input.LEFT); // Move selection square to the left
         }
         if (e.getCode() == KeyCode.RIGHT) { // If right button pressed
-            if (colSelection + 1 < boardSize) { // And not on edge
-                colSelection++; // Move selection square to the right
-            }
+            post(GameLogic.Input.RIGHT); // Move selection square to the right
         }
         if (e.getCode() == KeyCode.UP) { // If up button pressed
-            if (rowSelection - 1 >= 0) { // And not on edge
-                rowSelection--; // Move selection square up
-            }
+            post(GameLogic.Input.UP); // Move selection square up
         }
         if (e.getCode() == KeyCode.DOWN) { // If down button pressed
-            if (rowSelection + 1 < boardSize) { // And not on edge
-                rowSelection++; // Move selection square down
-            }
+            post(GameLogic.Input.DOWN); // Move selection square down
         }
         if (e.getCode() == KeyCode.ENTER) { // If ENTER is presed
-            game.selectFoundWord(rowSelection, colSelection);
+            post(GameLogic.Input.SELECT);
         }
         if (e.getCode() == KeyCode.DELETE || e.getCode() == KeyCode.BACK_SPACE) { // If delete or backspace is pressed
-            game.deleteLastLetter();
-            game.wordSelectToString();
+            post(GameLogic.Input.DELETE);
+        }
+        if (e.getCode() == KeyCode.PLUS || e.getCode() == KeyCode.EQUALS || e.getCode() == KeyCode.ADD) {
+            boardDirty |= viewport.zoomAtCell(1, rowSelection, colSelection); // Zooms in around the selection
+        }
+        if (e.getCode() == KeyCode.MINUS || e.getCode() == KeyCode.SUBTRACT) {
+            boardDirty |= viewport.zoomAtCell(-1, rowSelection, colSelection); // Zooms out around the selection
+        }
+        if (e.getCode() == KeyCode.F3) { // Shows or hides the metrics overlay
+            showMetrics = !showMetrics;
+            boardDirty = true; // Redraws the cells under the overlay when it is hidden
+        }
+    }
+
+    /**
+     * Passes an input to the game thread, and records it if the game is being
+     * recorded
+     */
+    public void post(GameLogic.Input input) {
+        logic.post(input);
+        if (recording != null) {
+            recording.add(input, System.nanoTime());
+        }
+    }
+
+    /**
+     * Adds the game just ended to the replay log, if it was being recorded
+     * 
+     * @param end The final state of the game
+     */
+    public void saveRecording(GameSnapshot end) {
+        if (recording == null) {
+            return;
+        }
+        try (ReplayLog.Writer out = ReplayLog.append(replayFile)) {
+            out.add(recording.finish(end));
+        } catch (IOException e) {
+            System.err.println("Unable to record game to " + replayFile + ": " + e.getMessage());
+        }
+        recording = null;
+    }
+
+    /**
+     * Marks the parts of the canvas that differ between the state last drawn
+     * and a newer one from the game thread, then keeps the newer one to draw
+     */
+    public void show(GameSnapshot state) {
+        if (state.getRow() != rowSelection || state.getCol() != colSelection) {
+            rowSelection = state.getRow();
+            colSelection = state.getCol();
+            selectionDirty = true;
+            boardDirty |= viewport.scrollToCell(rowSelection, colSelection); // Keeps the selection in view
+        }
+        if (!state.getSelectedText().equals(wordIn)) {
+            wordIn = state.getSelectedText();
+            wordDirty = true;
+        }
+        if (state.getFoundCount() != shown.getFoundCount()) { // A word was found
+            listDirty = true;
         }
+        shown = state;
     }
 
     /**
-     * Is called in the animation timer, at a rate of 60 times a second. Is
-     * responsible for printing all graphic components of the main game
+     * Is called in the animation timer whenever something has changed. Only
+     * repaints the parts of the canvas that are out of date: the visible part of
+     * the board after a new game starts or the view moves, otherwise just the cells
+     * under the old and new selection square, the selected word and the word list.
      */
     public void run() {
-        gcPrintGameBoard();
-        showSelection();
-        printWordList();
-        printSelectedWord();
+        boolean redrawn = boardDirty || selectionDirty; // Cells may have been drawn over the metrics overlay
+        if (boardDirty) {
+            gcPrintGameBoard();
+            drawnRow = -1; // Old selection square was cleared with the rest of the board
+            selectionDirty = wordDirty = listDirty = true;
+            boardDirty = false;
+        }
+        if (selectionDirty) {
+            if (drawnRow >= 0) {
+                printCell(drawnRow, drawnCol); // Removes the old selection square
+            }
+            showSelection();
+            drawnRow = rowSelection;
+            drawnCol = colSelection;
+            selectionDirty = false;
+        }
+        if (listDirty) {
+            gc.clearRect(0, 0, windowSize, 62); // Area above the selected word
+            printWordList();
+            listDirty = false;
+        }
+        if (wordDirty) {
+            gc.clearRect(0, 62, windowSize, 20); // Area between the word list and the board
+            printSelectedWord();
+            wordDirty = false;
+        }
+        if (showMetrics && (metricsDirty || redrawn)) {
+            printMetrics();
+        }
+        metricsDirty = false;
+    }
+
+    /**
+     * Prints the metrics overlay over the bottom of the board
+     */
+    public void printMetrics() {
+        double top = windowSize - METRICS_HEIGHT;
+        gc.clearRect(0, top, windowSize, METRICS_HEIGHT);
+        gc.strokeRect(0.5, top + 0.5, windowSize - 1, METRICS_HEIGHT - 1);
+        String[] lines = metrics.getOverlayLines();
+        for (int i = 0; i < lines.length; i++) {
+            gc.fillText(lines[i], 8, top + 16 + 15 * i);
+        }
     }
 
     /**
-     * Prints the word list
+     * Prints the word list. Every word keeps its place, and found words are
+     * struck through. If there are more words than fit above the board, only the
+     * words still to be found are listed, ending with how many more there are.
      */
     public void printWordList() {
         int rowCounter = 0;
         int colCounter = 0;
         int indent = 15;
-        for (int i = 0; i < game.getWordListSize(); i++) {
-            gc.fillText(game.getWordListValue(i), (indent + (125 * colCounter)), (indent + (20 * rowCounter)));
+        int slots = WORD_LIST_COLUMNS * WORD_LIST_ROWS;
+        Puzzle puzzle = shown.getPuzzle();
+        boolean crowded = puzzle.getWordCount() > slots; // Too many to list every word
+        int left = shown.getRemainingCount();
+        for (int i = 0; i < puzzle.getWordCount() && rowCounter < WORD_LIST_ROWS; i++) {
+            boolean found = shown.isFound(i);
+            if (crowded && found) {
+                continue;
+            }
+            double x = indent + (125 * colCounter);
+            double y = indent + (20 * rowCounter);
+            if (crowded && left > 1 && rowCounter == WORD_LIST_ROWS - 1 && colCounter == WORD_LIST_COLUMNS - 1) {
+                gc.fillText("+" + left + " more", x, y); // Last slot, with more words than slots left
+                break;
+            }
+            gc.fillText(puzzle.getWord(i), x, y);
+            if (found) {
+                wordMeasure.setText(puzzle.getWord(i));
+                gc.strokeLine(x, y - 4, x + wordMeasure.getLayoutBounds().getWidth(), y - 4);
+            }
+            left -= found ? 0 : 1;
             colCounter++;
-            if (colCounter == 4) {
+            if (colCounter == WORD_LIST_COLUMNS) {
                 colCounter = 0;
                 rowCounter++;
             }
@@ -202,12 +570,12 @@ public class WordSearch extends Application implements EventHandler<KeyEvent> {
     }
 
     /**
-     * This prints the contents of the gameBoard char array to the console, to be
+     * This prints the contents of the gameBoard to the console, to be
      * used for debugging purposes only.
-     * 
-     * <p>
-     * To run, uncomment the "printGameBoard()" line in initGameBoard()
+     *
      * <p>
+     * Nothing calls it. To use it, call it at the end of showNewBoard(), once
+     * the new board is set.
      */
     public void printGameBoard() {
         for (int i = 0; i < boardSize; i++) {
@@ -219,15 +587,36 @@ public class WordSearch extends Application implements EventHandler<KeyEvent> {
     }
 
     /**
-     * This prints the gameBoard char array to the canvas, and is used to
-     * graphically show the game board to the user
+     * This prints the gameBoard to the canvas, and is used to
+     * graphically show the game board to the user. Only the cells inside the
+     * viewport are drawn, so this takes the same time for any size of board.
      */
     public void gcPrintGameBoard() {
-        for (int i = 0; i < boardSize; i++) {
-            for (int j = 0; j < boardSize; j++) {
-                gc.fillText(String.valueOf(game.getBoardPos(i, j)), (25 + (20 * j)), (100 + (20 * i)));
+        atlas.update(viewport.getCellSize());
+        Board board = game.getBoard();
+        int lastRow = viewport.getLastRow();
+        int lastCol = viewport.getLastCol();
+        clipToBoard();
+        gc.clearRect(viewport.getViewX(), viewport.getViewY(), viewport.getViewWidth(), viewport.getViewHeight());
+        for (int i = viewport.getFirstRow(); i <= lastRow; i++) {
+            double y = viewport.getCellY(i);
+            for (int j = viewport.getFirstCol(); j <= lastCol; j++) {
+                atlas.draw(gc, board.getCode(board.index(i, j)), viewport.getCellX(j), y, false);
             }
         }
+        gc.restore();
+    }
+
+    /**
+     * Prints a single cell of the gameBoard, without the selection square
+     */
+    public void printCell(int row, int col) {
+        if (viewport.isVisible(row, col)) {
+            clipToBoard();
+            atlas.draw(gc, game.getBoard().getCode(game.getBoard().index(row, col)), viewport.getCellX(col),
+                    viewport.getCellY(row), false);
+            gc.restore();
+        }
     }
 
     /**
@@ -235,13 +624,24 @@ public class WordSearch extends Application implements EventHandler<KeyEvent> {
      * char
      */
     public void showSelection() {
-        gc.save(); // Saves gc state before printing
-        gc.setFill(Color.BLACK);
-        gc.fillRect((22 + (20 * colSelection)), (88 + (20 * rowSelection)), 15, 15);
-        gc.setFill(Color.WHITE);
-        gc.fillText(String.valueOf(game.getBoardPos(rowSelection, colSelection)), (25 + (20 * colSelection)),
-                (100 + (20 * rowSelection)));
-        gc.restore(); // Restores saved gc state
+        if (viewport.isVisible(rowSelection, colSelection)) {
+            clipToBoard();
+            atlas.draw(gc, game.getBoard().getCode(game.getBoard().index(rowSelection, colSelection)),
+                    viewport.getCellX(colSelection), viewport.getCellY(rowSelection), true);
+            gc.restore();
+        }
+    }
+
+    /**
+     * Saves the gc state and stops anything being drawn outside the viewport, so
+     * cells cut by its edge don't cover the word list. Must be followed by
+     * gc.restore().
+     */
+    private void clipToBoard() {
+        gc.save();
+        gc.beginPath();
+        gc.rect(viewport.getViewX(), viewport.getViewY(), viewport.getViewWidth(), viewport.getViewHeight());
+        gc.clip();
     }
 
     /**
@@ -252,13 +652,16 @@ public class WordSearch extends Application implements EventHandler<KeyEvent> {
     }
 
     /**
-     * Checks if wordList is empty, and if it is shows the endScene
+     * Checks if every word has been found, and if so shows the endScene. The
+     * scene is only changed once, when the game is first seen to be won.
      * 
      * @param gameStage The stage for the main JavaFX screen that is changed to the
      *                  final screen
      */
     public void checkForEnd(Stage gameStage) {
-        if (game.getWordListSize() == 0) {
+        if (playing && shown.isFinished()) {
+            playing = false;
+            saveRecording(shown);
             gameStage.setScene(endScene);
         }
     }
@@ -1,65 +1,151 @@
-import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
- * This manages the wordSelect ArrayList for the Word Search game. The ArrayList
- * is used to track characters the user has selected so far.
- * 
+ * This manages the letters the user has selected so far in the Word Search
+ * game.
+ *
+ * <p>
+ * Letters are kept in a plain char array used as a stack. For every prefix the
+ * matching trie node and hash are stored too, so adding or removing a letter
+ * updates the match state in constant time. The selected word is only turned
+ * into a String when something asks to display it.
+ *
  * The following files are also required to run.
- * 
- * WordSearch.java Base.java WordList.java
- * 
+ *
+ * WordSearch.java Base.java GameSession.java WordTrie.java
+ *
  * @version 2.0
  * @author Seth Hilder (478393)
- * @version 14 May 2018
  */
 
 public class WordSelected {
 
-    private ArrayList<Character> wordSelect = new ArrayList<Character>(); // Stores the list of words to find
+    private char[] letters = new char[16]; // Selected letters, oldest first
+    private int[] nodes = new int[17]; // Trie node reached after each number of letters
+    private int[] hashes = new int[17]; // String hash of the letters so far, for each number of letters
+    private int size; // Number of letters selected
+    private WordTrie index; // Words that the selection is matched against
+    private String text = ""; // Last String made from the selection
+    private boolean textValid = true; // Whether text still matches the selection
+
+    /**
+     * Sets the words that the selection is matched against
+     */
+    public void setIndex(WordTrie index) {
+        this.index = index;
+        nodes[0] = index == null ? WordTrie.NONE : WordTrie.ROOT;
+        for (int i = 0; i < size; i++) {
+            nodes[i + 1] = index == null ? WordTrie.NONE : index.step(nodes[i], letters[i]);
+        }
+    }
 
     /**
      * Adds a letter to wordSelect
      */
     public void addLetter(char val) {
-        wordSelect.add(val);
+        if (size == letters.length) {
+            letters = Arrays.copyOf(letters, size * 2);
+            nodes = Arrays.copyOf(nodes, size * 2 + 1);
+            hashes = Arrays.copyOf(hashes, size * 2 + 1);
+        }
+        letters[size] = val;
+        hashes[size + 1] = 31 * hashes[size] + val;
+        nodes[size + 1] = index == null ? WordTrie.NONE : index.step(nodes[size], val);
+        size++;
+        textValid = false;
     }
 
     /**
      * Returns the number of characters currently stored in wordSelect
      */
     public int getSize() {
-        return wordSelect.size();
+        return size;
     }
 
     /**
      * Returns the character at a given position
-     * 
+     *
      * @param pos Position of value that is returned
      */
     public char getValue(int pos) {
-        return wordSelect.get(pos);
+        if (pos >= size) {
+            throw new IndexOutOfBoundsException(pos);
+        }
+        return letters[pos];
     }
 
     /**
-     * Clears all values from the wordSelect ArrayList
+     * Clears all values from wordSelect
      */
     public void clearArrayList() {
-        wordSelect.clear();
+        size = 0;
+        textValid = false;
     }
 
     /**
      * Removes a value from a given position
-     * 
+     *
      * @param pos Position of the value to remove
      */
     public void removeValue(int pos) {
-        wordSelect.remove(pos);
+        int oldSize = size;
+        size = pos;
+        for (int i = pos + 1; i < oldSize; i++) {
+            addLetter(letters[i]); // Rebuilds the match state for every letter after pos
+        }
+        textValid = false;
     }
 
     /**
      * Remove the last value that was added to wordSelect
      */
     public void removeLastValue() {
-        wordSelect.remove(wordSelect.size() - 1);
+        if (size > 0) {
+            size--;
+            textValid = false;
+        }
+    }
+
+    /**
+     * Returns the trie node for the selected letters, or WordTrie.NONE if no word
+     * starts with them
+     */
+    public int getNode() {
+        return nodes[size];
+    }
+
+    /**
+     * Returns true if the selected letters spell a word in the index
+     */
+    public boolean isWord() {
+        return index != null && index.isWord(nodes[size]);
+    }
+
+    /**
+     * Returns true if the selected letters are the start of a word in the index
+     */
+    public boolean isPrefix() {
+        return nodes[size] != WordTrie.NONE;
+    }
+
+    /**
+     * Returns the same hash that toString().hashCode() would, without making the
+     * String
+     */
+    public int getHash() {
+        return hashes[size];
+    }
+
+    /**
+     * Returns the selected letters as a String. The String is only made again
+     * after the selection changes.
+     */
+    @Override
+    public String toString() {
+        if (!textValid) {
+            text = new String(letters, 0, size);
+            textValid = true;
+        }
+        return text;
     }
-}
\ No newline at end of file
+}
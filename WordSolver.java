@@ -0,0 +1,241 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This finds every word from a dictionary that appears on a Word Search board,
+ * in all eight directions. It is used to check generated boards and to find
+ * words that appear by accident.
+ *
+ * <p>
+ * From each cell the solver walks the dictionary trie outwards in every
+ * direction, stopping as soon as no word starts with the letters seen so far.
+ * Rows are split between the cores with fork-join. Each occurrence is stored
+ * as a single packed long, and only turned into a WordPlacement when it is
+ * read from the returned list.
+ *
+ * <p>
+ * Usage: java WordSolver board.txt dictionary.txt
+ *
+ * The following files are also required to run:
+ *
+ * Board.java Direction.java WordPlacement.java WordTrie.java
+ */
+
+public class WordSolver {
+
+    static final int ROWS_PER_TASK = 8; // Rows searched by a task before it stops splitting
+
+    private WordSolver() {
+    }
+
+    /**
+     * Returns every occurrence of every dictionary word on the board
+     */
+    public static List<WordPlacement> solve(Board board, WordTrie dictionary) {
+        return solve(board, dictionary, 1);
+    }
+
+    /**
+     * Returns every occurrence of every dictionary word on the board that is at
+     * least a given length. Words of one letter are reported once, not once per
+     * direction.
+     *
+     * @param board      Board to search
+     * @param dictionary Words to search for
+     * @param minLength  Shortest word to report
+     */
+    public static List<WordPlacement> solve(Board board, WordTrie dictionary, int minLength) {
+        return ForkJoinPool.commonPool().invoke(new RowTask(board, dictionary, minLength, 0, board.getSize()));
+    }
+
+    /**
+     * Searches a range of rows on the calling thread
+     *
+     * @param found Where to add each occurrence
+     */
+    static void solveRows(Board board, WordTrie dictionary, int minLength, int fromRow, int toRow,
+            Occurrences found) {
+        int size = board.getSize();
+        for (int row = fromRow; row < toRow; row++) {
+            for (int col = 0; col < size; col++) {
+                int first = dictionary.step(WordTrie.ROOT, board.getCode(board.index(row, col)));
+                if (first == WordTrie.NONE) {
+                    continue; // No word starts with this letter
+                }
+                if (minLength <= 1 && dictionary.isWord(first)) {
+                    found.add(dictionary.getWordId(first), board.index(row, col), 0);
+                }
+                for (int o = 0; o < Direction.COUNT; o++) {
+                    walk(board, dictionary, minLength, row, col, o, first, found);
+                }
+            }
+        }
+    }
+
+    /**
+     * Follows the trie from a cell in one direction, reporting each word passed
+     */
+    private static void walk(Board board, WordTrie dictionary, int minLength, int row, int col, int orientation,
+            int node, Occurrences found) {
+        int size = board.getSize();
+        int rowStep = Direction.ROW_STEP[orientation];
+        int colStep = Direction.COL_STEP[orientation];
+        int step = rowStep * size + colStep;
+        int maxLength = Math.min(maxSteps(row, rowStep, size), maxSteps(col, colStep, size)); // Cells to the edge
+        int index = board.index(row, col);
+
+        for (int length = 2; length <= maxLength; length++) {
+            index += step;
+            node = dictionary.step(node, board.getCode(index));
+            if (node == WordTrie.NONE) {
+                return;
+            }
+            if (length >= minLength && dictionary.isWord(node)) {
+                found.add(dictionary.getWordId(node), index - step * (length - 1), orientation);
+            }
+        }
+    }
+
+    /**
+     * Returns how many cells there are from pos to the edge of the board,
+     * including pos, when moving by step
+     */
+    private static int maxSteps(int pos, int step, int size) {
+        if (step > 0) {
+            return size - pos;
+        }
+        return step < 0 ? pos + 1 : size;
+    }
+
+    /**
+     * Searches a range of rows, splitting it in half until it is small enough
+     */
+    private static class RowTask extends RecursiveTask<Occurrences> {
+        private static final long serialVersionUID = 1L; // Never serialized, but ForkJoinTask is Serializable
+
+        private final Board board;
+        private final WordTrie dictionary;
+        private final int minLength;
+        private final int fromRow;
+        private final int toRow;
+
+        RowTask(Board board, WordTrie dictionary, int minLength, int fromRow, int toRow) {
+            this.board = board;
+            this.dictionary = dictionary;
+            this.minLength = minLength;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+        }
+
+        @Override
+        protected Occurrences compute() {
+            if (toRow - fromRow <= ROWS_PER_TASK) {
+                Occurrences found = new Occurrences(dictionary, board.getSize());
+                solveRows(board, dictionary, minLength, fromRow, toRow, found);
+                return found;
+            }
+            int middle = (fromRow + toRow) >>> 1;
+            RowTask top = new RowTask(board, dictionary, minLength, fromRow, middle);
+            top.fork();
+            Occurrences found = new RowTask(board, dictionary, minLength, middle, toRow).compute();
+            Occurrences topFound = top.join();
+            topFound.addAll(found); // Keeps results in row order
+            return topFound;
+        }
+    }
+
+    /**
+     * A list of occurrences stored as packed longs: word id, then the cell index
+     * of the first letter, then the orientation in the lowest 3 bits
+     */
+    static final class Occurrences extends AbstractList<WordPlacement> {
+        private final WordTrie dictionary;
+        private final int boardSize;
+        private long[] packed = new long[64];
+        private int size;
+
+        Occurrences(WordTrie dictionary, int boardSize) {
+            this.dictionary = dictionary;
+            this.boardSize = boardSize;
+        }
+
+        void add(int wordId, int index, int orientation) {
+            if (size == packed.length) {
+                packed = Arrays.copyOf(packed, size * 2);
+            }
+            packed[size++] = ((long) wordId << 35) | ((long) index << 3) | orientation;
+        }
+
+        void addAll(Occurrences other) {
+            if (size + other.size > packed.length) {
+                packed = Arrays.copyOf(packed, size + other.size);
+            }
+            System.arraycopy(other.packed, 0, packed, size, other.size);
+            size += other.size;
+        }
+
+        int getWordId(int pos) {
+            return (int) (packed[pos] >>> 35);
+        }
+
+        @Override
+        public WordPlacement get(int pos) {
+            if (pos >= size) {
+                throw new IndexOutOfBoundsException(pos);
+            }
+            int index = (int) ((packed[pos] >>> 3) & 0xFFFFFFFFL);
+            return new WordPlacement(dictionary.getWord(getWordId(pos)), index / boardSize, index % boardSize,
+                    (int) (packed[pos] & 7));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Reads a board and a dictionary (one word per line) and prints every word
+     * found on the board
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: java WordSolver board.txt dictionary.txt");
+            System.exit(2);
+        }
+        Board board = Board.parse(Files.readAllLines(Paths.get(args[0]), StandardCharsets.US_ASCII));
+        WordTrie dictionary = readDictionary(args[1]);
+
+        long start = System.nanoTime();
+        List<WordPlacement> found = solve(board, dictionary, 2);
+        long nanos = System.nanoTime() - start;
+        for (WordPlacement placement : found) {
+            System.out.println(placement);
+        }
+        System.err.printf("Found %d words in %.1fms%n", found.size(), nanos / 1e6);
+    }
+
+    /**
+     * Reads a dictionary with one word per line, skipping anything that isn't
+     * made only of letters
+     */
+    static WordTrie readDictionary(String file) throws IOException {
+        WordTrie dictionary = new WordTrie();
+        for (String line : Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8)) {
+            String word = line.trim().toUpperCase(Locale.ROOT);
+            if (!word.isEmpty() && word.chars().allMatch(c -> c >= 'A' && c <= 'Z')) {
+                dictionary.add(word);
+            }
+        }
+        dictionary.compact();
+        return dictionary;
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * This is a list of words that the Word Search game can hide, such as the
+ * built in word library or a dictionary file.
+ *
+ * <p>
+ * Words are numbered from 0 and kept in groups, where every word in a group
+ * has the same category and the same length. A group is a single run of word
+ * numbers, so words of a given length or category can be picked without
+ * reading any of the others.
+ *
+ * The following files are also required to run:
+ *
+ * ArrayWordSource.java Base.java MappedWordSource.java WordSampler.java
+ */
+
+public interface WordSource {
+
+    /**
+     * Returns how many words there are
+     */
+    int size();
+
+    /**
+     * Returns the word with a given number, in capital letters
+     */
+    String getWord(int index);
+
+    /**
+     * Returns how many groups the words are split into
+     */
+    int getGroupCount();
+
+    /**
+     * Returns the number of the first word in a group
+     */
+    int getGroupStart(int group);
+
+    /**
+     * Returns how many words are in a group
+     */
+    int getGroupSize(int group);
+
+    /**
+     * Returns the length of every word in a group
+     */
+    int getGroupLength(int group);
+
+    /**
+     * Returns the category of every word in a group
+     */
+    int getGroupCategory(int group);
+
+    /**
+     * Returns how many categories there are
+     */
+    int getCategoryCount();
+
+    /**
+     * Returns the name of a category
+     */
+    String getCategoryName(int category);
+
+    /**
+     * Returns the group holding a given word
+     */
+    default int getGroup(int index) {
+        int low = 0;
+        int high = getGroupCount() - 1;
+        while (low < high) { // Groups are in word order, so find the last one starting at or before index
+            int middle = (low + high + 1) >>> 1;
+            if (getGroupStart(middle) <= index) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the number of a category, or -1 if there is no category with that
+     * name
+     */
+    default int findCategory(String name) {
+        for (int i = 0; i < getCategoryCount(); i++) {
+            if (getCategoryName(i).equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
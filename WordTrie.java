@@ -0,0 +1,204 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * This is a prefix tree of words for the Word Search game, used to check
+ * selected letters against the word list and to find words on a board.
+ *
+ * <p>
+ * Nodes are plain ints. Each node has 26 child slots in one shared int array,
+ * so following a letter is a single array read and checking a word of length n
+ * takes n reads with no allocation, however many words are stored.
+ *
+ * The following files are also required to run:
+ *
+ * Board.java
+ */
+
+public class WordTrie {
+
+    static final int ROOT = 0; // Node for the empty prefix
+    static final int NONE = -1; // Returned when no word starts with a prefix
+
+    private int[] children = new int[Board.LETTERS * 64]; // Child of each node for each letter, NONE if missing
+    private int[] wordIds = new int[64]; // Id of the word ending at each node, NONE if none does
+    private int nodeCount = 1;
+    private ArrayList<String> words = new ArrayList<String>(); // Every word added, by id
+
+    public WordTrie() {
+        Arrays.fill(children, NONE);
+        Arrays.fill(wordIds, NONE);
+    }
+
+    /**
+     * Returns a trie holding a given list of words
+     */
+    public static WordTrie of(String... words) {
+        WordTrie trie = new WordTrie();
+        for (String word : words) {
+            trie.add(word);
+        }
+        return trie;
+    }
+
+    /**
+     * Adds a word, unless it is already stored
+     *
+     * @param word Word made of the letters A to Z
+     *
+     * @return The id of the word
+     */
+    public int add(String word) {
+        int node = ROOT;
+        for (int i = 0; i < word.length(); i++) {
+            int letter = word.charAt(i) - 'A';
+            int child = children[node * Board.LETTERS + letter];
+            if (child == NONE) {
+                child = newNode();
+                children[node * Board.LETTERS + letter] = child;
+            }
+            node = child;
+        }
+        if (wordIds[node] == NONE) {
+            wordIds[node] = words.size();
+            words.add(word);
+        }
+        return wordIds[node];
+    }
+
+    /**
+     * Stops a word from being matched. Its id is not reused.
+     */
+    public void remove(String word) {
+        int node = walk(word);
+        if (node != NONE) {
+            wordIds[node] = NONE;
+        }
+    }
+
+    /**
+     * Returns the node reached by adding a letter to the prefix at node, or NONE
+     * if no word starts with that prefix
+     */
+    public int step(int node, char letter) {
+        int index = letter - 'A';
+        if (node == NONE || index < 0 || index >= Board.LETTERS) {
+            return NONE;
+        }
+        return children[node * Board.LETTERS + index];
+    }
+
+    /**
+     * Returns the node reached by adding a board cell value to the prefix at node,
+     * or NONE if no word starts with that prefix
+     */
+    public int step(int node, byte code) {
+        if (node == NONE || code == Board.BLANK) {
+            return NONE;
+        }
+        return children[node * Board.LETTERS + code - 1];
+    }
+
+    /**
+     * Returns the node for a prefix, or NONE if no word starts with it
+     */
+    public int walk(CharSequence prefix) {
+        int node = ROOT;
+        for (int i = 0; i < prefix.length() && node != NONE; i++) {
+            node = step(node, prefix.charAt(i));
+        }
+        return node;
+    }
+
+    /**
+     * Returns true if a word ends at a given node
+     */
+    public boolean isWord(int node) {
+        return node != NONE && wordIds[node] != NONE;
+    }
+
+    /**
+     * Returns the id of the word ending at a given node, or NONE
+     */
+    public int getWordId(int node) {
+        return node == NONE ? NONE : wordIds[node];
+    }
+
+    /**
+     * Returns true if a given word is stored
+     */
+    public boolean contains(CharSequence word) {
+        return isWord(walk(word));
+    }
+
+    /**
+     * Returns true if at least one stored word starts with a given prefix
+     */
+    public boolean isPrefix(CharSequence prefix) {
+        return walk(prefix) != NONE;
+    }
+
+    /**
+     * Returns the word with a given id
+     */
+    public String getWord(int id) {
+        return words.get(id);
+    }
+
+    /**
+     * Returns how many words have been added
+     */
+    public int getSize() {
+        return words.size();
+    }
+
+    /**
+     * Renumbers the nodes in breadth-first order, so the short prefixes that
+     * every search passes through sit together in memory. Worth calling once
+     * after a large dictionary has been added; node numbers from before the call
+     * are no longer valid.
+     */
+    public void compact() {
+        int[] order = new int[nodeCount]; // Old node numbers in breadth-first order
+        int[] newNode = new int[nodeCount]; // New number of each old node
+        int head = 0;
+        int tail = 1;
+        while (head < tail) {
+            int node = order[head++];
+            for (int letter = 0; letter < Board.LETTERS; letter++) {
+                int child = children[node * Board.LETTERS + letter];
+                if (child != NONE) {
+                    newNode[child] = tail;
+                    order[tail++] = child;
+                }
+            }
+        }
+
+        int[] newChildren = new int[nodeCount * Board.LETTERS];
+        int[] newWordIds = new int[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            int node = order[i];
+            newWordIds[i] = wordIds[node];
+            for (int letter = 0; letter < Board.LETTERS; letter++) {
+                int child = children[node * Board.LETTERS + letter];
+                newChildren[i * Board.LETTERS + letter] = child == NONE ? NONE : newNode[child];
+            }
+        }
+        children = newChildren;
+        wordIds = newWordIds;
+    }
+
+    /**
+     * Creates a new node with no children, growing the arrays when full
+     */
+    private int newNode() {
+        if (nodeCount == wordIds.length) {
+            int oldLength = wordIds.length;
+            wordIds = Arrays.copyOf(wordIds, oldLength * 2);
+            children = Arrays.copyOf(children, oldLength * 2 * Board.LETTERS);
+            Arrays.fill(wordIds, oldLength, wordIds.length, NONE);
+            Arrays.fill(children, oldLength * Board.LETTERS, children.length, NONE);
+        }
+        return nodeCount++;
+    }
+}
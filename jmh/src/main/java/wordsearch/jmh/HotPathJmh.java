@@ -0,0 +1,74 @@
+package wordsearch.jmh;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntToLongFunction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This runs the tasks of HotPathBenchmark under JMH, so each one gets its own
+ * forked JVM, a blackhole for its result and warm-up iterations that JMH checks,
+ * none of which BenchmarkRunner has.
+ *
+ * <p>
+ * JMH won't run benchmarks in the default package, where every class of the
+ * game is, and classes in a package can't name those. So the tasks are fetched
+ * once per fork through HotPathBenchmark.tasks() by reflection, and each is
+ * called through IntToLongFunction, which the JIT inlines like any other call
+ * with only one target.
+ *
+ * <p>
+ * Run with, from the jmh folder:
+ *
+ * <pre>
+ * mvn -B package
+ * java -jar target/benchmarks.jar
+ * java -jar target/benchmarks.jar -p task=keystroke/word-prefix -prof gc
+ * </pre>
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class HotPathJmh {
+
+    @Param({ "generate/EASY", "generate/MEDIUM", "generate/HARD", "populate/EASY", "populate/MEDIUM",
+            "populate/HARD", "fill/EASY", "fill/MEDIUM", "fill/HARD", "keystroke/word-prefix",
+            "keystroke/random-cell", "frame/25x25", "frame/2000x2000" })
+    public String task; // Name of the task, as HotPathBenchmark prints it
+
+    private IntToLongFunction run;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws ReflectiveOperationException {
+        Map<String, IntToLongFunction> tasks = (Map<String, IntToLongFunction>) Class.forName("HotPathBenchmark")
+                .getMethod("tasks").invoke(null);
+        run = tasks.get(task);
+        if (run == null) {
+            throw new IllegalArgumentException("No task " + task + ", only " + tasks.keySet());
+        }
+    }
+
+    /**
+     * Does one operation of the task. The result is consumed by JMH.
+     */
+    @Benchmark
+    public long operation() {
+        return run.applyAsLong(1);
+    }
+}